@@ -0,0 +1,159 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.wiliammelo.empoweru.dtos.course.AuthenticatedCourseDetailedDTO;
+import org.wiliammelo.empoweru.dtos.course.PublicCourseDetailedDTO;
+import org.wiliammelo.empoweru.dtos.professor.ProfessorDTO;
+import org.wiliammelo.empoweru.dtos.section.AuthenticatedSectionDetailedDTO;
+import org.wiliammelo.empoweru.dtos.section.PublicSectionDetailedDTO;
+import org.wiliammelo.empoweru.dtos.video.VideoDTO;
+import org.wiliammelo.empoweru.dtos.video.VideoWithStatusDTO;
+import org.wiliammelo.empoweru.models.VideoStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding time of the detailed course DTOs with JDK serialization and the
+ * {@link KryoRedisSerializer}, with and without LZ4. Values are wrapped in a {@link CacheEnvelope} as the
+ * {@link TwoLevelCache} stores them. The encoded size of each combination is printed once per trial.
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="CacheSerializerBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    private static final int SECTIONS = 10;
+    private static final int VIDEOS_PER_SECTION = 12;
+
+    @Param({"jdk", "kryo", "kryo-lz4"})
+    private String serializer;
+
+    @Param({"public", "authenticated"})
+    private String dto;
+
+    private RedisSerializer<Object> redisSerializer;
+    private CacheEnvelope value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redisSerializer = switch (serializer) {
+            case "jdk" -> new JdkSerializationRedisSerializer();
+            case "kryo" -> new KryoRedisSerializer(0);
+            default -> new KryoRedisSerializer(2048);
+        };
+        Object course = "public".equals(dto) ? publicCourse() : authenticatedCourse();
+        value = new CacheEnvelope(course, 25, System.currentTimeMillis() + 600_000);
+        encoded = redisSerializer.serialize(value);
+        System.out.printf("%n%s %s: %d bytes%n", serializer, dto, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return redisSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return redisSerializer.deserialize(encoded);
+    }
+
+    private static PublicCourseDetailedDTO publicCourse() {
+        PublicCourseDetailedDTO course = new PublicCourseDetailedDTO();
+        course.setId(UUID.randomUUID());
+        course.setTitle("Building reliable microservices with Spring Boot");
+        course.setDescription(description());
+        course.setTags(List.of("java", "spring", "microservices", "backend"));
+        course.setProfessor(professor());
+        course.setVideosCount(SECTIONS * VIDEOS_PER_SECTION);
+        course.setDurationInSeconds(SECTIONS * VIDEOS_PER_SECTION * 720L);
+        List<PublicSectionDetailedDTO> sections = new ArrayList<>();
+        for (int s = 0; s < SECTIONS; s++) {
+            PublicSectionDetailedDTO section = new PublicSectionDetailedDTO();
+            section.setId(UUID.randomUUID());
+            section.setTitle("Section " + (s + 1) + ": service boundaries");
+            section.setDescription("What this section covers, in a sentence or two of text.");
+            List<VideoDTO> videos = new ArrayList<>();
+            for (int v = 0; v < VIDEOS_PER_SECTION; v++) {
+                VideoDTO video = new VideoDTO();
+                video.setId(UUID.randomUUID());
+                video.setUrl("https://empoweru.blob.core.windows.net/videos/" + UUID.randomUUID() + ".mp4");
+                video.setTitle("Lecture " + (v + 1) + " of section " + (s + 1));
+                video.setDisplayOrder(v + 1);
+                video.setDurationInSeconds(720.5);
+                video.setWidth(1920);
+                video.setHeight(1080);
+                video.setBitrate(4_500_000L);
+                video.setStatus(VideoStatus.READY);
+                videos.add(video);
+            }
+            section.setVideos(videos);
+            sections.add(section);
+        }
+        course.setSections(sections);
+        return course;
+    }
+
+    private static AuthenticatedCourseDetailedDTO authenticatedCourse() {
+        AuthenticatedCourseDetailedDTO course = new AuthenticatedCourseDetailedDTO();
+        course.setId(UUID.randomUUID());
+        course.setTitle("Building reliable microservices with Spring Boot");
+        course.setDescription(description());
+        course.setTags(List.of("java", "spring", "microservices", "backend"));
+        course.setProfessor(professor());
+        course.setVideosCount(SECTIONS * VIDEOS_PER_SECTION);
+        course.setDurationInSeconds(SECTIONS * VIDEOS_PER_SECTION * 720L);
+        course.setEnrolled(true);
+        course.setCompletionPercentage(37.5);
+        List<AuthenticatedSectionDetailedDTO> sections = new ArrayList<>();
+        for (int s = 0; s < SECTIONS; s++) {
+            AuthenticatedSectionDetailedDTO section = new AuthenticatedSectionDetailedDTO();
+            section.setId(UUID.randomUUID());
+            section.setTitle("Section " + (s + 1) + ": service boundaries");
+            section.setDescription("What this section covers, in a sentence or two of text.");
+            List<VideoWithStatusDTO> videos = new ArrayList<>();
+            for (int v = 0; v < VIDEOS_PER_SECTION; v++) {
+                VideoWithStatusDTO video = new VideoWithStatusDTO();
+                video.setId(UUID.randomUUID());
+                video.setUrl("https://empoweru.blob.core.windows.net/videos/" + UUID.randomUUID() + ".mp4");
+                video.setTitle("Lecture " + (v + 1) + " of section " + (s + 1));
+                video.setDisplayOrder(v + 1);
+                video.setDurationInSeconds(720.5);
+                video.setWatched(v % 3 == 0);
+                video.setProgressIndex(s * VIDEOS_PER_SECTION + v);
+                videos.add(video);
+            }
+            section.setVideos(videos);
+            sections.add(section);
+        }
+        course.setSections(sections);
+        return course;
+    }
+
+    private static ProfessorDTO professor() {
+        ProfessorDTO professor = new ProfessorDTO();
+        professor.setId(UUID.randomUUID());
+        professor.setName("Ada Lovelace");
+        professor.setEmail("ada@empoweru.org");
+        professor.setGender("F");
+        professor.setBio("Software engineer teaching distributed systems for over ten years.");
+        professor.setImageURL("https://empoweru.blob.core.windows.net/images/ada.png");
+        return professor;
+    }
+
+    private static String description() {
+        return "Learn to design, build and operate services that stay up under load. ".repeat(12);
+    }
+
+}
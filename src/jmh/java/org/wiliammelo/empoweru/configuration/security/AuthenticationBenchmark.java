@@ -0,0 +1,87 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.wiliammelo.empoweru.models.User;
+import org.wiliammelo.empoweru.models.UserRole;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request work of authenticating a bearer token once it is verified: reading the token from the
+ * header, building the principal and the authentication with its authorities, and deriving the role name.
+ * <p>
+ * The {@code legacy*} methods reproduce the code before per-role authorities and in-place header parsing, so a single
+ * run compares both. Run with {@code -prof gc} to read the allocations per operation from
+ * {@code gc.alloc.rate.norm}:</p>
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="AuthenticationBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    @Param({"STUDENT", "PROFESSOR", "ADMIN"})
+    private UserRole role;
+
+    private String authHeader;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        // The length of a typical access token
+        authHeader = "Bearer eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9." + "x".repeat(220) + ".signature-signature-signature";
+        userId = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public void request(Blackhole blackhole) {
+        String token = SecurityFilter.bearerToken(authHeader);
+        User user = PrincipalCache.principal(userId, "student@empoweru.org", role, 0);
+        blackhole.consume(token);
+        blackhole.consume(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Benchmark
+    public void legacyRequest(Blackhole blackhole) {
+        String token = authHeader.replace("Bearer ", "");
+        User user = PrincipalCache.principal(userId, "student@empoweru.org", role, 0);
+        blackhole.consume(token);
+        blackhole.consume(new UsernamePasswordAuthenticationToken(user, null, legacyAuthorities(role)));
+    }
+
+    @Benchmark
+    public String roleName() {
+        return role.name();
+    }
+
+    @Benchmark
+    public String legacyRoleName() {
+        return legacyAuthorities(role).stream().findFirst().get().getAuthority().replace("ROLE_", "");
+    }
+
+    /**
+     * The authorities as {@code User.getAuthorities()} built them, on every call.
+     */
+    private static Collection<? extends GrantedAuthority> legacyAuthorities(UserRole role) {
+        if (role.getRole().equals("admin")) {
+            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_PROFESSOR"), new SimpleGrantedAuthority("ROLE_STUDENT"));
+        } else if (role.getRole().equals("professor")) {
+            return List.of(new SimpleGrantedAuthority("ROLE_PROFESSOR"));
+        } else {
+            return List.of(new SimpleGrantedAuthority("ROLE_STUDENT"));
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+import org.wiliammelo.empoweru.exceptions.CustomException;
+import org.wiliammelo.empoweru.models.Student;
+import org.wiliammelo.empoweru.models.UserRole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures access token verification throughput:
+ * <ul>
+ *     <li>{@code legacy}: the algorithm and verifier built on every call, as before they were pre-built;</li>
+ *     <li>{@code prebuilt}: the pre-built verifier, which is what a verified-token cache miss costs;</li>
+ *     <li>{@code cached}: {@link JWTService#verifyAccessToken} for a token verified before.</li>
+ * </ul>
+ * Run once per thread count:
+ * <pre>
+ * for t in 1 8 32; do mvn -Pjmh test-compile exec:exec -Djmh.args="JwtVerificationBenchmark -t $t"; done
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "jwt-benchmark-secret";
+
+    private JWTService jwtService;
+    private JWTVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() throws CustomException {
+        jwtService = new JWTService(SECRET, DataSize.ofMegabytes(4));
+        verifier = JWT.require(Algorithm.HMAC256(SECRET))
+                .withIssuer("EmpowerU-api")
+                .withClaim("type", "ACCESS")
+                .build();
+
+        Student student = new Student();
+        student.setId(UUID.randomUUID());
+        student.setEmail("student@empoweru.org");
+        student.setRole(UserRole.STUDENT);
+        token = jwtService.generateAccessToken(student);
+    }
+
+    @Benchmark
+    public DecodedJWT legacy() {
+        return JWT.require(Algorithm.HMAC256(SECRET))
+                .withIssuer("EmpowerU-api")
+                .withClaim("type", "ACCESS")
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT prebuilt() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cached() {
+        return jwtService.verifyAccessToken(token);
+    }
+
+}
@@ -0,0 +1,213 @@
+package org.wiliammelo.empoweru.services.search;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.wiliammelo.empoweru.models.CourseSummary;
+import org.wiliammelo.empoweru.services.CourseSummaryService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares the {@link CourseSearchIndex} with the {@code LIKE} queries behind {@link JpqlCourseSearchBackend} on a
+ * synthetic catalog of 100k courses.
+ * <p>
+ * The {@code jpql} backend runs the SQL Hibernate generates for the {@code CourseRepository} queries against a
+ * PostgreSQL container holding the same catalog, and sorts and pages the rows as the backend does. Entities are not
+ * hydrated, so it is measured slightly faster than it really is. Docker is required for that backend:</p>
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="CourseSearchBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseSearchBenchmark {
+
+    private static final int COURSES = 100_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String[] WORDS = {
+            "java", "spring", "python", "data", "machine", "learning", "web", "design", "cloud", "security",
+            "kubernetes", "docker", "react", "testing", "algorithms", "databases", "networks", "mobile", "devops",
+            "statistics", "finance", "marketing", "photography", "music", "writing", "leadership", "excel", "go",
+            "rust", "linux", "pipelines", "architecture", "microservices", "graphql", "analytics", "vision"
+    };
+
+    private static final String TITLE_QUERY =
+            "SELECT c.id, c.title FROM course c WHERE upper(c.title) LIKE upper(?) ESCAPE '\\'";
+    private static final String TAGS_QUERY =
+            "SELECT DISTINCT c.id, c.title FROM course c JOIN course_tags t ON c.id = t.course_id WHERE lower(t.tag) IN (?, ?)";
+    private static final String TITLE_AND_TAGS_QUERY =
+            "SELECT DISTINCT c.id, c.title FROM course c JOIN course_tags t ON c.id = t.course_id " +
+                    "WHERE lower(c.title) LIKE lower(('%' || ? || '%')) AND lower(t.tag) IN (?, ?)";
+
+    @Param({"index", "jpql"})
+    private String backend;
+
+    @Param({"machine learning", "rust"})
+    private String title;
+
+    private final List<String> tags = List.of("cloud", "security");
+
+    private CourseSearchIndex index;
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        List<CourseSummary> catalog = catalog();
+        if ("index".equals(backend)) {
+            CourseSummaryService courseSummaryService = Mockito.mock(CourseSummaryService.class);
+            Mockito.doAnswer(invocation -> {
+                Consumer<CourseSummary> consumer = invocation.getArgument(0);
+                catalog.forEach(consumer);
+                return null;
+            }).when(courseSummaryService).forEachSummary(Mockito.any());
+            index = new CourseSearchIndex(courseSummaryService,
+                    Mockito.mock(StringRedisTemplate.class),
+                    Mockito.mock(RedisMessageListenerContainer.class));
+            index.build();
+        } else {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+            load(catalog);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public List<UUID> byTitle() throws SQLException {
+        if (index != null) {
+            return index.search(title, null, 0, PAGE_SIZE);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(TITLE_QUERY)) {
+            statement.setString(1, "%" + title + "%");
+            return page(statement);
+        }
+    }
+
+    @Benchmark
+    public List<UUID> byTags() throws SQLException {
+        if (index != null) {
+            return index.search(null, tags, 0, PAGE_SIZE);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(TAGS_QUERY)) {
+            statement.setString(1, tags.get(0));
+            statement.setString(2, tags.get(1));
+            return page(statement);
+        }
+    }
+
+    @Benchmark
+    public List<UUID> byTitleAndTags() throws SQLException {
+        if (index != null) {
+            return index.search(title, tags, 0, PAGE_SIZE);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(TITLE_AND_TAGS_QUERY)) {
+            statement.setString(1, title);
+            statement.setString(2, tags.get(0));
+            statement.setString(3, tags.get(1));
+            return page(statement);
+        }
+    }
+
+    /**
+     * Sorts and pages the rows as {@link JpqlCourseSearchBackend} does.
+     */
+    private static List<UUID> page(PreparedStatement statement) throws SQLException {
+        List<Map.Entry<String, UUID>> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows.add(Map.entry(resultSet.getString(2), resultSet.getObject(1, UUID.class)));
+            }
+        }
+        return rows.stream()
+                .sorted(Map.Entry.<String, UUID>comparingByKey().thenComparing(Map.Entry.comparingByValue()))
+                .limit(PAGE_SIZE)
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    private void load(List<CourseSummary> catalog) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE course (id uuid PRIMARY KEY, title varchar(255), description varchar(1000) NOT NULL)");
+            statement.execute("CREATE TABLE course_tags (course_id uuid NOT NULL REFERENCES course (id), tag varchar(255))");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement course = connection.prepareStatement("INSERT INTO course (id, title, description) VALUES (?, ?, ?)");
+             PreparedStatement tag = connection.prepareStatement("INSERT INTO course_tags (course_id, tag) VALUES (?, ?)")) {
+            for (CourseSummary summary : catalog) {
+                course.setObject(1, summary.getCourseId());
+                course.setString(2, summary.getTitle());
+                course.setString(3, summary.getDescription());
+                course.addBatch();
+                for (String courseTag : summary.getTags()) {
+                    tag.setObject(1, summary.getCourseId());
+                    tag.setString(2, courseTag);
+                    tag.addBatch();
+                }
+            }
+            course.executeBatch();
+            tag.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (var statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    /**
+     * Builds the same catalog for both backends: titles of four words and two or three tags, from a fixed seed.
+     */
+    private static List<CourseSummary> catalog() {
+        Random random = new Random(42);
+        List<CourseSummary> catalog = new ArrayList<>(COURSES);
+        for (int i = 0; i < COURSES; i++) {
+            CourseSummary summary = new CourseSummary();
+            summary.setCourseId(new UUID(random.nextLong(), random.nextLong()));
+            summary.setTitle(capitalize(word(random)) + " " + word(random) + " " + word(random) + " " + word(random) + " " + i);
+            summary.setDescription("Synthetic course number " + i);
+            Set<String> courseTags = new LinkedHashSet<>();
+            int tagCount = 2 + random.nextInt(2);
+            while (courseTags.size() < tagCount) {
+                courseTags.add(word(random));
+            }
+            summary.setTags(new ArrayList<>(courseTags));
+            catalog.add(summary);
+        }
+        return catalog;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+}
@@ -4,9 +4,11 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.core.Ordered;
 
 @SpringBootApplication
-@EnableCaching
+// Caching wraps the transactions, so a cached method's loader, also run on the cache's refresh threads, opens its own
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 @EnableFeignClients
 public class EmpowerUApplication {
 
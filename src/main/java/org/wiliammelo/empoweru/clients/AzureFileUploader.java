@@ -1,39 +1,205 @@
 package org.wiliammelo.empoweru.clients;
 
-import com.azure.storage.blob.BlobClient;
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobContainerClient;
-import lombok.AllArgsConstructor;
+import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlockBlobCommitBlockListOptions;
+import com.azure.storage.blob.specialized.BlockBlobClient;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service class for uploading files to Azure Blob Storage.
  * Implements the FileUploader interface to provide a method for uploading files.
+ * Used unless {@code storage.provider=local} selects the {@link LocalFileUploader}.
+ * <p>
+ * The content is read in fixed-size blocks which are staged on a shared pool while the next block is read, then the
+ * block list is committed in order. Each upload holds at most {@code storage.upload.concurrency} blocks in memory and
+ * waits for a staged block to free its buffer before reading further, so a slow storage account slows the client down
+ * instead of filling the heap.</p>
  */
 @Service
-@AllArgsConstructor
+@ConditionalOnProperty(name = "storage.provider", havingValue = "azure", matchIfMissing = true)
 public class AzureFileUploader implements FileUploader {
 
+    private static final String PREFIX = "/videos/";
+
     private final BlobContainerClient blobContainerClient;
+    private final int blockSize;
+    private final int concurrency;
+    private final ExecutorService stagingExecutor;
+
+    public AzureFileUploader(BlobContainerClient blobContainerClient,
+                             @Value("${storage.upload.block-size}") DataSize blockSize,
+                             @Value("${storage.upload.concurrency}") int concurrency,
+                             @Value("${storage.upload.pool-size}") int poolSize) {
+        this.blobContainerClient = blobContainerClient;
+        this.blockSize = (int) blockSize.toBytes();
+        this.concurrency = concurrency;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.stagingExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "blob-stager-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stagingExecutor.shutdown();
+    }
 
     /**
-     * Uploads a file to Azure Blob Storage and returns the URL of the uploaded file.
+     * Uploads a file to Azure Blob Storage as a block blob and returns the URL of the uploaded file.
      *
-     * @param file The MultipartFile to be uploaded.
+     * @param name        The name of the file.
+     * @param contentType The content type of the file.
+     * @param content     The file content.
      * @return The URL of the uploaded file in Azure Blob Storage.
-     * @throws IOException If an I/O error occurs during file upload.
+     * @throws IOException If reading the content or staging a block fails.
      */
     @Override
-    public String upload(MultipartFile file) throws IOException {
+    public String upload(String name, String contentType, InputStream content) throws IOException {
+        BlockBlobClient blobClient = this.blobContainerClient.getBlobClient(PREFIX + name).getBlockBlobClient();
+
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(concurrency);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<String> blockIds = new ArrayList<>();
+        List<Future<?>> stagedBlocks = new ArrayList<>();
+        try {
+            int allocated = 0;
+            while (!failed.get()) {
+                byte[] buffer = buffers.poll();
+                if (buffer == null && allocated < concurrency) {
+                    buffer = new byte[blockSize];
+                    allocated++;
+                } else if (buffer == null) {
+                    buffer = buffers.take();
+                }
 
-        String blobName = "/videos/" + file.getOriginalFilename();
+                int length = content.readNBytes(buffer, 0, blockSize);
+                if (length == 0) {
+                    break;
+                }
 
-        BlobClient blobClient = this.blobContainerClient.getBlobClient(blobName);
+                String blockId = blockId(blockIds.size());
+                blockIds.add(blockId);
+                byte[] block = buffer;
+                stagedBlocks.add(stagingExecutor.submit(() -> {
+                    try {
+                        blobClient.stageBlock(blockId, new ByteArrayInputStream(block, 0, length), length);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        buffers.add(block);
+                    }
+                }));
+                if (length < blockSize) {
+                    break;
+                }
+            }
 
-        blobClient.upload(file.getInputStream(), file.getSize(), true);
+            for (Future<?> stagedBlock : stagedBlocks) {
+                stagedBlock.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading " + name);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not stage a block of " + name, e.getCause());
+        } finally {
+            // Blocks never committed are discarded by the storage account
+            stagedBlocks.forEach(stagedBlock -> stagedBlock.cancel(false));
+        }
+
+        blobClient.commitBlockListWithResponse(new BlockBlobCommitBlockListOptions(blockIds)
+                .setHeaders(new BlobHttpHeaders().setContentType(contentType)), null, Context.NONE);
 
         return blobClient.getBlobUrl();
     }
+
+    /**
+     * Deletes a blob from Azure Blob Storage, if it exists.
+     *
+     * @param name The name of the file.
+     */
+    @Override
+    public void delete(String name) {
+        this.blobContainerClient.getBlobClient(PREFIX + name).deleteIfExists();
+    }
+
+    /**
+     * Returns the size of a blob in Azure Blob Storage.
+     *
+     * @param name The name of the file.
+     * @return The size of the blob in bytes.
+     * @throws IOException If the blob does not exist or its properties cannot be read.
+     */
+    @Override
+    public long size(String name) throws IOException {
+        try {
+            return this.blobContainerClient.getBlobClient(PREFIX + name).getProperties().getBlobSize();
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new NoSuchFileException(name);
+            }
+            throw new IOException("Could not read the properties of " + name, e);
+        }
+    }
+
+    /**
+     * Downloads a byte range of a blob into a buffer.
+     *
+     * @param name   The name of the file.
+     * @param offset The position in the blob of the first byte to read.
+     * @param target The buffer to read into.
+     * @throws IOException If the range cannot be downloaded.
+     */
+    @Override
+    public void read(String name, long offset, ByteBuffer target) throws IOException {
+        BlobRange range = new BlobRange(offset, (long) target.remaining());
+        try (InputStream content = this.blobContainerClient.getBlobClient(PREFIX + name).openInputStream(range, null)) {
+            ReadableByteChannel channel = Channels.newChannel(content);
+            while (target.hasRemaining() && channel.read(target) >= 0) {
+                // Keep reading until the range is complete
+            }
+        } catch (BlobStorageException e) {
+            throw new IOException("Could not download " + name + " from " + offset, e);
+        }
+    }
+
+    /**
+     * Block ids must have the same length within a blob, so the index is zero-padded before encoding.
+     */
+    private static String blockId(int index) {
+        return Base64.getEncoder().encodeToString(String.format("%08d", index).getBytes(StandardCharsets.US_ASCII));
+    }
 }
@@ -1,8 +1,8 @@
 package org.wiliammelo.empoweru.clients;
 
-import org.springframework.web.multipart.MultipartFile;
-
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Interface defining the contract for file uploading services.
@@ -12,11 +12,42 @@ import java.io.IOException;
 public interface FileUploader {
 
     /**
-     * Uploads a given file and returns the URL where the file is accessible.
+     * Uploads the content of a stream and returns the URL where the file is accessible.
+     * The stream is read to its end but not closed.
      *
-     * @param file The file to be uploaded. This is a multipart file, typically coming from an HTTP request.
+     * @param name        The name of the file, typically the original file name sent by the client.
+     * @param contentType The content type of the file.
+     * @param content     The file content, typically streamed straight from an HTTP request.
      * @return The URL of the uploaded file, indicating where the file can be accessed.
      * @throws IOException If an I/O error occurs during the file upload process.
      */
-    String upload(MultipartFile file) throws IOException;
+    String upload(String name, String contentType, InputStream content) throws IOException;
+
+    /**
+     * Deletes a file uploaded under the given name, if it exists.
+     *
+     * @param name The name the file was uploaded with.
+     * @throws IOException If an I/O error occurs while deleting the file.
+     */
+    void delete(String name) throws IOException;
+
+    /**
+     * Returns the size of an uploaded file.
+     *
+     * @param name The name the file was uploaded with.
+     * @return The size of the file in bytes.
+     * @throws java.nio.file.NoSuchFileException If there is no such file.
+     * @throws IOException                       If an I/O error occurs while reading the file properties.
+     */
+    long size(String name) throws IOException;
+
+    /**
+     * Reads part of an uploaded file, filling the remaining space of a buffer or stopping at the end of the file.
+     *
+     * @param name   The name the file was uploaded with.
+     * @param offset The position in the file of the first byte to read.
+     * @param target The buffer to read into.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    void read(String name, long offset, ByteBuffer target) throws IOException;
 }
@@ -0,0 +1,135 @@
+package org.wiliammelo.empoweru.clients;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Service class for storing files on the local filesystem, for on-premise and single-node deployments or to stand in
+ * for Azure Blob Storage in tests. Enabled with {@code storage.provider=local}.
+ * <p>
+ * Content is written to a temporary file with {@link FileChannel#transferFrom}, then moved into place, so a file is
+ * either complete or absent. Stored files are served back under {@code /media/} by the
+ * {@link org.wiliammelo.empoweru.controllers.MediaController}.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+public class LocalFileUploader implements FileUploader {
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final String baseUrl;
+    private final long transferSize;
+
+    public LocalFileUploader(@Value("${storage.local.directory}") String directory,
+                             @Value("${storage.local.base-url}") String baseUrl,
+                             @Value("${storage.upload.block-size}") DataSize transferSize) throws IOException {
+        this.directory = Files.createDirectories(Path.of(directory)).toRealPath();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.transferSize = transferSize.toBytes();
+    }
+
+    /**
+     * Writes a file to the storage directory and returns the URL it is served at. The content is read to its end but
+     * not closed.
+     *
+     * @param name        The name of the file.
+     * @param contentType The content type of the file, derived again from the name when it is served.
+     * @param content     The file content.
+     * @return The URL of the stored file.
+     * @throws IOException If reading the content or writing the file fails.
+     */
+    @Override
+    public String upload(String name, String contentType, InputStream content) throws IOException {
+        Path target = resolve(name);
+        Path temporary = directory.resolve(UUID.randomUUID() + TEMPORARY_SUFFIX);
+        try {
+            // The source channel is not closed, closing it would close the caller's stream
+            ReadableByteChannel source = Channels.newChannel(content);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = channel.transferFrom(source, position, transferSize)) > 0) {
+                    position += transferred;
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        return baseUrl + name;
+    }
+
+    /**
+     * Deletes a stored file, if it exists.
+     *
+     * @param name The name of the file.
+     * @throws IOException If the file cannot be deleted.
+     */
+    @Override
+    public void delete(String name) throws IOException {
+        Files.deleteIfExists(resolve(name));
+    }
+
+    /**
+     * Returns the size of a stored file.
+     *
+     * @param name The name of the file.
+     * @return The size of the file in bytes.
+     * @throws IOException If the file does not exist or cannot be read.
+     */
+    @Override
+    public long size(String name) throws IOException {
+        return Files.size(resolve(name));
+    }
+
+    /**
+     * Reads part of a stored file into a buffer.
+     *
+     * @param name   The name of the file.
+     * @param offset The position in the file of the first byte to read.
+     * @param target The buffer to read into.
+     * @throws IOException If the file cannot be read.
+     */
+    @Override
+    public void read(String name, long offset, ByteBuffer target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(name), StandardOpenOption.READ)) {
+            long position = offset;
+            int read;
+            while (target.hasRemaining() && (read = channel.read(target, position)) >= 0) {
+                position += read;
+            }
+        }
+    }
+
+    /**
+     * Resolves the path of a stored file.
+     *
+     * @param name The name of the file.
+     * @return The path of the file, which may not exist.
+     * @throws IllegalArgumentException If the name is not a plain file name within the storage directory.
+     */
+    public Path resolve(String name) {
+        Path file = directory.resolve(name).normalize();
+        if (name.isEmpty() || name.endsWith(TEMPORARY_SUFFIX) || !directory.equals(file.getParent())) {
+            throw new IllegalArgumentException("Invalid file name: " + name);
+        }
+        return file;
+    }
+
+}
@@ -3,6 +3,7 @@ package org.wiliammelo.empoweru.configuration;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,6 +13,7 @@ import org.springframework.context.annotation.Configuration;
  * allowing for easy injection and management within the Spring application context.
  */
 @Configuration
+@ConditionalOnProperty(name = "storage.provider", havingValue = "azure", matchIfMissing = true)
 public class AzureBlobBeans {
 
     // Connection string to Azure Blob Storage, injected from application properties
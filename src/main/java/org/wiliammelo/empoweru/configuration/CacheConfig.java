@@ -0,0 +1,114 @@
+package org.wiliammelo.empoweru.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.wiliammelo.empoweru.configuration.cache.CacheTagRegistry;
+import org.wiliammelo.empoweru.configuration.cache.DistributedLoadLock;
+import org.wiliammelo.empoweru.configuration.cache.KryoRedisSerializer;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache configuration: a per-node Caffeine near cache in front of the shared Redis cache.
+ * Redis values are written with JDK serialization ({@code cache.redis.serializer=jdk}) or with the compact
+ * {@link KryoRedisSerializer} ({@code cache.redis.serializer=kryo}).
+ * Early refreshes run on a small bounded pool; when it is saturated, refreshes are skipped and entries expire normally.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final String KRYO_SERIALIZER = "kryo";
+
+    @Value("${cache.local.maximum-size}")
+    private long localMaximumSize;
+
+    @Value("${cache.local.time-to-live}")
+    private Duration localTimeToLive;
+
+    @Value("${cache.redis.time-to-live}")
+    private Duration redisTimeToLive;
+
+    @Value("${cache.redis.serializer}")
+    private String redisSerializer;
+
+    @Value("${cache.redis.compression-threshold}")
+    private int compressionThreshold;
+
+    @Value("${cache.lock.enabled}")
+    private boolean lockEnabled;
+
+    @Value("${cache.lock.timeout}")
+    private Duration lockTimeout;
+
+    @Value("${cache.early-refresh.beta}")
+    private double earlyRefreshBeta;
+
+    @Value("${cache.early-refresh.pool-size}")
+    private int earlyRefreshPoolSize;
+
+    @Value("${cache.early-refresh.queue-capacity}")
+    private int earlyRefreshQueueCapacity;
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    @Bean
+    public RedisCacheManager redisCacheManager(JedisConnectionFactory jedisConnectionFactory) {
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(redisTimeToLive);
+        if (KRYO_SERIALIZER.equals(redisSerializer)) {
+            configuration = configuration.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(new KryoRedisSerializer(compressionThreshold)));
+        }
+        return RedisCacheManager.builder(jedisConnectionFactory)
+                .cacheDefaults(configuration)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
+    }
+
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     MeterRegistry meterRegistry) {
+        CacheTagRegistry tagRegistry = new CacheTagRegistry(stringRedisTemplate, redisTimeToLive);
+        DistributedLoadLock loadLock = lockEnabled ? new DistributedLoadLock(stringRedisTemplate, lockTimeout) : null;
+        AtomicInteger threadCount = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(earlyRefreshPoolSize, earlyRefreshPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(earlyRefreshQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate,
+                localMaximumSize, localTimeToLive, redisTimeToLive, loadLock, earlyRefreshBeta, refreshExecutor,
+                tagRegistry, meterRegistry);
+        redisMessageListenerContainer.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return cacheManager;
+    }
+
+}
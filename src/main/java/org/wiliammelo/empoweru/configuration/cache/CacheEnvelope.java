@@ -0,0 +1,67 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import org.springframework.cache.Cache;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cached value together with what probabilistic early refresh needs: how long it took to compute and when it expires.
+ * <p>
+ * Implements the XFetch rule: a reader refreshes the entry ahead of time when
+ * {@code now - computeMillis * beta * ln(random) >= expiresAt}. The closer the entry is to expiring and the more
+ * expensive it is to compute, the more likely a reader is to rebuild it, so hot keys are refreshed by a single
+ * reader before they expire instead of by every reader at once after they do.</p>
+ */
+public class CacheEnvelope implements Cache.ValueWrapper, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final long computeMillis;
+    private final long expiresAt;
+
+    public CacheEnvelope(Object value, long computeMillis, long expiresAt) {
+        this.value = value;
+        this.computeMillis = computeMillis;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Wraps a value that was stored without an envelope, which is never refreshed early.
+     *
+     * @param value The cached value.
+     * @return The envelope.
+     */
+    public static CacheEnvelope of(Object value) {
+        return new CacheEnvelope(value, 0L, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Object get() {
+        return value;
+    }
+
+    public long getComputeMillis() {
+        return computeMillis;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Decides whether this reader should rebuild the entry before it expires.
+     *
+     * @param beta Scales how early refreshes happen; 1.0 is the usual value and 0 disables early refresh.
+     * @return true if the entry should be refreshed now.
+     */
+    public boolean shouldRefreshEarly(double beta) {
+        if (beta <= 0 || computeMillis <= 0 || expiresAt == Long.MAX_VALUE) {
+            return false;
+        }
+        double gap = -computeMillis * beta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= expiresAt;
+    }
+
+}
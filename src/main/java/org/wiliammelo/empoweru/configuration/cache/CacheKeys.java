@@ -0,0 +1,86 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the tagged keys of the "course" cache and the tags used to evict them.
+ * <p>
+ * Exposed as the {@code cacheKeys} bean so cache annotations can reference it, e.g.
+ * {@code key = "@cacheKeys.course(#id, #includeDetails)"}. Every entry depends on the catalog as a whole or on a single
+ * course: section and video changes are evicted through the course they belong to, and per-student entries carry an
+ * extra tag so a student's progress only evicts their own view of the course.</p>
+ */
+@Component("cacheKeys")
+public class CacheKeys {
+
+    public static final String CATALOG_TAG = "catalog";
+
+    /**
+     * Key of a catalog listing (all courses or a search), which depends on every course.
+     *
+     * @param kind  The kind of listing, e.g. {@code findAll} or {@code title}.
+     * @param parts The listing parameters. Collections are sorted so equivalent queries share an entry.
+     * @return The tagged key.
+     */
+    public TaggedCacheKey catalog(String kind, Object... parts) {
+        StringBuilder key = new StringBuilder(CATALOG_TAG).append(':').append(kind);
+        for (Object part : parts) {
+            key.append(':');
+            if (part instanceof Collection<?> values) {
+                key.append(values.stream().map(String::valueOf).sorted().collect(Collectors.joining(",")));
+            } else {
+                key.append(part);
+            }
+        }
+        return new TaggedCacheKey(key.toString(), Set.of(CATALOG_TAG));
+    }
+
+    /**
+     * Key of the public view of a course.
+     *
+     * @param courseId       The UUID of the course.
+     * @param includeDetails Whether the view includes sections and videos.
+     * @return The tagged key.
+     */
+    public TaggedCacheKey course(UUID courseId, boolean includeDetails) {
+        return new TaggedCacheKey(courseId + ":" + includeDetails, Set.of(courseTag(courseId)));
+    }
+
+    /**
+     * Key of a student's view of a course, including enrollment and watched videos.
+     *
+     * @param courseId  The UUID of the course.
+     * @param studentId The UUID of the student.
+     * @return The tagged key.
+     */
+    public TaggedCacheKey courseForStudent(UUID courseId, UUID studentId) {
+        return new TaggedCacheKey(courseId + ":" + studentId,
+                Set.of(courseTag(courseId), courseStudentTag(courseId, studentId)));
+    }
+
+    /**
+     * Key of a student's progress summary for a course.
+     *
+     * @param courseId  The UUID of the course.
+     * @param studentId The UUID of the student.
+     * @return The tagged key.
+     */
+    public TaggedCacheKey courseProgress(UUID courseId, UUID studentId) {
+        return new TaggedCacheKey(courseId + ":" + studentId + ":progress",
+                Set.of(courseTag(courseId), courseStudentTag(courseId, studentId)));
+    }
+
+    public static String courseTag(UUID courseId) {
+        return "course:" + courseId;
+    }
+
+    public static String courseStudentTag(UUID courseId, UUID studentId) {
+        return "course:" + courseId + ":student:" + studentId;
+    }
+
+}
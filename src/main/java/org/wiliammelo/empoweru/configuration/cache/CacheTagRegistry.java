@@ -0,0 +1,71 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records which cache entries depend on each tag, as Redis sets shared by every node.
+ * <p>
+ * Each tag maps to a set of {@code cacheName|key} members. Sets expire together with the entries they point to, so
+ * tags of entries that are never evicted explicitly do not accumulate.</p>
+ */
+public class CacheTagRegistry {
+
+    private static final String PREFIX = "cache-tag:";
+    static final char SEPARATOR = '|';
+
+    // Reads and deletes the set in one step, so an entry registered meanwhile is either returned or kept for later
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE = new DefaultRedisScript<>(
+            "local members = redis.call('smembers', KEYS[1]) redis.call('del', KEYS[1]) return members",
+            List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration timeToLive;
+
+    public CacheTagRegistry(StringRedisTemplate stringRedisTemplate, Duration timeToLive) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Records an entry under each of its tags.
+     *
+     * @param cacheName The name of the cache holding the entry.
+     * @param key       The tagged key of the entry.
+     */
+    public void register(String cacheName, TaggedCacheKey key) {
+        String member = cacheName + SEPARATOR + key;
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String tag : key.getTags()) {
+                stringConnection.sAdd(PREFIX + tag, member);
+                if (!timeToLive.isZero()) {
+                    stringConnection.expire(PREFIX + tag, timeToLive.toSeconds());
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns and forgets the entries recorded under a tag, atomically.
+     *
+     * @param tag The tag.
+     * @return The {@code cacheName|key} members recorded under the tag.
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> remove(String tag) {
+        List<String> members = stringRedisTemplate.execute(REMOVE, List.of(PREFIX + tag));
+        return members == null ? Set.of() : new HashSet<>(members);
+    }
+
+}
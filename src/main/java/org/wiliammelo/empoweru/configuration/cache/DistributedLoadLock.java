@@ -0,0 +1,83 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Per-key Redis lock ({@code SET NX PX}) letting a single node rebuild a missing cache entry while the others wait
+ * for it to appear in Redis. The lock expires on its own, so a crashed loader only delays the others by the timeout.
+ */
+public class DistributedLoadLock {
+
+    private static final String PREFIX = "cache-lock:";
+    private static final long POLL_INTERVAL_MILLIS = 25;
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration timeout;
+
+    public DistributedLoadLock(StringRedisTemplate stringRedisTemplate, Duration timeout) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Tries to become the loader of a key.
+     *
+     * @param cacheName The cache name.
+     * @param key       The string form of the cache key.
+     * @return The token to release the lock with, or null if another node holds it.
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, timeout);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    /**
+     * Releases a lock, unless it already expired and was taken by someone else.
+     *
+     * @param cacheName The cache name.
+     * @param key       The string form of the cache key.
+     * @param token     The token returned by {@link #tryAcquire(String, String)}.
+     */
+    public void release(String cacheName, String key, String token) {
+        stringRedisTemplate.execute(RELEASE, List.of(lockKey(cacheName, key)), token);
+    }
+
+    /**
+     * Polls until the given lookup returns a value or the lock timeout elapses.
+     *
+     * @param lookup The lookup, typically a read of the Redis cache.
+     * @return The value found, or null on timeout or interruption.
+     */
+    public CacheEnvelope await(Supplier<CacheEnvelope> lookup) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            CacheEnvelope envelope = lookup.get();
+            if (envelope != null) {
+                return envelope;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return PREFIX + cacheName + ":" + key;
+    }
+
+}
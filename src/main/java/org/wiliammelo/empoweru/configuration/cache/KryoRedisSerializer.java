@@ -0,0 +1,196 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.wiliammelo.empoweru.dtos.course.AuthenticatedCourseDetailedDTO;
+import org.wiliammelo.empoweru.dtos.course.CourseDTO;
+import org.wiliammelo.empoweru.dtos.course.CourseProgressDTO;
+import org.wiliammelo.empoweru.dtos.course.PublicCourseDetailedDTO;
+import org.wiliammelo.empoweru.dtos.professor.ProfessorDTO;
+import org.wiliammelo.empoweru.dtos.section.AuthenticatedSectionDetailedDTO;
+import org.wiliammelo.empoweru.dtos.section.PublicSectionDetailedDTO;
+import org.wiliammelo.empoweru.dtos.student.StudentDTO;
+import org.wiliammelo.empoweru.dtos.video.VideoDTO;
+import org.wiliammelo.empoweru.dtos.video.VideoWithStatusDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compact binary {@link RedisSerializer} for cache values, based on Kryo.
+ * <p>
+ * The cached DTOs are registered up front so they are written as small integer ids instead of class descriptors.
+ * Fields are written with {@link CompatibleFieldSerializer}, so entries written before a DTO gains or loses a field
+ * can still be read. Payloads larger than the compression threshold are compressed with LZ4. Each value starts with
+ * a one byte header telling whether it is compressed; compressed values then carry their original length.</p>
+ * <p>
+ * Kryo instances are not thread-safe and are costly to create, so they are borrowed from a pool.</p>
+ */
+public class KryoRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte RAW = 0;
+    private static final byte LZ4 = 1;
+    private static final int BUFFER_SIZE = 4096;
+    private static final int HEADER_SIZE = 1;
+    private static final int LENGTH_SIZE = 4;
+    // LZ4 cannot expand a block by more than this, so larger declared lengths are corrupt
+    private static final int MAX_COMPRESSION_RATIO = 255;
+
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final Pool<Kryo> kryoPool = new Pool<>(true, false, 32) {
+        @Override
+        protected Kryo create() {
+            return createKryo();
+        }
+    };
+
+    /**
+     * @param compressionThreshold Payload size in bytes above which values are compressed; 0 or less disables compression.
+     */
+    public KryoRedisSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        Kryo kryo = kryoPool.obtain();
+        try (Output output = new Output(BUFFER_SIZE, -1)) {
+            output.writeByte(RAW);
+            kryo.writeClassAndObject(output, value);
+            int length = output.position() - HEADER_SIZE;
+            byte[] buffer = output.getBuffer();
+
+            if (compressionThreshold <= 0 || length <= compressionThreshold) {
+                return output.toBytes();
+            }
+
+            byte[] compressed = new byte[HEADER_SIZE + LENGTH_SIZE + compressor.maxCompressedLength(length)];
+            compressed[0] = LZ4;
+            writeInt(compressed, HEADER_SIZE, length);
+            int compressedLength = compressor.compress(buffer, HEADER_SIZE, length,
+                    compressed, HEADER_SIZE + LENGTH_SIZE, compressed.length - HEADER_SIZE - LENGTH_SIZE);
+            return Arrays.copyOf(compressed, HEADER_SIZE + LENGTH_SIZE + compressedLength);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not serialize cache value of type " + value.getClass().getName(), e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes[0] != LZ4 && bytes[0] != RAW) {
+            throw new SerializationException("Unknown cache value header " + bytes[0]);
+        }
+
+        Kryo kryo = kryoPool.obtain();
+        try {
+            byte[] payload = bytes;
+            int offset = HEADER_SIZE;
+            int length = bytes.length - HEADER_SIZE;
+            if (bytes[0] == LZ4) {
+                int compressedLength = bytes.length - HEADER_SIZE - LENGTH_SIZE;
+                length = readInt(bytes, HEADER_SIZE);
+                if (length < 0 || length > (long) compressedLength * MAX_COMPRESSION_RATIO) {
+                    throw new IllegalStateException("Invalid decompressed length " + length);
+                }
+                payload = new byte[length];
+                if (decompressor.decompress(bytes, HEADER_SIZE + LENGTH_SIZE, compressedLength, payload, 0, length) != length) {
+                    throw new IllegalStateException("Truncated compressed cache value");
+                }
+                offset = 0;
+            }
+            try (Input input = new Input(payload, offset, length)) {
+                return kryo.readClassAndObject(input);
+            }
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not deserialize cache value", e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    private static Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        kryo.setReferences(false);
+        kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+
+        // Registration ids are part of the stored format: only append to this list.
+        kryo.register(UUID.class, new UUIDSerializer(), 100);
+        kryo.register(ArrayList.class, 101);
+        kryo.register(CacheEnvelope.class, 102);
+        kryo.register(CourseDTO.class, 103);
+        kryo.register(PublicCourseDetailedDTO.class, 104);
+        kryo.register(AuthenticatedCourseDetailedDTO.class, 105);
+        kryo.register(PublicSectionDetailedDTO.class, 106);
+        kryo.register(AuthenticatedSectionDetailedDTO.class, 107);
+        kryo.register(VideoDTO.class, 108);
+        kryo.register(VideoWithStatusDTO.class, 109);
+        kryo.register(ProfessorDTO.class, 110);
+        kryo.register(StudentDTO.class, 111);
+        kryo.register(CourseProgressDTO.class, 112);
+        return kryo;
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] source, int offset) {
+        return ((source[offset] & 0xFF) << 24)
+                | ((source[offset + 1] & 0xFF) << 16)
+                | ((source[offset + 2] & 0xFF) << 8)
+                | (source[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Writes a UUID as its two 64-bit halves.
+     */
+    private static class UUIDSerializer extends Serializer<UUID> {
+
+        UUIDSerializer() {
+            setImmutable(true);
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, UUID uuid) {
+            output.writeLong(uuid.getMostSignificantBits());
+            output.writeLong(uuid.getLeastSignificantBits());
+        }
+
+        @Override
+        public UUID read(Kryo kryo, Input input, Class<? extends UUID> type) {
+            return new UUID(input.readLong(), input.readLong());
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import java.util.Set;
+
+/**
+ * Cache key carrying the tags of the data the cached entry depends on.
+ * <p>
+ * Only the key string takes part in equality and in the Redis key (through {@link #toString()}), so an entry stored
+ * with a tagged key can still be looked up or evicted with its plain string form. The tags are recorded by
+ * {@link TwoLevelCache} when the entry is stored and used by {@link TwoLevelCacheManager#evictTags(String...)}.</p>
+ */
+public final class TaggedCacheKey {
+
+    private final String key;
+    private final Set<String> tags;
+
+    public TaggedCacheKey(String key, Set<String> tags) {
+        this.key = key;
+        this.tags = Set.copyOf(tags);
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TaggedCacheKey that && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+}
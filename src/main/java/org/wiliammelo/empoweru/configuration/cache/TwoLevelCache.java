@@ -0,0 +1,394 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link Cache} combining a bounded on-heap near cache (L1) with a shared Redis cache (L2).
+ * <p>
+ * Reads are served from L1 when possible and fall back to L2, populating L1 on the way back. Writes and evictions go
+ * to L2 first, then L1, and are then broadcast by the owning {@link TwoLevelCacheManager} so other nodes drop their
+ * copy of the entry. L1 is keyed by the string form of the cache key, which is also how Redis keys are built, so a
+ * key received over pub/sub identifies the same entry on every node.</p>
+ * <p>
+ * Entries stored with a {@link TaggedCacheKey} are recorded in the {@link CacheTagRegistry}. Lookups are counted in
+ * the {@code cache.lookups} meter, tagged with the cache name and whether they hit L1, hit L2 or missed.</p>
+ * <p>
+ * Values are stored in both levels as {@link CacheEnvelope}s. Synchronized lookups ({@code @Cacheable(sync = true)})
+ * are coalesced: a single loader runs per key on each node and concurrent callers wait for its result. When a
+ * {@link DistributedLoadLock} is configured, a single node loads a missing key while the others wait for it to
+ * appear in Redis. Loaded values are broadcast like writes, so other nodes drop the copy they hold.</p>
+ * <p>
+ * Hot entries are rebuilt ahead of expiry following {@link CacheEnvelope#shouldRefreshEarly(double)}. The rebuild runs
+ * on the manager's refresh executor while the caller is served the current value, and is skipped if a load of the
+ * key is already running or the executor is saturated.</p>
+ * <p>
+ * Every change to an L1 entry, local or received from another node, first bumps a generation counter for its key.
+ * Values read from L2 or loaded are only stored in L1 if the generation is still the one seen before the read began,
+ * so an invalidation arriving while a read is in flight is never overwritten with the value it invalidated. Counters
+ * are striped by key hash rather than kept per key; a collision only skips an L1 fill.</p>
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager cacheManager;
+
+    private final ConcurrentMap<String, CompletableFuture<CacheEnvelope>> loads = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+    private final Counter earlyRefreshes;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope> local,
+                         Cache remote,
+                         TwoLevelCacheManager cacheManager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.cacheManager = cacheManager;
+
+        MeterRegistry meterRegistry = cacheManager.getMeterRegistry();
+        this.localHits = lookupCounter(meterRegistry, "l1_hit");
+        this.remoteHits = lookupCounter(meterRegistry, "l2_hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.earlyRefreshes = Counter.builder("cache.early.refreshes")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return lookup(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        CacheEnvelope envelope = lookup(key);
+        if (envelope == null) {
+            return null;
+        }
+        Object stored = envelope.get();
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEnvelope envelope = lookup(key);
+        if (envelope != null) {
+            if (envelope.shouldRefreshEarly(cacheManager.getEarlyRefreshBeta())) {
+                refresh(key, valueLoader, envelope);
+            }
+            return (T) envelope.get();
+        }
+        return (T) load(key, valueLoader).get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CacheEnvelope envelope = new CacheEnvelope(value, 0L, cacheManager.expiresAt());
+        remote.put(key, envelope);
+        replaceLocal(localKey(key), envelope);
+        registerTags(key);
+        cacheManager.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        // Advanced before Redis is evicted, so a load in flight on this node does not write its value back
+        String localKey = localKey(key);
+        advanceGeneration(localKey);
+        remote.evict(key);
+        local.invalidate(localKey);
+        cacheManager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        clears.incrementAndGet();
+        remote.clear();
+        local.invalidateAll();
+        cacheManager.publishClear(name);
+    }
+
+    /**
+     * Drops an entry from the near cache only. Used when another node changed the entry.
+     *
+     * @param key The string form of the cache key.
+     */
+    void evictLocal(String key) {
+        advanceGeneration(key);
+        local.invalidate(key);
+    }
+
+    /**
+     * Drops every entry from the near cache only. Used when another node cleared the cache.
+     */
+    void clearLocal() {
+        clears.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    /**
+     * Looks an entry up in L1, then L2.
+     *
+     * @param key The cache key.
+     * @return The envelope found, or null on a miss.
+     */
+    private CacheEnvelope lookup(Object key) {
+        String localKey = localKey(key);
+        CacheEnvelope envelope = local.getIfPresent(localKey);
+        if (envelope != null) {
+            localHits.increment();
+            return envelope;
+        }
+        long generation = generation(localKey);
+        envelope = lookupRemote(key);
+        if (envelope == null) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        fillLocal(localKey, envelope, generation);
+        return envelope;
+    }
+
+    /**
+     * Reads an entry from L2. Entries that cannot be decoded, e.g. written with another serializer or an incompatible
+     * version of a class, are dropped and treated as misses.
+     *
+     * @param key The cache key.
+     * @return The envelope found, or null on a miss.
+     */
+    private CacheEnvelope lookupRemote(Object key) {
+        ValueWrapper wrapper;
+        try {
+            wrapper = remote.get(key);
+        } catch (SerializationException e) {
+            log.warn("Dropping unreadable entry {} from cache {}", key, name, e);
+            remote.evict(key);
+            return null;
+        }
+        if (wrapper == null) {
+            return null;
+        }
+        return wrapper.get() instanceof CacheEnvelope envelope ? envelope : CacheEnvelope.of(wrapper.get());
+    }
+
+    /**
+     * Loads a missing entry, making sure a single loader runs per key on this node. Concurrent callers share its
+     * result.
+     *
+     * @param key         The cache key.
+     * @param valueLoader The loader of the value.
+     * @return The loaded entry.
+     */
+    private CacheEnvelope load(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        CompletableFuture<CacheEnvelope> load = new CompletableFuture<>();
+        CompletableFuture<CacheEnvelope> running = loads.putIfAbsent(localKey, load);
+        if (running != null) {
+            return await(running, key, valueLoader);
+        }
+
+        try {
+            CacheEnvelope envelope = loadOnce(key, localKey, valueLoader, null, generation(localKey));
+            load.complete(envelope);
+            return envelope;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(localKey, load);
+        }
+    }
+
+    /**
+     * Rebuilds an entry ahead of expiry on the refresh executor. Callers missing the entry meanwhile wait for the
+     * rebuild like for any other load.
+     *
+     * @param key         The cache key.
+     * @param valueLoader The loader of the value.
+     * @param current     The entry being refreshed.
+     */
+    private void refresh(Object key, Callable<?> valueLoader, CacheEnvelope current) {
+        String localKey = localKey(key);
+        CompletableFuture<CacheEnvelope> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(localKey, load) != null) {
+            return;
+        }
+
+        long generation = generation(localKey);
+        try {
+            cacheManager.getRefreshExecutor().execute(() -> {
+                try {
+                    load.complete(loadOnce(key, localKey, valueLoader, current, generation));
+                } catch (RuntimeException | Error e) {
+                    log.warn("Early refresh of {} in cache {} failed", key, name, e);
+                    load.completeExceptionally(e);
+                } finally {
+                    loads.remove(localKey, load);
+                }
+            });
+            earlyRefreshes.increment();
+        } catch (RejectedExecutionException e) {
+            loads.remove(localKey, load);
+            load.complete(current);
+        }
+    }
+
+    /**
+     * Loads an entry once this node is its only loader, coordinating with the other nodes when a distributed lock is
+     * configured. If another node holds the lock, the current entry is kept when refreshing early, and the entry it
+     * stores in Redis is awaited on a miss.
+     */
+    private CacheEnvelope loadOnce(Object key, String localKey, Callable<?> valueLoader, CacheEnvelope current, long generation) {
+        DistributedLoadLock lock = cacheManager.getLoadLock();
+        if (lock == null) {
+            return compute(key, localKey, valueLoader, generation);
+        }
+
+        String token = lock.tryAcquire(name, localKey);
+        if (token == null) {
+            if (current != null) {
+                return current;
+            }
+            CacheEnvelope loaded = lock.await(() -> lookupRemote(key));
+            if (loaded != null) {
+                fillLocal(localKey, loaded, generation);
+                return loaded;
+            }
+            return compute(key, localKey, valueLoader, generation);
+        }
+
+        try {
+            return compute(key, localKey, valueLoader, generation);
+        } finally {
+            lock.release(name, localKey, token);
+        }
+    }
+
+    /**
+     * Runs the loader and stores its value in both levels, unless the entry was invalidated since the generation was
+     * read: the value may then predate the change, so it is returned to the caller but not cached. A stored value is
+     * broadcast so other nodes do not keep serving the one it replaces from their near cache.
+     */
+    private CacheEnvelope compute(Object key, String localKey, Callable<?> valueLoader, long generation) {
+        long start = System.currentTimeMillis();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+
+        CacheEnvelope envelope = new CacheEnvelope(value, System.currentTimeMillis() - start, cacheManager.expiresAt());
+        if (generation(localKey) != generation) {
+            return envelope;
+        }
+        remote.put(key, envelope);
+        if (generation(localKey) != generation) {
+            // Invalidated while writing: the eviction may have reached Redis before the value did
+            remote.evict(key);
+            return envelope;
+        }
+        fillLocal(localKey, envelope, generation);
+        registerTags(key);
+        cacheManager.publishEvict(name, localKey);
+        return envelope;
+    }
+
+    /**
+     * Stores a value read or loaded since the given generation in L1, unless the entry changed in the meantime. The
+     * check runs atomically with the write, and invalidations bump the generation before dropping the entry, so either
+     * the value is not stored or it is dropped by the invalidation.
+     */
+    private void fillLocal(String localKey, CacheEnvelope envelope, long generation) {
+        local.asMap().compute(localKey, (k, present) -> generation(k) == generation ? envelope : present);
+    }
+
+    /**
+     * Stores a value just written to L2 in L1, superseding any fill in flight.
+     */
+    private void replaceLocal(String localKey, CacheEnvelope envelope) {
+        advanceGeneration(localKey);
+        local.put(localKey, envelope);
+    }
+
+    private long generation(String localKey) {
+        return clears.get() + generations.get(stripe(localKey));
+    }
+
+    private void advanceGeneration(String localKey) {
+        generations.incrementAndGet(stripe(localKey));
+    }
+
+    private static int stripe(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private CacheEnvelope await(CompletableFuture<CacheEnvelope> running, Object key, Callable<?> valueLoader) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private void registerTags(Object key) {
+        if (key instanceof TaggedCacheKey taggedKey) {
+            cacheManager.getTagRegistry().register(name, taggedKey);
+        }
+    }
+
+    private Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.lookups")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+}
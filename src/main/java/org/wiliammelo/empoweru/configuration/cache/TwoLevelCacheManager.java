@@ -0,0 +1,206 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link CacheManager} wrapping every cache of a Redis-backed manager in a {@link TwoLevelCache}.
+ * <p>
+ * Invalidations are published on the {@value #CHANNEL} Redis channel as {@code nodeId|cacheName|key}, with an empty
+ * key meaning the whole cache was cleared. Each node drops the matching near-cache entries, ignoring its own messages.
+ * The near-cache TTL bounds staleness should a message ever be lost, e.g. during a Redis reconnection.</p>
+ * <p>
+ * Writes evict by tag through {@link #evictTags(String...)} instead of clearing whole caches, so only the entries
+ * depending on the changed data are dropped.</p>
+ * <p>
+ * Entry expiry ({@code remoteTimeToLive}), the optional cross-node {@link DistributedLoadLock}, the early refresh
+ * factor and the executor running early refreshes are shared by every cache and read by {@link TwoLevelCache} when
+ * loading entries.</p>
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    public static final String CHANNEL = "cache-invalidation";
+    private static final char SEPARATOR = '|';
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+    private final Duration remoteTimeToLive;
+    private final DistributedLoadLock loadLock;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+    private final CacheTagRegistry tagRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Counter taggedEvictions;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                StringRedisTemplate stringRedisTemplate,
+                                long localMaximumSize,
+                                Duration localTimeToLive,
+                                Duration remoteTimeToLive,
+                                DistributedLoadLock loadLock,
+                                double earlyRefreshBeta,
+                                Executor refreshExecutor,
+                                CacheTagRegistry tagRegistry,
+                                MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+        this.remoteTimeToLive = remoteTimeToLive;
+        this.loadLock = loadLock;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+        this.tagRegistry = tagRegistry;
+        this.meterRegistry = meterRegistry;
+        this.taggedEvictions = Counter.builder("cache.tag.evictions").register(meterRegistry);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Evicts every entry recorded under any of the given tags, on every node.
+     * When called inside a transaction, eviction is deferred until it commits, so a concurrent miss cannot reload
+     * and cache the data being changed before it is visible.
+     *
+     * @param tags The tags whose entries should be evicted.
+     */
+    public void evictTags(String... tags) {
+        List<String> tagList = List.of(tags);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvictTags(tagList);
+                }
+            });
+        } else {
+            doEvictTags(tagList);
+        }
+    }
+
+    /**
+     * Drops near-cache entries changed on another node.
+     *
+     * @param message The pub/sub message, in the form {@code nodeId|cacheName|key}.
+     * @param pattern The channel pattern, unused.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = body.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0 || body.substring(0, first).equals(nodeId)) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(body.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+        String key = body.substring(second + 1);
+        if (key.isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+
+    /**
+     * Returns the time at which an entry stored now expires in Redis.
+     *
+     * @return The expiry in epoch milliseconds, or {@link Long#MAX_VALUE} if entries do not expire.
+     */
+    long expiresAt() {
+        return remoteTimeToLive.isZero() ? Long.MAX_VALUE : System.currentTimeMillis() + remoteTimeToLive.toMillis();
+    }
+
+    DistributedLoadLock getLoadLock() {
+        return loadLock;
+    }
+
+    double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    CacheTagRegistry getTagRegistry() {
+        return tagRegistry;
+    }
+
+    MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    void publishEvict(String cacheName, String key) {
+        stringRedisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    void publishClear(String cacheName) {
+        stringRedisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + cacheName + SEPARATOR);
+    }
+
+    private void doEvictTags(List<String> tags) {
+        for (String tag : tags) {
+            for (String member : tagRegistry.remove(tag)) {
+                int separator = member.indexOf(CacheTagRegistry.SEPARATOR);
+                if (separator < 0) {
+                    continue;
+                }
+                getCache(member.substring(0, separator)).evict(member.substring(separator + 1));
+                taggedEvictions.increment();
+            }
+            log.debug("Evicted cache entries tagged {}", tag);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalArgumentException("No remote cache named " + name);
+        }
+        return new TwoLevelCache(name,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaximumSize)
+                        .expireAfterWrite(localTimeToLive)
+                        .build(),
+                remote,
+                this);
+    }
+
+}
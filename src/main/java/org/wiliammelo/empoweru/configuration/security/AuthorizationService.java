@@ -2,14 +2,16 @@ package org.wiliammelo.empoweru.configuration.security;
 
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.models.User;
 import org.wiliammelo.empoweru.repositories.UserRepository;
 
 @Service
 @AllArgsConstructor
-public class AuthorizationService implements UserDetailsService {
+public class AuthorizationService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -23,4 +25,15 @@ public class AuthorizationService implements UserDetailsService {
         }
         return userDetails;
     }
+
+    /**
+     * Stores a password re-encoded at the configured cost factor. Called on a successful login when the stored hash
+     * was created with an older cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
 }
@@ -5,33 +5,78 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.wiliammelo.empoweru.exceptions.CustomException;
 import org.wiliammelo.empoweru.models.User;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.UUID;
 
+/**
+ * Issues and verifies the access and refresh tokens.
+ * <p>
+ * The signing algorithm and the verifiers are immutable and thread-safe, so they are built once. Verified access
+ * tokens are remembered until they expire in a bounded LRU keyed by the token itself and weighed by its length, so a
+ * token presented again skips parsing and HMAC verification. Hashing the token for the key would cost about as much as
+ * the HMAC check it saves.</p>
+ */
 @Service
 public class JWTService {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
     private static final String DEFAULT_ISSUER = "EmpowerU-api";
     private static final short SECONDS_PER_MINUTE = 60;
     private static final int HOUR_IN_SECONDS = SECONDS_PER_MINUTE * 60;
     private static final int HOURS_IN_DAY = HOUR_IN_SECONDS * 24;
 
+    public static final int ACCESS_TOKEN_TTL_SECONDS = HOUR_IN_SECONDS;
+    public static final int REFRESH_TOKEN_TTL_SECONDS = HOURS_IN_DAY * 30;
+    public static final String FAMILY_CLAIM = "fam";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private final Algorithm algorithm;
+    private final JWTVerifier accessTokenVerifier;
+    private final JWTVerifier refreshTokenVerifier;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JWTService(@Value("${jwt.secret}") String secret,
+                      @Value("${security.jwt.verified-cache.maximum-weight}") DataSize verifiedCacheMaximumWeight) {
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.accessTokenVerifier = JWT.require(algorithm)
+                .withIssuer(DEFAULT_ISSUER)
+                .withClaim("type", "ACCESS")
+                .build();
+        this.refreshTokenVerifier = JWT.require(algorithm)
+                .withIssuer(DEFAULT_ISSUER)
+                .withClaim("type", "REFRESH")
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumWeight(verifiedCacheMaximumWeight.toBytes())
+                .weigher((String token, VerifiedToken verifiedToken) -> token.length())
+                .expireAfter(Expiry.creating((String token, VerifiedToken verifiedToken) ->
+                        Duration.between(Instant.now(), verifiedToken.getExpiresAt())))
+                .build();
+    }
+
     public String generateAccessToken(User user) throws CustomException {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             return JWT.create()
                     .withIssuer(DEFAULT_ISSUER)
                     .withSubject(user.getEmail())
-                    .withExpiresAt(this.generateExpirationTime(HOUR_IN_SECONDS))
-                    .withClaim("role", getRoleFromUser(user))
+                    .withExpiresAt(this.generateExpirationTime(ACCESS_TOKEN_TTL_SECONDS))
+                    .withClaim(USER_ID_CLAIM, user.getId().toString())
+                    .withClaim(ROLE_CLAIM, user.getRole().name())
+                    .withClaim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                     .withClaim("type", "ACCESS")
                     .sign(algorithm);
         } catch (JWTCreationException exception) {
@@ -39,14 +84,16 @@ public class JWTService {
         }
     }
 
-    public String generateRefreshToken(User user) throws CustomException {
+    public String generateRefreshToken(User user, String familyId) throws CustomException {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             return JWT.create()
                     .withIssuer(DEFAULT_ISSUER)
                     .withSubject(user.getEmail())
-                    .withExpiresAt(this.generateExpirationTime(HOURS_IN_DAY * 30))
-                    .withClaim("role", getRoleFromUser(user))
+                    .withJWTId(UUID.randomUUID().toString())
+                    .withExpiresAt(this.generateExpirationTime(REFRESH_TOKEN_TTL_SECONDS))
+                    .withClaim(FAMILY_CLAIM, familyId)
+                    .withClaim(ROLE_CLAIM, user.getRole().name())
+                    .withClaim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                     .withClaim("type", "REFRESH")
                     .sign(algorithm);
         } catch (JWTCreationException exception) {
@@ -55,28 +102,40 @@ public class JWTService {
     }
 
     public String validateAccessToken(String token) {
-        try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            JWTVerifier verifier = JWT.require(algorithm)
-                    .withIssuer(DEFAULT_ISSUER)
-                    .withClaim("type", "ACCESS")
-                    .build();
+        VerifiedToken verifiedToken = verifyAccessToken(token);
+        return verifiedToken == null ? null : verifiedToken.getSubject();
+    }
+
+    /**
+     * Verifies an access token, answering from the verified-token cache when the same token was verified before.
+     *
+     * @param token The access token.
+     * @return The verified claims, or null if the token is invalid or expired.
+     */
+    public VerifiedToken verifyAccessToken(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
 
-            return verifier.verify(token).getSubject();
+        try {
+            VerifiedToken verifiedToken = toVerifiedToken(accessTokenVerifier.verify(token));
+            verifiedTokens.put(token, verifiedToken);
+            return verifiedToken;
         } catch (JWTVerificationException exception) {
             return null;
         }
     }
 
-    public String validateRefreshToken(String token) {
+    /**
+     * Verifies a refresh token. Whether it was revoked is checked separately by the {@link RefreshTokenRegistry}.
+     *
+     * @param token The refresh token.
+     * @return The decoded token, or null if it is invalid or expired.
+     */
+    public DecodedJWT verifyRefreshToken(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            JWTVerifier verifier = JWT.require(algorithm)
-                    .withIssuer(DEFAULT_ISSUER)
-                    .withClaim("type", "REFRESH")
-                    .build();
-
-            return verifier.verify(token).getSubject();
+            return refreshTokenVerifier.verify(token);
         } catch (JWTVerificationException exception) {
             return null;
         }
@@ -86,8 +145,16 @@ public class JWTService {
         return Instant.now().plusSeconds(seconds);
     }
 
-    private String getRoleFromUser(User user) {
-        return user.getAuthorities().stream().findFirst().get().getAuthority().replace("ROLE_", "");
+    private static VerifiedToken toVerifiedToken(DecodedJWT decodedJWT) {
+        Claim userId = decodedJWT.getClaim(USER_ID_CLAIM);
+        Claim role = decodedJWT.getClaim(ROLE_CLAIM);
+        Claim version = decodedJWT.getClaim(TOKEN_VERSION_CLAIM);
+        return new VerifiedToken(
+                decodedJWT.getSubject(),
+                userId.isMissing() ? null : UUID.fromString(userId.asString()),
+                role.isMissing() ? null : role.asString(),
+                version.isMissing() ? 0 : version.asInt(),
+                decodedJWT.getExpiresAtAsInstant());
     }
 
 }
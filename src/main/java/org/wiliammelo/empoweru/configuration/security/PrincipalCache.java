@@ -0,0 +1,197 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.wiliammelo.empoweru.models.Professor;
+import org.wiliammelo.empoweru.models.Student;
+import org.wiliammelo.empoweru.models.User;
+import org.wiliammelo.empoweru.models.UserRole;
+import org.wiliammelo.empoweru.repositories.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Bounded, TTL-limited cache of authenticated principals, keyed by email.
+ * <p>
+ * Principals are detached copies of the {@link User} rows holding only what authorization needs (id, email, role and
+ * token version), never the password hash. The cache is used for access tokens that do not carry the principal claims
+ * and when {@code security.principal.mode=lookup}.</p>
+ * <p>
+ * Changes to a user evict its entry on every node through Redis pub/sub once the transaction commits. Revoking a user
+ * additionally stores its current token version in Redis for the lifetime of an access token, so tokens issued before
+ * the change are rejected even when the principal is built from claims alone. Revoked versions are cached locally for
+ * the principal TTL, including the absence of one, and updated by pub/sub; a node that started or missed a message
+ * after a revocation reads it from Redis on its next local miss.</p>
+ */
+@Component
+public class PrincipalCache implements MessageListener {
+
+    private static final String CHANNEL = "principal-invalidation";
+    private static final char SEPARATOR = '|';
+    private static final String REVOKED_PREFIX = "principal-revoked:";
+    private static final int NOT_REVOKED = 0;
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Cache<String, User> principals;
+    private final Cache<UUID, Integer> revokedVersions;
+
+    public PrincipalCache(UserRepository userRepository,
+                          StringRedisTemplate stringRedisTemplate,
+                          RedisMessageListenerContainer redisMessageListenerContainer,
+                          @Value("${security.principal.cache.maximum-size}") long maximumSize,
+                          @Value("${security.principal.cache.time-to-live}") Duration timeToLive) {
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.revokedVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Returns the principal of a user, loading it from the database on a miss.
+     *
+     * @param email The email of the user.
+     * @return The detached principal, or null if the user does not exist.
+     */
+    public User get(String email) {
+        return principals.get(email, key -> {
+            User user = (User) userRepository.findByEmail(key);
+            return user == null ? null : principal(user.getId(), user.getEmail(), user.getRole(), user.getTokenVersion());
+        });
+    }
+
+    /**
+     * Tells whether tokens issued with the given version are still accepted for a user.
+     *
+     * @param userId  The UUID of the user.
+     * @param version The token version claim.
+     * @return false if the user was revoked after the token was issued.
+     */
+    public boolean isCurrent(UUID userId, int version) {
+        return version >= revokedVersions.get(userId, this::loadRevokedVersion);
+    }
+
+    /**
+     * Drops the cached principal of a user on every node once the current transaction commits.
+     *
+     * @param email The email of the user.
+     */
+    public void evict(String email) {
+        afterCommit(() -> {
+            principals.invalidate(email);
+            publish(email, null, 0);
+        });
+    }
+
+    /**
+     * Drops the cached principal of a user and rejects its tokens older than the given version, on every node once the
+     * current transaction commits.
+     *
+     * @param userId  The UUID of the user.
+     * @param email   The email the user had when its tokens were issued.
+     * @param version The first token version still accepted.
+     */
+    public void revoke(UUID userId, String email, int version) {
+        afterCommit(() -> {
+            principals.invalidate(email);
+            stringRedisTemplate.opsForValue().set(REVOKED_PREFIX + userId, String.valueOf(version),
+                    Duration.ofSeconds(JWTService.ACCESS_TOKEN_TTL_SECONDS));
+            revokedVersions.put(userId, version);
+            publish(email, userId, version);
+        });
+    }
+
+    /**
+     * Applies an eviction or revocation made on another node.
+     *
+     * @param message The pub/sub message, in the form {@code nodeId|email} or {@code nodeId|email|userId|version}.
+     * @param pattern The channel pattern, unused.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        principals.invalidate(parts[1]);
+        if (parts.length == 4) {
+            revokedVersions.put(UUID.fromString(parts[2]), Integer.parseInt(parts[3]));
+        }
+    }
+
+    /**
+     * Builds a detached principal of the type matching the role, without touching the database.
+     *
+     * @param id           The UUID of the user.
+     * @param email        The email of the user.
+     * @param role         The role of the user.
+     * @param tokenVersion The token version of the user.
+     * @return The principal.
+     */
+    static User principal(UUID id, String email, UserRole role, int tokenVersion) {
+        User user = switch (role) {
+            case STUDENT -> new Student();
+            case PROFESSOR -> new Professor();
+            case ADMIN -> new User();
+        };
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+
+    private int loadRevokedVersion(UUID userId) {
+        String version = stringRedisTemplate.opsForValue().get(REVOKED_PREFIX + userId);
+        return version == null ? NOT_REVOKED : Integer.parseInt(version);
+    }
+
+    private void publish(String email, UUID userId, int version) {
+        String body = nodeId + SEPARATOR + email;
+        if (userId != null) {
+            body += SEPARATOR + userId.toString() + SEPARATOR + version;
+        }
+        stringRedisTemplate.convertAndSend(CHANNEL, body);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
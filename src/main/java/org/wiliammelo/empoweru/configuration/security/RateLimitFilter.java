@@ -0,0 +1,208 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.wiliammelo.empoweru.dtos.CustomResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limits the routes configured under {@code security.rate-limit.routes}, per client IP and per email.
+ * <p>
+ * The email is read from the JSON body, which is buffered so the controller can still read it. Bodies over
+ * 16 KB, declared or chunked, get a 413 response. Rate limited requests get a 429 response
+ * with a {@code Retry-After} header. Decisions are counted in the {@code rate.limit.requests} meter,
+ * tagged with the route and whether the request was allowed or rejected.</p>
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BODY_SIZE = 16 * 1024;
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Map.Entry<String, RateLimitProperties.Route> route = properties.isEnabled() ? findRoute(request) : null;
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String routeName = route.getKey();
+        RateLimitProperties.Route limits = route.getValue();
+        long retryAfter = rateLimiter.tryAcquire(routeName + ":ip:" + request.getRemoteAddr(),
+                limits.getCapacityPerIp(), limits.getPeriod());
+
+        HttpServletRequest chainedRequest = request;
+        if (retryAfter == 0) {
+            // Chunked bodies declare no length, so the cap is enforced on the bytes actually read
+            byte[] body = request.getContentLengthLong() > MAX_BODY_SIZE
+                    ? null
+                    : request.getInputStream().readNBytes(MAX_BODY_SIZE + 1);
+            if (body == null || body.length > MAX_BODY_SIZE) {
+                counter(routeName, "rejected").increment();
+                rejectTooLarge(response);
+                return;
+            }
+            String email = readEmail(body);
+            if (email != null) {
+                retryAfter = rateLimiter.tryAcquire(routeName + ":email:" + email,
+                        limits.getCapacityPerEmail(), limits.getPeriod());
+            }
+            chainedRequest = new BufferedBodyRequest(request, body);
+        }
+
+        if (retryAfter > 0) {
+            counter(routeName, "rejected").increment();
+            reject(response, retryAfter);
+            return;
+        }
+        counter(routeName, "allowed").increment();
+        filterChain.doFilter(chainedRequest, response);
+    }
+
+    private Map.Entry<String, RateLimitProperties.Route> findRoute(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (Map.Entry<String, RateLimitProperties.Route> route : properties.getRoutes().entrySet()) {
+            if (pathMatcher.match(route.getValue().getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String readEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new CustomResponse("Too many requests, please try again later.", HttpStatus.TOO_MANY_REQUESTS.value()));
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new CustomResponse("Request body too large.", HttpStatus.PAYLOAD_TOO_LARGE.value()));
+    }
+
+    private Counter counter(String route, String result) {
+        return counters.computeIfAbsent(route + ":" + result, key -> Counter.builder("rate.limit.requests")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Request whose body was read up front, so it can be inspected here and read again by the controller.
+     */
+    private static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The body is already in memory, so the listener is told at once that it can be read, then that it
+                 * was read entirely.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+    }
+
+}
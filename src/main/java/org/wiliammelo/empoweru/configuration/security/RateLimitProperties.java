@@ -0,0 +1,44 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rate limits of the public authentication endpoints, under {@code security.rate-limit}.
+ * <p>
+ * Each route names a path pattern and how many requests a single IP and a single email may send per period.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How often local buckets are reconciled with the shared Redis counters.
+     */
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+
+        /**
+         * Ant-style path pattern of the limited requests.
+         */
+        private String pattern;
+
+        private int capacityPerIp = 20;
+
+        private int capacityPerEmail = 5;
+
+        private Duration period = Duration.ofMinutes(1);
+
+    }
+
+}
@@ -0,0 +1,208 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter with node-local buckets reconciled to shared Redis counters.
+ * <p>
+ * Requests are admitted or rejected from local token buckets only, held in lock-striped maps so concurrent requests
+ * for different keys rarely contend. In the background, the requests each bucket admitted since the last run are added
+ * in a single pipeline to a Redis counter per key and period window. A key whose cluster-wide count reached its
+ * capacity is blocked on every node until the window ends, so the cluster as a whole stays within the limit, give or
+ * take one sync interval.</p>
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final String PREFIX = "rate-limit:";
+    private static final int STRIPES = 64;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RateLimitProperties properties;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final List<Map<String, Bucket>> stripes = new ArrayList<>(STRIPES);
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RateLimiter(StringRedisTemplate stringRedisTemplate, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+            stripes.add(new HashMap<>());
+        }
+        Gauge.builder("rate.limit.buckets", this, RateLimiter::bucketCount).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        long interval = properties.getSyncInterval().toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        reconciler.shutdown();
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     *
+     * @param key      The bucket key, e.g. route and client IP.
+     * @param capacity The bucket capacity, also the number of tokens refilled per period.
+     * @param period   The refill period.
+     * @return 0 if a token was taken, otherwise the number of milliseconds until one is available.
+     */
+    public long tryAcquire(String key, int capacity, Duration period) {
+        int stripe = stripe(key);
+        long now = System.currentTimeMillis();
+        synchronized (locks[stripe]) {
+            Bucket bucket = stripes.get(stripe).computeIfAbsent(key, k -> new Bucket(capacity, period.toMillis(), now));
+            return bucket.tryConsume(now);
+        }
+    }
+
+    /**
+     * Pushes the requests admitted by every bucket since the last run to Redis and blocks the keys that reached their
+     * cluster-wide capacity. Idle, full buckets are dropped.
+     */
+    void reconcile() {
+        try {
+            long now = System.currentTimeMillis();
+            List<Pending> batch = new ArrayList<>();
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                synchronized (locks[stripe]) {
+                    Iterator<Map.Entry<String, Bucket>> entries = stripes.get(stripe).entrySet().iterator();
+                    while (entries.hasNext()) {
+                        Map.Entry<String, Bucket> entry = entries.next();
+                        Bucket bucket = entry.getValue();
+                        if (bucket.pending > 0) {
+                            batch.add(new Pending(entry.getKey(), bucket, bucket.pending, now / bucket.periodMillis));
+                            bucket.pending = 0;
+                        } else if (bucket.isIdle(now)) {
+                            entries.remove();
+                        }
+                    }
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (Pending pending : batch) {
+                    String key = PREFIX + pending.key + ":" + pending.window;
+                    redis.incrBy(key, pending.count);
+                    redis.pExpire(key, pending.bucket.periodMillis);
+                }
+                return null;
+            });
+
+            for (int i = 0; i < batch.size(); i++) {
+                Pending pending = batch.get(i);
+                long total = ((Number) results.get(2 * i)).longValue();
+                if (total >= pending.bucket.capacity) {
+                    int stripe = stripe(pending.key);
+                    synchronized (locks[stripe]) {
+                        pending.bucket.blockedUntil = (pending.window + 1) * pending.bucket.periodMillis;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile rate limit buckets with Redis", e);
+        }
+    }
+
+    private int bucketCount() {
+        int count = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                count += stripes.get(stripe).size();
+            }
+        }
+        return count;
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Token bucket refilled continuously at {@code capacity} tokens per period. Guarded by its stripe lock.
+     */
+    private static final class Bucket {
+
+        private final int capacity;
+        private final long periodMillis;
+        private double tokens;
+        private long lastRefill;
+        private long pending;
+        private long blockedUntil;
+
+        private Bucket(int capacity, long periodMillis, long now) {
+            this.capacity = capacity;
+            this.periodMillis = periodMillis;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        private long tryConsume(long now) {
+            if (now < blockedUntil) {
+                return blockedUntil - now;
+            }
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * (double) capacity / periodMillis);
+            lastRefill = now;
+            if (tokens < 1) {
+                return Math.max(1, (long) Math.ceil((1 - tokens) * periodMillis / capacity));
+            }
+            tokens -= 1;
+            pending++;
+            return 0;
+        }
+
+        private boolean isIdle(long now) {
+            return now >= blockedUntil && now - lastRefill >= periodMillis;
+        }
+
+    }
+
+    /**
+     * Requests admitted by a bucket since the last reconciliation, in the period window they are counted in.
+     */
+    @AllArgsConstructor
+    private static final class Pending {
+
+        private final String key;
+        private final Bucket bucket;
+        private final long count;
+        private final long window;
+
+    }
+
+}
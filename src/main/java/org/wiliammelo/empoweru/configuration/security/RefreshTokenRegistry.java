@@ -0,0 +1,89 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Registry of refresh tokens, rotated per family.
+ * <p>
+ * Every login starts a token family; each refresh token carries its family id ({@code fam}) and its own id
+ * ({@code jti}). Refreshing revokes the presented token id in Redis with {@code SET NX}, so a token can be exchanged
+ * once: presenting it again means it was stolen or replayed, and the whole family is revoked. Logging out revokes the
+ * family too. Revocation keys expire together with the tokens they revoke.</p>
+ * <p>
+ * A refresh checks the family, revokes the token and, on reuse, revokes the family in a single Lua script, so it
+ * costs one round trip to Redis and two concurrent refreshes with the same token cannot both succeed.</p>
+ */
+@Slf4j
+@Component
+public class RefreshTokenRegistry {
+
+    private static final String PREFIX = "refresh-revoked:";
+
+    private static final long EXCHANGED = 1;
+    private static final long REUSED = -1;
+
+    // KEYS[1] = family key, KEYS[2] = token key, ARGV[1] = token TTL in ms (0 once expired), ARGV[2] = family TTL in ms
+    private static final RedisScript<Long> ROTATE = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end " +
+                    "if tonumber(ARGV[1]) <= 0 or redis.call('set', KEYS[2], '1', 'NX', 'PX', ARGV[1]) then return 1 end " +
+                    "redis.call('set', KEYS[1], '1', 'PX', ARGV[2]) " +
+                    "return -1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public RefreshTokenRegistry(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * Starts a new token family.
+     *
+     * @return The family id.
+     */
+    public String newFamily() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Exchanges a refresh token: checks that neither the token nor its family was revoked, then revokes the token so it
+     * cannot be exchanged again. Presenting an already exchanged token revokes its whole family.
+     *
+     * @param familyId  The family id of the presented token.
+     * @param tokenId   The id of the presented token.
+     * @param expiresAt The expiry of the presented token.
+     * @return true if the token may be exchanged for a new one of the same family.
+     */
+    public boolean rotate(String familyId, String tokenId, Instant expiresAt) {
+        long timeToLive = Math.max(0, Duration.between(Instant.now(), expiresAt).toMillis());
+        Long result = stringRedisTemplate.execute(ROTATE, List.of(PREFIX + familyId, PREFIX + tokenId),
+                String.valueOf(timeToLive), String.valueOf(familyTimeToLive().toMillis()));
+        if (result != null && result == REUSED) {
+            log.warn("Refresh token reuse detected, revoked family {}", familyId);
+        }
+        return result != null && result == EXCHANGED;
+    }
+
+    /**
+     * Revokes every refresh token of a family.
+     *
+     * @param familyId The family id.
+     */
+    public void revokeFamily(String familyId) {
+        stringRedisTemplate.opsForValue().set(PREFIX + familyId, "1", familyTimeToLive());
+    }
+
+    private static Duration familyTimeToLive() {
+        return Duration.ofSeconds(JWTService.REFRESH_TOKEN_TTL_SECONDS);
+    }
+
+}
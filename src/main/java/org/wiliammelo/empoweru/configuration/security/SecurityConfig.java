@@ -1,6 +1,9 @@
 package org.wiliammelo.empoweru.configuration.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,16 +13,18 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @EnableWebSecurity
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 @AllArgsConstructor
 public class SecurityConfig {
 
     private final SecurityFilter securityFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     private static final String ADMIN_ROLE = "ADMIN";
     private static final String STUDENT_ROLE = "STUDENT";
@@ -40,6 +45,13 @@ public class SecurityConfig {
                                 .requestMatchers("/swagger-ui/**").permitAll()
                                 .requestMatchers("/v3/api-docs/**").permitAll()
 
+                                // Locally stored media is public, like the Azure blob container it stands in for
+                                .requestMatchers(HttpMethod.GET, "/media/**").permitAll()
+                                .requestMatchers(HttpMethod.HEAD, "/media/**").permitAll()
+
+                                // Restrict actuator endpoints (cache metrics, health) to admins
+                                .requestMatchers("/actuator/**").hasRole(ADMIN_ROLE)
+
                                 // Allow student, professor registration, and login for everyone
                                 .requestMatchers(HttpMethod.POST, "/auth/public/**").permitAll()
 
@@ -65,11 +77,15 @@ public class SecurityConfig {
                                 .requestMatchers(HttpMethod.POST, "/course/").hasRole(PROFESSOR_ROLE)
                                 .requestMatchers(HttpMethod.DELETE, "/course/{id}").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.GET, "/course/{id}").hasRole(STUDENT_ROLE)
+                                .requestMatchers(HttpMethod.GET, "/course/{id}/progress").hasRole(STUDENT_ROLE)
                                 .requestMatchers(HttpMethod.PUT, "/course/{id}").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.POST, "/course/disenroll/{id}").hasRole(STUDENT_ROLE)
                                 .requestMatchers(HttpMethod.POST, "/course/enroll/{id}").hasRole(STUDENT_ROLE)
 
                                 // Allow access to video details and operations with role restrictions
+                                .requestMatchers("/video/uploads/**").hasRole(PROFESSOR_ROLE)
+                                .requestMatchers(HttpMethod.GET, "/video/{videoId}/status").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
+                                .requestMatchers(HttpMethod.GET, "/video/{videoId}/stream").hasAnyRole(STUDENT_ROLE, PROFESSOR_ROLE, ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.GET, "/video/{courseId}").hasRole(ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.PUT, "/video/{courseId}").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.DELETE, "/video/{videoId}").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
@@ -79,10 +95,12 @@ public class SecurityConfig {
                                 .requestMatchers(HttpMethod.GET, "/section/{courseId}").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.DELETE, "/section/{courseId}").hasAnyRole(PROFESSOR_ROLE, ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.PUT, "/section/{courseId}").hasRole(PROFESSOR_ROLE)
+                                .requestMatchers(HttpMethod.PUT, "/section/{sectionId}/videos/order").hasRole(PROFESSOR_ROLE)
 
                                 // Restrict all other requests to authenticated users
                                 .anyRequest().authenticated()
                 )
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
@@ -93,8 +111,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength}") int strength,
+                                           @Value("${security.password.pool-size}") int poolSize,
+                                           @Value("${security.password.queue-capacity}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, meterRegistry);
     }
 
 
@@ -4,31 +4,47 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.wiliammelo.empoweru.repositories.UserRepository;
+import org.wiliammelo.empoweru.models.User;
+import org.wiliammelo.empoweru.models.UserRole;
 
+/**
+ * Authenticates requests carrying a bearer access token.
+ * <p>
+ * With {@code security.principal.mode=claims} (the default) the principal is built from the verified token claims
+ * (user id, role and token version) without touching the database. Tokens lacking those claims, and every token when
+ * {@code security.principal.mode=lookup}, are resolved through the {@link PrincipalCache}.</p>
+ */
 @Component
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class SecurityFilter extends OncePerRequestFilter {
 
+    private static final String CLAIMS_MODE = "claims";
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final JWTService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+
+    @Value("${security.principal.mode}")
+    private String principalMode;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, java.io.IOException {
         String token = recoverToken(request);
         if (token != null) {
-            String email = jwtService.validateAccessToken(token);
-            if (email != null) {
-                UserDetails user = userRepository.findByEmail(email);
-
-                var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            VerifiedToken verifiedToken = jwtService.verifyAccessToken(token);
+            if (verifiedToken != null) {
+                User user = resolvePrincipal(verifiedToken);
+                if (user != null) {
+                    var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
 
         }
@@ -36,11 +52,49 @@ public class SecurityFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolves the principal of a verified access token.
+     *
+     * @param verifiedToken The verified token.
+     * @return The principal, or null if the user no longer exists or the token was revoked.
+     */
+    private User resolvePrincipal(VerifiedToken verifiedToken) {
+        int tokenVersion = verifiedToken.getTokenVersion();
+
+        User user;
+        if (CLAIMS_MODE.equals(principalMode) && verifiedToken.getUserId() != null && verifiedToken.getRole() != null) {
+            user = PrincipalCache.principal(verifiedToken.getUserId(), verifiedToken.getSubject(),
+                    UserRole.valueOf(verifiedToken.getRole()), tokenVersion);
+        } else {
+            user = principalCache.get(verifiedToken.getSubject());
+            if (user == null || tokenVersion < user.getTokenVersion()) {
+                return null;
+            }
+        }
+        return principalCache.isCurrent(user.getId(), tokenVersion) ? user : null;
+    }
+
+    /**
+     * Reads the token of the {@code Bearer} authorization header of a request.
+     *
+     * @return The token, or null if the request has no bearer authorization.
+     */
     private String recoverToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null) {
+        return bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+    }
+
+    /**
+     * Extracts the token of a {@code Bearer} authorization header value, matching the scheme in place without copying
+     * the header.
+     *
+     * @param authHeader The value of the authorization header, may be null.
+     * @return The token, or null if the value is not a bearer authorization.
+     */
+    static String bearerToken(String authHeader) {
+        if (authHeader == null || authHeader.length() <= BEARER_PREFIX.length()
+                || !authHeader.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
             return null;
         }
-        return authHeader.replace("Bearer ", "");
+        return authHeader.substring(BEARER_PREFIX.length());
     }
 }
@@ -0,0 +1,23 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable result of verifying an access token: the claims needed to build the principal and the token expiry.
+ * Claims absent from tokens issued by older versions are null.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+
+    private final String subject;
+    private final UUID userId;
+    private final String role;
+    private final int tokenVersion;
+    private final Instant expiresAt;
+
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.wiliammelo.empoweru.dtos.CustomResponse;
 import org.wiliammelo.empoweru.dtos.LoginDTO;
 import org.wiliammelo.empoweru.dtos.TokenResponse;
 import org.wiliammelo.empoweru.dtos.professor.CreateProfessorDTO;
@@ -13,6 +14,7 @@ import org.wiliammelo.empoweru.dtos.professor.ProfessorDTO;
 import org.wiliammelo.empoweru.dtos.student.CreateStudentDTO;
 import org.wiliammelo.empoweru.dtos.student.StudentDTO;
 import org.wiliammelo.empoweru.exceptions.CustomException;
+import org.wiliammelo.empoweru.exceptions.ServiceOverloadedException;
 import org.wiliammelo.empoweru.exceptions.UserAlreadyExistsException;
 import org.wiliammelo.empoweru.services.AuthService;
 
@@ -24,12 +26,12 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/public/register/student")
-    public ResponseEntity<StudentDTO> registerStudent(@Valid @RequestBody CreateStudentDTO createStudentDTO) throws UserAlreadyExistsException {
+    public ResponseEntity<StudentDTO> registerStudent(@Valid @RequestBody CreateStudentDTO createStudentDTO) throws UserAlreadyExistsException, ServiceOverloadedException {
         return new ResponseEntity<>(this.authService.registerStudent(createStudentDTO), HttpStatus.CREATED);
     }
 
     @PostMapping("/public/register/professor")
-    public ResponseEntity<ProfessorDTO> registerProfessor(@Valid @RequestBody CreateProfessorDTO createProfessorDTO) throws UserAlreadyExistsException {
+    public ResponseEntity<ProfessorDTO> registerProfessor(@Valid @RequestBody CreateProfessorDTO createProfessorDTO) throws UserAlreadyExistsException, ServiceOverloadedException {
         return new ResponseEntity<>(this.authService.registerProfessor(createProfessorDTO), HttpStatus.CREATED);
     }
 
@@ -45,5 +47,11 @@ public class AuthController {
         return new ResponseEntity<>(tokenResponse, HttpStatus.OK);
     }
 
+    @PostMapping("/public/logout")
+    public ResponseEntity<CustomResponse> logout(@CookieValue(value = "refreshToken", required = false) String refreshToken, HttpServletResponse response) {
+        authService.logout(refreshToken, response);
+        return new ResponseEntity<>(new CustomResponse("Logged out successfully.", HttpStatus.OK.value()), HttpStatus.OK);
+    }
+
 
 }
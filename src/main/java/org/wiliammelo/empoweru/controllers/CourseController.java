@@ -3,11 +3,15 @@ package org.wiliammelo.empoweru.controllers;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.wiliammelo.empoweru.dtos.CustomResponse;
 import org.wiliammelo.empoweru.dtos.course.CourseDTO;
+import org.wiliammelo.empoweru.dtos.course.CoursePageDTO;
+import org.wiliammelo.empoweru.dtos.course.CourseProgressDTO;
 import org.wiliammelo.empoweru.dtos.course.CreateCourseDTO;
 import org.wiliammelo.empoweru.dtos.course.UpdateCourseDTO;
 import org.wiliammelo.empoweru.exceptions.*;
@@ -36,6 +40,11 @@ public class CourseController {
         return new ResponseEntity<>(this.courseService.findByIdAuthenticated(id, user.getId()), HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<CourseProgressDTO> findProgress(@PathVariable("id") UUID id, @AuthenticationPrincipal User user) throws CourseNotFoundException {
+        return new ResponseEntity<>(this.courseService.findProgress(id, user.getId()), HttpStatus.OK);
+    }
+
     @GetMapping("/public/")
     public ResponseEntity<List<CourseDTO>> findAll(
             @RequestParam(value = "title", required = false) String title,
@@ -60,6 +69,32 @@ public class CourseController {
         return new ResponseEntity<>(courses, HttpStatus.OK);
     }
 
+    @GetMapping("/public/page")
+    public ResponseEntity<CoursePageDTO> findPage(
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "tags", required = false) List<String> tags,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) throws InvalidCursorException {
+        return new ResponseEntity<>(courseService.findPage(title, tags, cursor, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/public/search")
+    public ResponseEntity<List<CourseDTO>> search(
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "tags", required = false) List<String> tags,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return new ResponseEntity<>(courseService.search(title, tags, page, size), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/public/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        StreamingResponseBody body = courseService::streamCatalog;
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
     @PostMapping("/")
     public ResponseEntity<CourseDTO> create(@Valid @RequestBody CreateCourseDTO createCourseDTO, @AuthenticationPrincipal User user) throws UserNotFoundException {
         return new ResponseEntity<>(this.courseService.create(createCourseDTO, user.getId()), HttpStatus.CREATED);
@@ -0,0 +1,65 @@
+package org.wiliammelo.empoweru.controllers;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Handling of the {@code Range} header shared by the endpoints serving media.
+ */
+final class HttpRanges {
+
+    private HttpRanges() {
+    }
+
+    /**
+     * Parses a {@code Range} header holding a single range. Malformed headers and multiple ranges are ignored, so the
+     * whole content is served, as HTTP allows.
+     *
+     * @param header The value of the header, or null.
+     * @return The requested range, or null to serve the whole content.
+     */
+    static HttpRange singleRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prepares a response for a range of the content: 206 with {@code Content-Range} for a range, 200 for the whole
+     * content, or a complete 416 response for a range past its end. The content length is set accordingly.
+     *
+     * @param range    The requested range, or null for the whole content.
+     * @param length   The length of the content.
+     * @param response The response to prepare.
+     * @return The start and end (exclusive) positions to send, or null if nothing is to be sent.
+     */
+    static long[] prepare(HttpRange range, long length, HttpServletResponse response) {
+        long start = 0;
+        long end = length;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length) + 1;
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return null;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+        return new long[]{start, end};
+    }
+
+}
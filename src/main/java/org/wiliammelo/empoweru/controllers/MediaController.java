@@ -0,0 +1,94 @@
+package org.wiliammelo.empoweru.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.wiliammelo.empoweru.clients.LocalFileUploader;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Serves the files stored by the {@link LocalFileUploader}, with support for single byte ranges so players can seek.
+ * <p>
+ * When the servlet container supports it, the file region is handed over to Tomcat's sendfile, which copies it from
+ * the page cache to the socket without passing through the JVM. Otherwise it is copied with
+ * {@link FileChannel#transferTo}.</p>
+ */
+@RestController
+@RequestMapping("/media")
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+@AllArgsConstructor
+public class MediaController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Stored file names are random and never reused for other content
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().getHeaderValue();
+
+    private final LocalFileUploader localFileUploader;
+
+    @RequestMapping(value = "/{name}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable("name") String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file;
+        long length;
+        try {
+            file = this.localFileUploader.resolve(name);
+            length = Files.size(file);
+        } catch (IllegalArgumentException | NoSuchFileException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setContentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long[] region = HttpRanges.prepare(HttpRanges.singleRange(request.getHeader(HttpHeaders.RANGE)), length, response);
+        if (region == null || HttpMethod.HEAD.matches(request.getMethod()) || region[0] == region[1]) {
+            return;
+        }
+        long start = region[0];
+        long end = region[1];
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.wiliammelo.empoweru.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.wiliammelo.empoweru.exceptions.InvalidUploadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reads file uploads straight from the request stream.
+ * <p>
+ * Multipart requests are not resolved by the servlet container, which would buffer the whole file to disk before the
+ * controller runs. Instead the parts are iterated as they arrive: the JSON metadata part must come first, and the file
+ * part is handed over as an open stream, so it can be forwarded to storage while the client is still sending it.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class MultipartUploadReader {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${storage.upload.max-file-size}")
+    private DataSize maxFileSize;
+
+    @Value("${storage.upload.max-request-size}")
+    private DataSize maxRequestSize;
+
+    /**
+     * Reads and validates the metadata part of a multipart request, then positions the request on its file part.
+     *
+     * @param request      The multipart/form-data request.
+     * @param metadataPart The name of the JSON metadata part.
+     * @param metadataType The type the metadata part is read as.
+     * @param filePart     The name of the file part.
+     * @return The metadata and the file part, whose stream must be consumed before the request completes.
+     * @throws InvalidUploadException       If the request is not multipart, or a part is missing, malformed or out of order.
+     * @throws ConstraintViolationException If the metadata is invalid.
+     * @throws IOException                  If the request cannot be read.
+     */
+    public <T> MultipartUpload<T> read(HttpServletRequest request, String metadataPart, Class<T> metadataType, String filePart) throws IOException, InvalidUploadException {
+        // JakartaServletFileUpload.isMultipartContent only accepts POST, and videos are also updated with PUT
+        String requestContentType = request.getContentType();
+        if (requestContentType == null || !requestContentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            throw new InvalidUploadException("Expected a multipart/form-data request.");
+        }
+
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setFileSizeMax(maxFileSize.toBytes());
+        upload.setSizeMax(maxRequestSize.toBytes());
+
+        T metadata = null;
+        FileItemInputIterator parts = upload.getItemIterator(request);
+        while (parts.hasNext()) {
+            FileItemInput part = parts.next();
+            if (metadataPart.equals(part.getFieldName())) {
+                metadata = readMetadata(part, metadataType);
+            } else if (filePart.equals(part.getFieldName())) {
+                if (metadata == null) {
+                    throw new InvalidUploadException("The " + metadataPart + " part must be sent before the " + filePart + " part.");
+                }
+                return new MultipartUpload<>(metadata, part.getName(), part.getContentType(), part.getInputStream());
+            }
+        }
+        throw new InvalidUploadException("The " + filePart + " part is required.");
+    }
+
+    private <T> T readMetadata(FileItemInput part, Class<T> metadataType) throws IOException, InvalidUploadException {
+        T metadata;
+        try (InputStream content = part.getInputStream()) {
+            metadata = objectMapper.readValue(content, metadataType);
+        } catch (JsonProcessingException e) {
+            throw new InvalidUploadException("The " + part.getFieldName() + " part is not valid JSON.");
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(metadata);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return metadata;
+    }
+
+    /**
+     * Metadata of an upload and its file part, still being received.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class MultipartUpload<T> {
+
+        private final T metadata;
+        private final String fileName;
+        private final String contentType;
+        private final InputStream content;
+
+    }
+
+}
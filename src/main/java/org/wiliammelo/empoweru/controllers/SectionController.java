@@ -7,9 +7,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.wiliammelo.empoweru.dtos.section.CreateSectionDTO;
+import org.wiliammelo.empoweru.dtos.section.ReorderVideosDTO;
 import org.wiliammelo.empoweru.dtos.section.SectionDTO;
 import org.wiliammelo.empoweru.dtos.section.UpdateSectionDTO;
 import org.wiliammelo.empoweru.exceptions.CourseNotFoundException;
+import org.wiliammelo.empoweru.exceptions.InvalidVideoOrderException;
 import org.wiliammelo.empoweru.exceptions.ProfessorNotFoundException;
 import org.wiliammelo.empoweru.exceptions.SectionNotFoundException;
 import org.wiliammelo.empoweru.exceptions.UnauthorizedException;
@@ -46,5 +48,10 @@ public class SectionController {
         return new ResponseEntity<>(sectionService.update(sectionId, updateSectionDTO, user.getId()), HttpStatus.OK);
     }
 
+    @PutMapping("/{sectionId}/videos/order")
+    public ResponseEntity<List<UUID>> reorderVideos(@PathVariable UUID sectionId, @RequestBody @Valid ReorderVideosDTO reorderVideosDTO, @AuthenticationPrincipal User user) throws UnauthorizedException, SectionNotFoundException, InvalidVideoOrderException {
+        return new ResponseEntity<>(sectionService.reorderVideos(sectionId, reorderVideosDTO, user.getId()), HttpStatus.OK);
+    }
+
 
 }
@@ -1,22 +1,32 @@
 package org.wiliammelo.empoweru.controllers;
 
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolationException;
 import lombok.AllArgsConstructor;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.wiliammelo.empoweru.controllers.MultipartUploadReader.MultipartUpload;
 import org.wiliammelo.empoweru.dtos.CustomResponse;
 import org.wiliammelo.empoweru.dtos.video.CreateVideoDTO;
 import org.wiliammelo.empoweru.dtos.video.UpdateVideoDTO;
 import org.wiliammelo.empoweru.dtos.video.VideoDTO;
 import org.wiliammelo.empoweru.exceptions.*;
 import org.wiliammelo.empoweru.models.User;
+import org.wiliammelo.empoweru.models.VideoStatus;
 import org.wiliammelo.empoweru.models.VideoWatched;
 import org.wiliammelo.empoweru.services.VideoService;
+import org.wiliammelo.empoweru.services.VideoStreamService;
+import org.wiliammelo.empoweru.services.VideoStreamService.StreamedVideo;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.UUID;
 
 @RestController
@@ -25,18 +35,26 @@ import java.util.UUID;
 public class VideoController {
 
     private final VideoService videoService;
+    private final MultipartUploadReader multipartUploadReader;
+    private final VideoStreamService videoStreamService;
 
     @PostMapping(value = "/upload", consumes = {
             "multipart/form-data"
     }, produces = {
             "application/json"
     })
-    public ResponseEntity<Object> create(@AuthenticationPrincipal User user,
-                                         @RequestPart("video") @Valid CreateVideoDTO createVideoDTO,
-                                         @RequestPart("file") MultipartFile file) {
+    public ResponseEntity<Object> create(@AuthenticationPrincipal User user, HttpServletRequest request) {
 
         try {
-            return new ResponseEntity<>(this.videoService.create(createVideoDTO, file, user.getId()), HttpStatus.CREATED);
+            MultipartUpload<CreateVideoDTO> upload = this.multipartUploadReader.read(request, "video", CreateVideoDTO.class, "file");
+            return created(this.videoService.create(upload.getMetadata(), upload.getFileName(),
+                    upload.getContentType(), upload.getContent(), user.getId()));
+        } catch (ConstraintViolationException constraintViolationException) {
+            throw constraintViolationException;
+        } catch (InvalidUploadException invalidUploadException) {
+            return new ResponseEntity<>(new CustomResponse(invalidUploadException.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
+        } catch (FileUploadSizeException fileUploadSizeException) {
+            return new ResponseEntity<>(new CustomResponse(fileUploadSizeException.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE.value()), HttpStatus.PAYLOAD_TOO_LARGE);
         } catch (SectionNotFoundException sectionNotFoundException) {
             return new ResponseEntity<>(new CustomResponse(sectionNotFoundException.getMessage(), HttpStatus.NOT_FOUND.value()), HttpStatus.NOT_FOUND);
         } catch (IOException ioException) {
@@ -45,33 +63,83 @@ public class VideoController {
             return new ResponseEntity<>(new CustomResponse(invalidFileTypeException.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
         } catch (UnauthorizedException unauthorizedException) {
             return new ResponseEntity<>(new CustomResponse(unauthorizedException.getMessage(), HttpStatus.UNAUTHORIZED.value()), HttpStatus.UNAUTHORIZED);
+        } catch (ServiceOverloadedException serviceOverloadedException) {
+            return new ResponseEntity<>(new CustomResponse(serviceOverloadedException.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value()), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception ex) {
             return new ResponseEntity<>(new CustomResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value()), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     @DeleteMapping("/{videoId}")
-    public ResponseEntity<CustomResponse> delete(@PathVariable("videoId") UUID courseId, @AuthenticationPrincipal User user) throws CourseNotFoundException, UnauthorizedException, ProfessorNotFoundException {
+    public ResponseEntity<CustomResponse> delete(@PathVariable("videoId") UUID videoId, @AuthenticationPrincipal User user) throws CourseNotFoundException, UnauthorizedException, ProfessorNotFoundException {
 
-        String message = this.videoService.delete(courseId, user.getId());
+        String message = this.videoService.delete(videoId, user.getId());
 
         return new ResponseEntity<>(new CustomResponse(message, HttpStatus.OK.value()), HttpStatus.OK);
     }
 
-    @PutMapping("/{videoId}")
+    @PutMapping(value = "/{videoId}", consumes = {
+            "multipart/form-data"
+    })
     public ResponseEntity<VideoDTO> update(@AuthenticationPrincipal User user,
-                                           @RequestPart("video") @Valid UpdateVideoDTO updateVideoDTO,
-                                           @RequestPart("file") MultipartFile file,
-                                           @PathVariable("videoId") UUID courseId) throws SectionNotFoundException, VideoNotFoundException, IOException, UnauthorizedException, ProfessorNotFoundException {
+                                           HttpServletRequest request,
+                                           @PathVariable("videoId") UUID videoId) throws SectionNotFoundException, VideoNotFoundException, IOException, UnauthorizedException, ProfessorNotFoundException, InvalidUploadException, VideoNotReadyException {
 
-        VideoDTO video = this.videoService.update(courseId, updateVideoDTO, file, user.getId());
+        MultipartUpload<UpdateVideoDTO> upload = this.multipartUploadReader.read(request, "video", UpdateVideoDTO.class, "file");
+        VideoDTO video = this.videoService.update(videoId, upload.getMetadata(), upload.getContentType(),
+                upload.getContent(), user.getId());
 
         return new ResponseEntity<>(video, HttpStatus.OK);
     }
 
+    @GetMapping("/{videoId}/status")
+    public ResponseEntity<VideoDTO> findStatus(@PathVariable("videoId") UUID videoId, @AuthenticationPrincipal User user) throws VideoNotFoundException, UnauthorizedException {
+        return new ResponseEntity<>(this.videoService.findStatus(videoId, user.getId()), HttpStatus.OK);
+    }
+
+    /**
+     * Streams the content of a video, honouring {@code Range} and, with the content digest as ETag, {@code If-Range}.
+     * Videos stored before content addressing are redirected to their URL.
+     */
+    @GetMapping("/{videoId}/stream")
+    public void stream(@PathVariable("videoId") UUID videoId, @AuthenticationPrincipal User user,
+                       HttpServletRequest request, HttpServletResponse response) throws VideoNotFoundException, UnauthorizedException, VideoNotReadyException, IOException {
+        StreamedVideo video = this.videoStreamService.open(videoId, user.getId());
+        if (video.getName() == null) {
+            response.sendRedirect(video.getUrl());
+            return;
+        }
+
+        String etag = "\"" + video.getDigest() + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentType(video.getContentType());
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A range is only valid for the representation it was computed against, otherwise the whole video is sent
+        HttpRange range = ifRange == null || ifRange.equals(etag) ? HttpRanges.singleRange(request.getHeader(HttpHeaders.RANGE)) : null;
+        long[] region = HttpRanges.prepare(range, video.getLength(), response);
+        if (region == null || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        this.videoStreamService.write(video, region[0], region[1], response.getOutputStream());
+    }
+
     @PostMapping("/mark-as-watched/{id}")
     public ResponseEntity<VideoWatched> markAsWatched(@PathVariable("id") UUID videoId, @AuthenticationPrincipal User user) throws UserNotFoundException, VideoNotFoundException {
         return new ResponseEntity<>(this.videoService.markAsWatched(videoId, user.getId()), HttpStatus.OK);
     }
 
+    /**
+     * Answers a created video: 201 when it is ready, 202 with the location of its status while it is being ingested.
+     */
+    static ResponseEntity<Object> created(VideoDTO video) {
+        if (video.getStatus() == VideoStatus.PENDING) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/video/" + video.getId() + "/status"))
+                    .body(video);
+        }
+        return new ResponseEntity<>(video, HttpStatus.CREATED);
+    }
+
 }
@@ -0,0 +1,87 @@
+package org.wiliammelo.empoweru.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.wiliammelo.empoweru.dtos.CustomResponse;
+import org.wiliammelo.empoweru.dtos.video.CreateUploadSessionDTO;
+import org.wiliammelo.empoweru.dtos.video.UploadSessionDTO;
+import org.wiliammelo.empoweru.exceptions.CustomException;
+import org.wiliammelo.empoweru.models.User;
+import org.wiliammelo.empoweru.services.VideoUploadSessionService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Resumable video uploads, in the style of the tus protocol: open a session, {@code PATCH} chunks at their offsets
+ * ({@code Upload-Offset} header), query the received offset with {@code HEAD}, then complete the session.
+ */
+@RestController
+@RequestMapping("/video/uploads")
+@AllArgsConstructor
+public class VideoUploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final VideoUploadSessionService videoUploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDTO> create(@AuthenticationPrincipal User user,
+                                                   @RequestBody @Valid CreateUploadSessionDTO createUploadSessionDTO) throws CustomException, IOException {
+        UploadSessionDTO session = this.videoUploadSessionService.create(createUploadSessionDTO, user.getId());
+        return ResponseEntity.created(URI.create("/video/uploads/" + session.getId()))
+                .headers(uploadHeaders(session))
+                .body(session);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDTO> find(@AuthenticationPrincipal User user, @PathVariable("id") UUID id) throws CustomException {
+        UploadSessionDTO session = this.videoUploadSessionService.find(id, user.getId());
+        return new ResponseEntity<>(session, uploadHeaders(session), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> offset(@AuthenticationPrincipal User user, @PathVariable("id") UUID id) throws CustomException {
+        return new ResponseEntity<>(uploadHeaders(this.videoUploadSessionService.find(id, user.getId())), HttpStatus.OK);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {
+            "application/offset+octet-stream"
+    })
+    public ResponseEntity<Void> writeChunk(@AuthenticationPrincipal User user,
+                                           @PathVariable("id") UUID id,
+                                           @RequestHeader(UPLOAD_OFFSET) long offset,
+                                           HttpServletRequest request) throws CustomException, IOException {
+        UploadSessionDTO session = this.videoUploadSessionService.writeChunk(id, offset, request.getContentLengthLong(),
+                request.getInputStream(), user.getId());
+        return new ResponseEntity<>(uploadHeaders(session), HttpStatus.NO_CONTENT);
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<Object> complete(@AuthenticationPrincipal User user, @PathVariable("id") UUID id) throws CustomException, IOException {
+        return VideoController.created(this.videoUploadSessionService.complete(id, user.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<CustomResponse> delete(@AuthenticationPrincipal User user, @PathVariable("id") UUID id) throws CustomException {
+        this.videoUploadSessionService.delete(id, user.getId());
+        return new ResponseEntity<>(new CustomResponse("Upload session with id " + id + " deleted successfully.", HttpStatus.OK.value()), HttpStatus.OK);
+    }
+
+    private static HttpHeaders uploadHeaders(UploadSessionDTO session) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(UPLOAD_OFFSET, String.valueOf(session.getOffset()));
+        headers.set(UPLOAD_LENGTH, String.valueOf(session.getLength()));
+        headers.setCacheControl("no-store");
+        return headers;
+    }
+
+}
@@ -28,4 +28,6 @@ public class AuthenticatedCourseDetailedDTO implements Serializable {
     private List<AuthenticatedSectionDetailedDTO> sections;
 
     private boolean isEnrolled;
+
+    private double completionPercentage;
 }
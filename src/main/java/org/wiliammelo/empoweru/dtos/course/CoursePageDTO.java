@@ -0,0 +1,19 @@
+package org.wiliammelo.empoweru.dtos.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoursePageDTO implements Serializable {
+
+    private List<CourseDTO> courses;
+
+    private String nextCursor;
+
+}
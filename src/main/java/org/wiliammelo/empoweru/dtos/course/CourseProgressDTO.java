@@ -0,0 +1,24 @@
+package org.wiliammelo.empoweru.dtos.course;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+public class CourseProgressDTO implements Serializable {
+
+    private long watchedCount;
+
+    private long totalCount;
+
+    private double percentComplete;
+
+    public CourseProgressDTO(long watchedCount, long totalCount) {
+        this.watchedCount = watchedCount;
+        this.totalCount = totalCount;
+        this.percentComplete = totalCount == 0 ? 0 : watchedCount * 100.0 / totalCount;
+    }
+
+}
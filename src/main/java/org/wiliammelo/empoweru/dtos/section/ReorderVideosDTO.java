@@ -0,0 +1,15 @@
+package org.wiliammelo.empoweru.dtos.section;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ReorderVideosDTO {
+
+    @NotEmpty(message = "Video ids are required.")
+    private List<UUID> videoIds;
+
+}
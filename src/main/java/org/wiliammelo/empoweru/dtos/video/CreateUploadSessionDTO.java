@@ -0,0 +1,27 @@
+package org.wiliammelo.empoweru.dtos.video;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CreateUploadSessionDTO {
+
+    @Valid
+    @NotNull(message = "Video is required.")
+    private CreateVideoDTO video;
+
+    @NotBlank(message = "File name is required.")
+    private String fileName;
+
+    @NotBlank(message = "Content type is required.")
+    private String contentType;
+
+    @Min(value = 1, message = "Length must be at least 1 byte.")
+    private long length;
+
+}
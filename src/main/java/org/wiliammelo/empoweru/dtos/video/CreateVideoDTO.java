@@ -25,8 +25,10 @@ public class CreateVideoDTO {
     @Min(value = 1, message = "Display order must be at least 1.")
     private int displayOrder;
 
-    @NotNull(message = "Duration in seconds is required.")
+    /**
+     * Fallback for files whose headers do not give their duration, which is otherwise read from the file.
+     */
     @Min(value = 300, message = "Duration in seconds must be at least 300 (5 minutes).")
-    private double durationInSeconds;
+    private Double durationInSeconds;
 
 }
@@ -19,8 +19,7 @@ public class UpdateVideoDTO {
     @NotNull(message = "Section ID is required.")
     private String sectionId;
 
-    @NotNull(message = "Display order is required.")
     @Min(value = 300, message = "Duration in seconds must be at least 300 (5 minutes).")
-    private double durationInSeconds;
+    private Double durationInSeconds;
 
 }
@@ -0,0 +1,23 @@
+package org.wiliammelo.empoweru.dtos.video;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class UploadSessionDTO {
+
+    private UUID id;
+
+    /**
+     * Number of bytes received without gaps from the start of the file.
+     */
+    private long offset;
+
+    private long length;
+
+    private long chunkSize;
+
+}
@@ -2,6 +2,7 @@ package org.wiliammelo.empoweru.dtos.video;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.wiliammelo.empoweru.models.VideoStatus;
 
 import java.io.Serializable;
 import java.util.UUID;
@@ -20,4 +21,12 @@ public class VideoDTO implements Serializable {
 
     private double durationInSeconds;
 
+    private Integer width;
+
+    private Integer height;
+
+    private Long bitrate;
+
+    private VideoStatus status;
+
 }
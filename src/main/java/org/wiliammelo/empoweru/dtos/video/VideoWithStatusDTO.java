@@ -1,5 +1,6 @@
 package org.wiliammelo.empoweru.dtos.video;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -21,4 +22,7 @@ public class VideoWithStatusDTO implements Serializable {
     private double durationInSeconds;
 
     private boolean isWatched;
+
+    @JsonIgnore
+    private Integer progressIndex;
 }
@@ -0,0 +1,18 @@
+package org.wiliammelo.empoweru.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Event published whenever a course is created, updated or deleted.
+ * Listeners that keep derived data about courses (such as search indexes) react to it after the change is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseChangedEvent {
+
+    private final UUID courseId;
+
+}
@@ -1,6 +1,8 @@
 package org.wiliammelo.empoweru.exceptions;
 
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -172,6 +174,37 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(new CustomResponse(ex.getMessage(), HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles exceptions of type FileUploadSizeException, raised while a streamed upload is read.
+     * Maps the exception to an HTTP PAYLOAD_TOO_LARGE response status.
+     *
+     * @param ex The caught FileUploadSizeException.
+     * @return A ResponseEntity containing a CustomResponse with the exception's message and error details, and the HTTP status code.
+     */
+    @ExceptionHandler(FileUploadSizeException.class)
+    public ResponseEntity<CustomResponse> handleFileUploadSizeException(FileUploadSizeException ex) {
+        return new ResponseEntity<>(new CustomResponse(ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE.value()), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handles exceptions of type ConstraintViolationException, raised when a part of a streamed upload is invalid.
+     * Maps the violations to an HTTP BAD_REQUEST response, in the same shape as invalid request bodies.
+     *
+     * @param ex The caught ConstraintViolationException.
+     * @return A ResponseEntity containing the validation errors, and the HTTP status code.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> handleConstraintViolationException(ConstraintViolationException ex) {
+        List<ValidationError> errors = new ArrayList<>();
+        ex.getConstraintViolations().forEach(violation ->
+                errors.add(new ValidationError(violation.getPropertyPath().toString(), violation.getMessage())));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("errors", errors);
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles exceptions of type Exception.
      * Maps the exception to an HTTP v response status.
@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends CustomException {
+
+    public InvalidCursorException() {
+        super("Invalid pagination cursor.", HttpStatus.BAD_REQUEST.value());
+    }
+
+}
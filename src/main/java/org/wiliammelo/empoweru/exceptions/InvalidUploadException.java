@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidUploadException extends CustomException {
+
+    public InvalidUploadException(String message) {
+        super(message, HttpStatus.BAD_REQUEST.value());
+    }
+
+}
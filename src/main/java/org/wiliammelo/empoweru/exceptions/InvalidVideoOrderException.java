@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidVideoOrderException extends CustomException {
+
+    public InvalidVideoOrderException() {
+        super("The new order must list every ready video of the section exactly once.", HttpStatus.BAD_REQUEST.value());
+    }
+
+}
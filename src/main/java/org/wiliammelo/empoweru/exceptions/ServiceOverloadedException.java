@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceOverloadedException extends CustomException {
+
+    public ServiceOverloadedException() {
+        super("Service is overloaded, please try again later.", HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class UploadSessionConflictException extends CustomException {
+
+    public UploadSessionConflictException(String message) {
+        super(message, HttpStatus.CONFLICT.value());
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class UploadSessionNotFoundException extends CustomException {
+
+    public UploadSessionNotFoundException() {
+        super("Upload session not found or expired.", HttpStatus.NOT_FOUND.value());
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.wiliammelo.empoweru.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class VideoNotReadyException extends CustomException {
+
+    public VideoNotReadyException() {
+        super("Video is still being processed.", HttpStatus.CONFLICT.value());
+    }
+
+}
@@ -1,12 +1,16 @@
 package org.wiliammelo.empoweru.mappers;
 
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 import org.wiliammelo.empoweru.dtos.course.AuthenticatedCourseDetailedDTO;
 import org.wiliammelo.empoweru.dtos.course.CourseDTO;
 import org.wiliammelo.empoweru.dtos.course.CreateCourseDTO;
 import org.wiliammelo.empoweru.dtos.course.PublicCourseDetailedDTO;
+import org.wiliammelo.empoweru.dtos.section.AuthenticatedSectionDetailedDTO;
+import org.wiliammelo.empoweru.dtos.section.PublicSectionDetailedDTO;
 import org.wiliammelo.empoweru.models.Course;
 
 /**
@@ -61,4 +65,32 @@ public interface CourseMapper {
     @Mapping(source = "sections", target = "sections")
     AuthenticatedCourseDetailedDTO toAuthenticatedCourseDetailedDTO(Course course);
 
+    /**
+     * Numbers the videos of a section from 1, in the order they were loaded in.
+     *
+     * @param section The mapped section.
+     */
+    @AfterMapping
+    default void numberVideos(@MappingTarget PublicSectionDetailedDTO section) {
+        if (section.getVideos() != null) {
+            for (int i = 0; i < section.getVideos().size(); i++) {
+                section.getVideos().get(i).setDisplayOrder(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Numbers the videos of a section from 1, in the order they were loaded in.
+     *
+     * @param section The mapped section.
+     */
+    @AfterMapping
+    default void numberVideos(@MappingTarget AuthenticatedSectionDetailedDTO section) {
+        if (section.getVideos() != null) {
+            for (int i = 0; i < section.getVideos().size(); i++) {
+                section.getVideos().get(i).setDisplayOrder(i + 1);
+            }
+        }
+    }
+
 }
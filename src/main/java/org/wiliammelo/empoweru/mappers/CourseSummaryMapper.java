@@ -0,0 +1,36 @@
+package org.wiliammelo.empoweru.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import org.wiliammelo.empoweru.dtos.course.CourseDTO;
+import org.wiliammelo.empoweru.models.CourseSummary;
+
+/**
+ * Mapper interface for converting CourseSummary read models into their DTO representations.
+ * Utilizes MapStruct for mapping fields between source and target objects.
+ */
+@Mapper
+public interface CourseSummaryMapper {
+
+    /**
+     * Instance of the CourseSummaryMapper for use where dependency injection is not available.
+     */
+    CourseSummaryMapper INSTANCE = Mappers.getMapper(CourseSummaryMapper.class);
+
+    /**
+     * Converts a CourseSummary to a CourseDTO.
+     *
+     * @param summary The CourseSummary to convert.
+     * @return The converted CourseDTO.
+     */
+    @Mapping(source = "courseId", target = "id")
+    @Mapping(source = "professorId", target = "professor.id")
+    @Mapping(source = "professorName", target = "professor.name")
+    @Mapping(source = "professorEmail", target = "professor.email")
+    @Mapping(source = "professorGender", target = "professor.gender")
+    @Mapping(source = "professorBio", target = "professor.bio")
+    @Mapping(source = "professorImageUrl", target = "professor.imageURL")
+    CourseDTO toCourseDto(CourseSummary summary);
+
+}
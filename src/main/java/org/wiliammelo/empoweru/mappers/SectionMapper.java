@@ -1,7 +1,9 @@
 package org.wiliammelo.empoweru.mappers;
 
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 import org.wiliammelo.empoweru.dtos.section.CreateSectionDTO;
 import org.wiliammelo.empoweru.dtos.section.PublicSectionDetailedDTO;
@@ -20,4 +22,13 @@ public interface SectionMapper {
 
     @Mapping(target = "videos", source = "videos")
     PublicSectionDetailedDTO toSectionDetailedDTO(Section section);
+
+    @AfterMapping
+    default void numberVideos(@MappingTarget PublicSectionDetailedDTO section) {
+        if (section.getVideos() != null) {
+            for (int i = 0; i < section.getVideos().size(); i++) {
+                section.getVideos().get(i).setDisplayOrder(i + 1);
+            }
+        }
+    }
 }
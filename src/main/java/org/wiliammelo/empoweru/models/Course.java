@@ -46,4 +46,12 @@ public class Course {
     @OneToMany(mappedBy = "course")
     private List<Section> sections;
 
+    /**
+     * Next {@link Video#getProgressIndex() progress index} to hand out to a video of this course.
+     * Only changed through {@link org.wiliammelo.empoweru.repositories.CourseRepository#advanceVideoSequence}, so
+     * saving a stale course entity never rolls it back.
+     */
+    @Column(name = "video_sequence", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int videoSequence;
+
 }
@@ -0,0 +1,77 @@
+package org.wiliammelo.empoweru.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * Watched-video progress of a student in a course.
+ * <p>
+ * Stores a bitset over the {@link Video#getProgressIndex() progress indexes} of the course videos, so checking whether
+ * a video was watched, or marking it, costs a single bit operation regardless of how many videos the student watched
+ * across the platform.</p>
+ */
+@Entity
+@Table(name = "course_progress", uniqueConstraints =
+        @UniqueConstraint(name = "uk_course_progress_student_course", columnNames = {"student_id", "course_id"}))
+@Data
+@NoArgsConstructor
+public class CourseProgress {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(name = "course_id", nullable = false)
+    private UUID courseId;
+
+    @Column(name = "watched_videos", nullable = false)
+    private byte[] watchedVideos = new byte[0];
+
+    /**
+     * Returns the watched videos as a bitset indexed by progress index.
+     *
+     * @return A new bitset.
+     */
+    public BitSet getWatchedBits() {
+        return BitSet.valueOf(watchedVideos);
+    }
+
+    /**
+     * Marks the video at the given progress index as watched.
+     *
+     * @param progressIndex The progress index of the video.
+     * @return true if the video was not marked as watched before.
+     */
+    public boolean markWatched(int progressIndex) {
+        BitSet bits = getWatchedBits();
+        if (bits.get(progressIndex)) {
+            return false;
+        }
+        bits.set(progressIndex);
+        watchedVideos = bits.toByteArray();
+        return true;
+    }
+
+    /**
+     * Marks the video at the given progress index as not watched, e.g. when it leaves the course.
+     *
+     * @param progressIndex The progress index of the video.
+     * @return true if the video was marked as watched before.
+     */
+    public boolean unmarkWatched(int progressIndex) {
+        BitSet bits = getWatchedBits();
+        if (!bits.get(progressIndex)) {
+            return false;
+        }
+        bits.clear(progressIndex);
+        watchedVideos = bits.toByteArray();
+        return true;
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.wiliammelo.empoweru.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Denormalized read model of a {@link Course} used by the public catalog.
+ * <p>
+ * Holds everything a {@link org.wiliammelo.empoweru.dtos.course.CourseDTO} needs (counters, total duration,
+ * professor card and tags) in a single row, so the catalog can be served without hydrating sections and videos.
+ * Rows are kept up to date incrementally by the services that change courses, sections and videos.</p>
+ */
+@Entity
+@Table(name = "course_summary", indexes = {
+        @Index(name = "idx_course_summary_title", columnList = "title, course_id"),
+        @Index(name = "idx_course_summary_professor", columnList = "professor_id")
+})
+@Data
+@NoArgsConstructor
+public class CourseSummary {
+
+    @Id
+    @Column(name = "course_id")
+    private UUID courseId;
+
+    private String title;
+
+    @Column(length = 1000, nullable = false)
+    private String description;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(columnDefinition = "text[]")
+    private List<String> tags;
+
+    @Column(name = "professor_id")
+    private UUID professorId;
+
+    @Column(length = 100)
+    private String professorName;
+
+    @Column(length = 100)
+    private String professorEmail;
+
+    @Column(length = 1)
+    private String professorGender;
+
+    @Column(length = 500)
+    private String professorBio;
+
+    private String professorImageUrl;
+
+    private int videosCount;
+
+    private long durationInSeconds;
+
+}
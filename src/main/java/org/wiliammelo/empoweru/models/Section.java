@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.util.List;
 import java.util.UUID;
@@ -24,7 +25,12 @@ public class Section {
     @Column(length = 1000, nullable = false)
     private String description;
 
+    /**
+     * The ready videos of the section in display order; videos still being ingested or that failed are left out.
+     */
     @OneToMany(mappedBy = "section")
+    @SQLRestriction("status = 'READY'")
+    @OrderBy("sortKey ASC, id ASC")
     private List<Video> videos;
 
     @ManyToOne
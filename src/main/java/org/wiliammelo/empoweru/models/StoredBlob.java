@@ -0,0 +1,39 @@
+package org.wiliammelo.empoweru.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A file in storage, keyed by the SHA-256 digest of its content and shared by every video with that content.
+ * The blob is deleted when the last video referencing it goes away.
+ */
+@Entity
+@Table(name = "stored_blob")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StoredBlob {
+
+    /**
+     * Lowercase hex SHA-256 digest of the content.
+     */
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    /**
+     * Name of the blob in storage, unique per upload so a blob being deleted is never confused with a new upload of the
+     * same content.
+     */
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    @Column(nullable = false, length = 1024)
+    private String url;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+}
@@ -5,11 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -40,15 +38,15 @@ public class User implements UserDetails {
 
     private UserRole role;
 
+    /**
+     * Version embedded in issued tokens; raising it invalidates the tokens issued before.
+     */
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (role.getRole().equals("admin")) {
-            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_PROFESSOR"), new SimpleGrantedAuthority("ROLE_STUDENT"));
-        } else if (role.getRole().equals("professor")) {
-            return List.of(new SimpleGrantedAuthority("ROLE_PROFESSOR"));
-        } else {
-            return List.of(new SimpleGrantedAuthority("ROLE_STUDENT"));
-        }
+        return role.getAuthorities();
     }
 
     @Override
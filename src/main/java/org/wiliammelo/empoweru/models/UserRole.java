@@ -1,14 +1,29 @@
 package org.wiliammelo.empoweru.models;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
 
 @Getter
-@AllArgsConstructor
 public enum UserRole {
-    ADMIN("admin"),
-    STUDENT("student"),
-    PROFESSOR("professor");
+    ADMIN("admin", "ROLE_ADMIN", "ROLE_PROFESSOR", "ROLE_STUDENT"),
+    STUDENT("student", "ROLE_STUDENT"),
+    PROFESSOR("professor", "ROLE_PROFESSOR");
 
     private final String role;
+
+    /**
+     * Authorities granted to users with this role, built once and shared by all of them.
+     */
+    private final List<GrantedAuthority> authorities;
+
+    UserRole(String role, String... authorities) {
+        this.role = role;
+        this.authorities = List.copyOf(Arrays.stream(authorities)
+                .map(SimpleGrantedAuthority::new)
+                .toList());
+    }
 }
@@ -24,11 +24,51 @@ public class Video {
 
     private String title;
 
+    /**
+     * Duration read from the video file, or the one given by the uploader if the file does not tell.
+     */
     private double durationInSeconds;
 
-    @Column(name = "display_order")
+    /**
+     * Resolution and average bitrate, in bits per second, read from the video file. Null when unknown.
+     */
+    private Integer width;
+
+    private Integer height;
+
+    private Long bitrate;
+
+    /**
+     * Rank of the video within its section, see {@link org.wiliammelo.empoweru.services.VideoOrderService}. Only
+     * null for videos created before sort keys, until they are backfilled at startup.
+     */
+    @Column(name = "sort_key")
+    private Long sortKey;
+
+    /**
+     * 1-based position of the video among the ready videos of its section, derived from the sort keys.
+     */
+    @Transient
     private int displayOrder;
 
+    /**
+     * Stable ordinal of the video within its course, used as its position in {@link CourseProgress} bitsets.
+     * Unlike the display order it never changes when videos are reordered, and it is not reused after deletions.
+     */
+    @Column(name = "progress_index")
+    private Integer progressIndex;
+
+    /**
+     * SHA-256 digest of the video file, referencing its {@link StoredBlob}. Null for files uploaded before content
+     * addressing.
+     */
+    @Column(name = "content_digest", length = 64)
+    private String contentDigest;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "varchar(16) default 'READY'")
+    private VideoStatus status = VideoStatus.READY;
+
     @ManyToOne
     @JoinColumn(name = "section_id")
     private Section section;
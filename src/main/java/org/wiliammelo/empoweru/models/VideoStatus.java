@@ -0,0 +1,16 @@
+package org.wiliammelo.empoweru.models;
+
+/**
+ * Ingestion status of a {@link Video}. Only ready videos are listed in their section.
+ */
+public enum VideoStatus {
+    /**
+     * Accepted and staged, waiting to be uploaded to storage.
+     */
+    PENDING,
+    READY,
+    /**
+     * The file was not a supported video or could not be uploaded.
+     */
+    FAILED
+}
@@ -0,0 +1,42 @@
+package org.wiliammelo.empoweru.repositories;
+
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.wiliammelo.empoweru.models.CourseProgress;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CourseProgressRepository extends CrudRepository<CourseProgress, UUID> {
+
+    Optional<CourseProgress> findByStudentIdAndCourseId(UUID studentId, UUID courseId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM CourseProgress p WHERE p.studentId = :studentId AND p.courseId = :courseId")
+    Optional<CourseProgress> findForUpdate(@Param("studentId") UUID studentId, @Param("courseId") UUID courseId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM CourseProgress p WHERE p.courseId = :courseId " +
+            "AND p.studentId IN (SELECT vw.studentId FROM VideoWatched vw WHERE vw.videoId = :videoId)")
+    List<CourseProgress> findAllWatchedForUpdate(@Param("courseId") UUID courseId, @Param("videoId") UUID videoId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO course_progress (id, student_id, course_id, watched_videos) " +
+            "VALUES (:id, :studentId, :courseId, decode('', 'hex')) " +
+            "ON CONFLICT (student_id, course_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("studentId") UUID studentId, @Param("courseId") UUID courseId);
+
+    @Modifying
+    @Query("DELETE FROM CourseProgress p WHERE p.courseId = :courseId")
+    void deleteAllByCourseId(@Param("courseId") UUID courseId);
+
+}
@@ -1,5 +1,6 @@
 package org.wiliammelo.empoweru.repositories;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -7,6 +8,7 @@ import org.springframework.stereotype.Repository;
 import org.wiliammelo.empoweru.models.Course;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -23,6 +25,22 @@ public interface CourseRepository extends CrudRepository<Course, UUID> {
     @Query("SELECT (CASE WHEN COUNT(c) > 0 THEN TRUE ELSE FALSE END) FROM Course c WHERE c.id = :courseId AND c.professor.id = :ownerId")
     Boolean isTheOwner(@Param("courseId") UUID courseId, @Param("ownerId") UUID ownerId);
 
+    @Query("SELECT c.professor.id FROM Course c WHERE c.id = :courseId")
+    Optional<UUID> findOwnerId(@Param("courseId") UUID courseId);
+
+    @Query("SELECT c.id FROM Course c WHERE c.professor.id = :professorId")
+    List<UUID> findIdsByProfessor(@Param("professorId") UUID professorId);
+
     boolean existsById(UUID id);
 
+    @Modifying
+    @Query("UPDATE Course c SET c.videoSequence = c.videoSequence + :count WHERE c.id = :courseId")
+    void advanceVideoSequence(@Param("courseId") UUID courseId, @Param("count") int count);
+
+    @Query("SELECT c.videoSequence FROM Course c WHERE c.id = :courseId")
+    int findVideoSequence(@Param("courseId") UUID courseId);
+
+    @Query("SELECT c FROM Course c WHERE NOT EXISTS (SELECT s FROM CourseSummary s WHERE s.courseId = c.id)")
+    List<Course> findAllWithoutSummary();
+
 }
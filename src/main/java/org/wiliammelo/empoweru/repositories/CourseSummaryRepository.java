@@ -0,0 +1,87 @@
+package org.wiliammelo.empoweru.repositories;
+
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.wiliammelo.empoweru.models.CourseSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Repository for the {@link CourseSummary} read model.
+ * <p>
+ * The page queries use keyset pagination over {@code (title, course_id)}: each page starts strictly after the last
+ * row of the previous one, so deep pages cost the same as the first one.</p>
+ */
+@Repository
+public interface CourseSummaryRepository extends CrudRepository<CourseSummary, UUID> {
+
+    List<CourseSummary> findAllByOrderByTitleAscCourseIdAsc();
+
+    List<CourseSummary> findAllByCourseIdInOrderByTitleAscCourseIdAsc(Collection<UUID> courseIds);
+
+    @Query(value = "SELECT * FROM course_summary s " +
+            "WHERE (s.title, s.course_id) > (:afterTitle, :afterId) " +
+            "ORDER BY s.title, s.course_id LIMIT :limit", nativeQuery = true)
+    List<CourseSummary> findPage(@Param("afterTitle") String afterTitle,
+                                 @Param("afterId") UUID afterId,
+                                 @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM course_summary s " +
+            "WHERE s.title ILIKE CONCAT('%', :title, '%') " +
+            "AND (s.title, s.course_id) > (:afterTitle, :afterId) " +
+            "ORDER BY s.title, s.course_id LIMIT :limit", nativeQuery = true)
+    List<CourseSummary> findPageByTitle(@Param("title") String title,
+                                        @Param("afterTitle") String afterTitle,
+                                        @Param("afterId") UUID afterId,
+                                        @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM course_summary s " +
+            "WHERE EXISTS (SELECT 1 FROM unnest(s.tags) t WHERE LOWER(t) IN (:tags)) " +
+            "AND (s.title, s.course_id) > (:afterTitle, :afterId) " +
+            "ORDER BY s.title, s.course_id LIMIT :limit", nativeQuery = true)
+    List<CourseSummary> findPageByTags(@Param("tags") List<String> tags,
+                                       @Param("afterTitle") String afterTitle,
+                                       @Param("afterId") UUID afterId,
+                                       @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM course_summary s " +
+            "WHERE s.title ILIKE CONCAT('%', :title, '%') " +
+            "AND EXISTS (SELECT 1 FROM unnest(s.tags) t WHERE LOWER(t) IN (:tags)) " +
+            "AND (s.title, s.course_id) > (:afterTitle, :afterId) " +
+            "ORDER BY s.title, s.course_id LIMIT :limit", nativeQuery = true)
+    List<CourseSummary> findPageByTitleAndTags(@Param("title") String title,
+                                               @Param("tags") List<String> tags,
+                                               @Param("afterTitle") String afterTitle,
+                                               @Param("afterId") UUID afterId,
+                                               @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM CourseSummary s ORDER BY s.title, s.courseId")
+    Stream<CourseSummary> streamAll();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CourseSummary s SET s.videosCount = s.videosCount + :videos, s.durationInSeconds = s.durationInSeconds + :duration WHERE s.courseId = :courseId")
+    void applyVideoDelta(@Param("courseId") UUID courseId, @Param("videos") int videos, @Param("duration") long duration);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE CourseSummary s SET s.professorName = :name, s.professorEmail = :email, s.professorGender = :gender, s.professorBio = :bio, s.professorImageUrl = :imageUrl WHERE s.professorId = :professorId")
+    void updateProfessorCard(@Param("professorId") UUID professorId,
+                             @Param("name") String name,
+                             @Param("email") String email,
+                             @Param("gender") String gender,
+                             @Param("bio") String bio,
+                             @Param("imageUrl") String imageUrl);
+
+}
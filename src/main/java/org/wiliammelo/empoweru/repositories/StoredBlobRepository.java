@@ -0,0 +1,56 @@
+package org.wiliammelo.empoweru.repositories;
+
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.wiliammelo.empoweru.models.StoredBlob;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends CrudRepository<StoredBlob, String> {
+
+    /**
+     * Adds a reference to the blob with a digest, if there is one.
+     *
+     * @return 0 if no blob has this digest.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1 WHERE b.digest = :digest")
+    int addReference(@Param("digest") String digest);
+
+    /**
+     * Records a blob with a single reference, or adds a reference to the blob already recorded with its digest.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stored_blob (digest, name, url, ref_count) VALUES (:digest, :name, :url, 1) " +
+            "ON CONFLICT (digest) DO UPDATE SET ref_count = stored_blob.ref_count + 1", nativeQuery = true)
+    void insertOrAddReference(@Param("digest") String digest, @Param("name") String name, @Param("url") String url);
+
+    @Query("SELECT b.name FROM StoredBlob b WHERE b.digest = :digest")
+    Optional<String> findNameByDigest(@Param("digest") String digest);
+
+    @Query("SELECT b.url FROM StoredBlob b WHERE b.digest = :digest")
+    Optional<String> findUrlByDigest(@Param("digest") String digest);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.digest = :digest")
+    int removeReference(@Param("digest") String digest);
+
+    /**
+     * Deletes the blob record with a digest if nothing references it anymore.
+     *
+     * @return 0 if the blob is still referenced, for instance by a video created meanwhile.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.digest = :digest AND b.refCount <= 0")
+    int deleteUnreferenced(@Param("digest") String digest);
+
+}
@@ -0,0 +1,158 @@
+package org.wiliammelo.empoweru.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.wiliammelo.empoweru.models.VideoStatus;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and rewrites the sort keys ordering the videos of a section.
+ * <p>
+ * Keys are spaced {@link #GAP} apart, so a video is placed between two others by writing its own key only. Whole
+ * sections are renumbered with a single statement, whatever their size.</p>
+ */
+@Repository
+@AllArgsConstructor
+public class VideoOrderRepository {
+
+    /**
+     * Space between consecutive keys, enough for 20 insertions at the same place before a renumbering.
+     */
+    public static final long GAP = 1L << 20;
+
+    private static final String RENUMBER =
+            "UPDATE video v SET sort_key = r.position * :gap FROM (" +
+                    "SELECT id, row_number() OVER (ORDER BY sort_key, id) AS position FROM video WHERE section_id = :sectionId" +
+                    ") r WHERE v.id = r.id";
+
+    private final EntityManager entityManager;
+
+    /**
+     * Finds the keys around a position among the ready videos of a section.
+     * <p>
+     * The previous key is that of the ready video at {@code position - 1}; the next key is the first one after it among
+     * the videos that are ready or pending, so a video placed between them never takes the key of a pending video and
+     * shows at {@code position} whatever the pending videos become.</p>
+     *
+     * @param sectionId The UUID of the section.
+     * @param position  The 1-based position a video is to be placed at.
+     * @return The keys of the videos right before and after the position, null where there is none.
+     */
+    public Long[] findKeysAround(UUID sectionId, int position) {
+        Long previous = null;
+        if (position > 1) {
+            List<Long> keys = entityManager.createQuery(
+                            "SELECT v.sortKey FROM Video v WHERE v.section.id = :sectionId AND v.status = :status " +
+                                    "ORDER BY v.sortKey, v.id", Long.class)
+                    .setParameter("sectionId", sectionId)
+                    .setParameter("status", VideoStatus.READY)
+                    .setFirstResult(position - 2)
+                    .setMaxResults(1)
+                    .getResultList();
+            if (keys.isEmpty()) {
+                return new Long[]{null, null};
+            }
+            previous = keys.get(0);
+        }
+
+        Long next = entityManager.createQuery(
+                        "SELECT MIN(v.sortKey) FROM Video v WHERE v.section.id = :sectionId AND v.status <> :failed " +
+                                "AND v.sortKey > :previous", Long.class)
+                .setParameter("sectionId", sectionId)
+                .setParameter("failed", VideoStatus.FAILED)
+                .setParameter("previous", previous != null ? previous : Long.MIN_VALUE)
+                .getSingleResult();
+        return new Long[]{previous, next};
+    }
+
+    /**
+     * Locks the videos of a section until the end of the current transaction, so their order cannot change meanwhile.
+     *
+     * @param sectionId The UUID of the section.
+     * @return The status of every video of the section, in their current order.
+     */
+    public Map<UUID, VideoStatus> lockOrder(UUID sectionId) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT id, status FROM video WHERE section_id = :sectionId ORDER BY sort_key, id FOR UPDATE")
+                .setParameter("sectionId", sectionId)
+                .getResultList();
+        Map<UUID, VideoStatus> order = new LinkedHashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            order.put((UUID) columns[0], VideoStatus.valueOf((String) columns[1]));
+        }
+        return order;
+    }
+
+    /**
+     * @return The largest key of the videos of a section, whatever their status, or null if it has none.
+     */
+    public Long findLastKey(UUID sectionId) {
+        return entityManager.createQuery("SELECT MAX(v.sortKey) FROM Video v WHERE v.section.id = :sectionId", Long.class)
+                .setParameter("sectionId", sectionId)
+                .getSingleResult();
+    }
+
+    /**
+     * Counts the ready videos of a section.
+     */
+    public int countReady(UUID sectionId) {
+        return countBefore(sectionId, Long.MAX_VALUE);
+    }
+
+    /**
+     * Counts the ready videos of a section placed before a key.
+     */
+    public int countBefore(UUID sectionId, long sortKey) {
+        return entityManager.createQuery(
+                        "SELECT COUNT(v) FROM Video v WHERE v.section.id = :sectionId AND v.status = :status AND v.sortKey < :sortKey", Long.class)
+                .setParameter("sectionId", sectionId)
+                .setParameter("status", VideoStatus.READY)
+                .setParameter("sortKey", sortKey)
+                .getSingleResult()
+                .intValue();
+    }
+
+    /**
+     * Spaces the keys of a section {@link #GAP} apart again, keeping the current order.
+     */
+    @Transactional
+    public void renumber(UUID sectionId) {
+        entityManager.createNativeQuery(RENUMBER)
+                .setParameter("gap", GAP)
+                .setParameter("sectionId", sectionId)
+                .executeUpdate();
+    }
+
+    /**
+     * Puts videos of a section in the given order, in a single statement.
+     *
+     * @param sectionId The UUID of the section.
+     * @param videoIds  The UUIDs of the videos, in their new order.
+     * @return The number of videos updated.
+     */
+    @Transactional
+    public int reorder(UUID sectionId, List<UUID> videoIds) {
+        StringBuilder sql = new StringBuilder("UPDATE video SET sort_key = CASE id");
+        for (int i = 0; i < videoIds.size(); i++) {
+            sql.append(" WHEN :id").append(i).append(" THEN ").append((i + 1) * GAP);
+        }
+        sql.append(" END WHERE section_id = :sectionId AND id IN (:videoIds)");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("sectionId", sectionId)
+                .setParameter("videoIds", videoIds);
+        for (int i = 0; i < videoIds.size(); i++) {
+            query.setParameter("id" + i, videoIds.get(i));
+        }
+        return query.executeUpdate();
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.wiliammelo.empoweru.repositories;
 
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -7,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.wiliammelo.empoweru.models.Course;
 import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.models.VideoStatus;
 
 import java.util.List;
 import java.util.UUID;
@@ -14,8 +16,25 @@ import java.util.UUID;
 @Repository
 public interface VideoRepository extends CrudRepository<Video, UUID> {
 
-    @Query("SELECT v FROM Video v WHERE v.displayOrder >= :display_order")
-    List<Video> findAllByWithDisplayOrderBiggerThanOrEqual(@Param("display_order") int displayOrder);
+    @Query("SELECT v FROM Video v WHERE v.progressIndex IS NULL ORDER BY v.section.course.id, v.section.id, v.sortKey")
+    List<Video> findAllWithoutProgressIndex();
+
+    /**
+     * Records the outcome of the ingestion of a pending video, with the metadata read from its file.
+     *
+     * @return 0 if the video was deleted or is no longer pending.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Video v SET v.status = :status, v.url = :url, v.contentDigest = :contentDigest, " +
+            "v.durationInSeconds = :durationInSeconds, v.width = :width, v.height = :height, v.bitrate = :bitrate " +
+            "WHERE v.id = :id AND v.status = org.wiliammelo.empoweru.models.VideoStatus.PENDING")
+    int finishIngestion(@Param("id") UUID id, @Param("status") VideoStatus status, @Param("url") String url,
+                        @Param("contentDigest") String contentDigest, @Param("durationInSeconds") double durationInSeconds,
+                        @Param("width") Integer width, @Param("height") Integer height, @Param("bitrate") Long bitrate);
+
+    @Query("SELECT v.contentDigest FROM Video v WHERE v.section.course = :course AND v.contentDigest IS NOT NULL")
+    List<String> findContentDigestsByCourse(@Param("course") Course course);
 
     @Modifying
     @Query("DELETE FROM Video v WHERE v.section.course = :course")
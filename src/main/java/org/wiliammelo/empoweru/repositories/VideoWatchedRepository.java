@@ -1,13 +1,28 @@
 package org.wiliammelo.empoweru.repositories;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.wiliammelo.empoweru.dtos.course.CourseProgressDTO;
 import org.wiliammelo.empoweru.models.VideoWatched;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface VideoWatchedRepository extends CrudRepository<VideoWatched, UUID> {
 
     List<VideoWatched> findAllByStudentId(UUID studentId);
 
+    @Query("SELECT vw FROM VideoWatched vw JOIN Video v ON v.id = vw.videoId " +
+            "WHERE vw.studentId = :studentId AND v.section.course.id = :courseId")
+    List<VideoWatched> findAllByStudentIdAndCourseId(@Param("studentId") UUID studentId, @Param("courseId") UUID courseId);
+
+    Optional<VideoWatched> findFirstByStudentIdAndVideoId(UUID studentId, UUID videoId);
+
+    @Query("SELECT new org.wiliammelo.empoweru.dtos.course.CourseProgressDTO(COUNT(DISTINCT vw.videoId), COUNT(DISTINCT v.id)) " +
+            "FROM Video v LEFT JOIN VideoWatched vw ON vw.videoId = v.id AND vw.studentId = :studentId " +
+            "WHERE v.section.course.id = :courseId AND v.status = org.wiliammelo.empoweru.models.VideoStatus.READY")
+    CourseProgressDTO findProgress(@Param("studentId") UUID studentId, @Param("courseId") UUID courseId);
+
 }
@@ -1,5 +1,6 @@
 package org.wiliammelo.empoweru.services;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
@@ -11,10 +12,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.wiliammelo.empoweru.clients.MessagePublisher;
 import org.wiliammelo.empoweru.configuration.security.JWTService;
+import org.wiliammelo.empoweru.configuration.security.RefreshTokenRegistry;
 import org.wiliammelo.empoweru.dtos.LoginDTO;
 import org.wiliammelo.empoweru.dtos.TokenResponse;
 import org.wiliammelo.empoweru.dtos.professor.CreateProfessorDTO;
@@ -22,6 +24,7 @@ import org.wiliammelo.empoweru.dtos.professor.ProfessorDTO;
 import org.wiliammelo.empoweru.dtos.student.CreateStudentDTO;
 import org.wiliammelo.empoweru.dtos.student.StudentDTO;
 import org.wiliammelo.empoweru.exceptions.CustomException;
+import org.wiliammelo.empoweru.exceptions.ServiceOverloadedException;
 import org.wiliammelo.empoweru.exceptions.UserAlreadyExistsException;
 import org.wiliammelo.empoweru.mappers.ProfessorMapper;
 import org.wiliammelo.empoweru.mappers.StudentMapper;
@@ -33,6 +36,8 @@ import org.wiliammelo.empoweru.repositories.ProfessorRepository;
 import org.wiliammelo.empoweru.repositories.StudentRepository;
 import org.wiliammelo.empoweru.repositories.UserRepository;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -40,9 +45,10 @@ public class AuthService {
     private final StudentRepository studentRepository;
     private final ProfessorRepository professorRepository;
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JWTService jwtService;
+    private final RefreshTokenRegistry refreshTokenRegistry;
 
     @Qualifier("greetingsSQSPublisher")
     private final MessagePublisher welcomeMessagePublisher;
@@ -51,12 +57,12 @@ public class AuthService {
     private String profile;
 
     @Transactional
-    @CacheEvict(value = "student", allEntries = true)
-    public StudentDTO registerStudent(CreateStudentDTO createStudentDTO) throws UserAlreadyExistsException {
+    @CacheEvict(value = "student", key = "'findAll'")
+    public StudentDTO registerStudent(CreateStudentDTO createStudentDTO) throws UserAlreadyExistsException, ServiceOverloadedException {
         this.verifyConflict(createStudentDTO.getEmail());
 
         Student student = StudentMapper.INSTANCE.toStudent(createStudentDTO);
-        student.setPassword(bCryptPasswordEncoder.encode(student.getPassword()));
+        student.setPassword(encodePassword(student.getPassword()));
         student.setRole(UserRole.STUDENT);
 
         welcomeMessagePublisher.publish(student.getEmail());
@@ -65,12 +71,12 @@ public class AuthService {
     }
 
     @Transactional
-    @CacheEvict(value = "professor", allEntries = true)
-    public ProfessorDTO registerProfessor(CreateProfessorDTO createProfessorDTO) throws UserAlreadyExistsException {
+    @CacheEvict(value = "professor", key = "'findAll'")
+    public ProfessorDTO registerProfessor(CreateProfessorDTO createProfessorDTO) throws UserAlreadyExistsException, ServiceOverloadedException {
         this.verifyConflict(createProfessorDTO.getEmail());
 
         Professor professor = ProfessorMapper.INSTANCE.toProfessor(createProfessorDTO);
-        professor.setPassword(bCryptPasswordEncoder.encode(professor.getPassword()));
+        professor.setPassword(encodePassword(professor.getPassword()));
         professor.setRole(UserRole.PROFESSOR);
         professor.setImageUrl(createProfessorDTO.getImageUrl());
         professor.setBio(createProfessorDTO.getBio());
@@ -82,14 +88,17 @@ public class AuthService {
 
     public TokenResponse login(LoginDTO loginDTO, HttpServletResponse response) throws CustomException {
         var usernamePassword = new UsernamePasswordAuthenticationToken(loginDTO.getEmail(), loginDTO.getPassword());
-        var auth = this.authenticationManager.authenticate(usernamePassword);
+        Authentication auth;
+        try {
+            auth = this.authenticationManager.authenticate(usernamePassword);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException();
+        }
 
         String accessToken = jwtService.generateAccessToken((User) auth.getPrincipal());
-        response.addCookie(createRefreshTokenCookie((User) auth.getPrincipal()));
+        response.addCookie(createRefreshTokenCookie((User) auth.getPrincipal(), refreshTokenRegistry.newFamily()));
 
-        return new TokenResponse(accessToken,
-                getRole(auth)
-        );
+        return new TokenResponse(accessToken, ((User) auth.getPrincipal()).getRole().name());
 
     }
 
@@ -99,42 +108,83 @@ public class AuthService {
             throw new CustomException("Invalid token", HttpStatus.UNAUTHORIZED.value());
         }
 
-        String email = jwtService.validateRefreshToken(refreshToken);
+        DecodedJWT decodedJWT = jwtService.verifyRefreshToken(refreshToken);
 
-        if (email == null) {
+        if (decodedJWT == null || decodedJWT.getId() == null || decodedJWT.getClaim(JWTService.FAMILY_CLAIM).isMissing()) {
             throw new CustomException("Invalid token", HttpStatus.UNAUTHORIZED.value());
         }
 
-        User user = (User) userRepository.findByEmail(email);
+        User user = (User) userRepository.findByEmail(decodedJWT.getSubject());
+        int tokenVersion = decodedJWT.getClaim(JWTService.TOKEN_VERSION_CLAIM).isMissing()
+                ? 0 : decodedJWT.getClaim(JWTService.TOKEN_VERSION_CLAIM).asInt();
+
+        if (user == null || tokenVersion < user.getTokenVersion()) {
+            throw new CustomException("Invalid token", HttpStatus.UNAUTHORIZED.value());
+        }
+
+        String familyId = decodedJWT.getClaim(JWTService.FAMILY_CLAIM).asString();
+        if (!refreshTokenRegistry.rotate(familyId, decodedJWT.getId(), decodedJWT.getExpiresAtAsInstant())) {
+            throw new CustomException("Invalid token", HttpStatus.UNAUTHORIZED.value());
+        }
 
         TokenResponse newTokenResponse = new TokenResponse(jwtService.generateAccessToken(user), user.getRole().getRole());
 
-        response.addCookie(createRefreshTokenCookie(user));
+        response.addCookie(createRefreshTokenCookie(user, familyId));
 
         return newTokenResponse;
     }
 
+    /**
+     * Logs out by revoking every refresh token of the presented token's family and clearing the refresh token cookie.
+     *
+     * @param refreshToken The refresh token cookie, possibly null.
+     * @param response     The response the cleared cookie is added to.
+     */
+    public void logout(String refreshToken, HttpServletResponse response) {
+        if (refreshToken != null) {
+            DecodedJWT decodedJWT = jwtService.verifyRefreshToken(refreshToken);
+            if (decodedJWT != null && !decodedJWT.getClaim(JWTService.FAMILY_CLAIM).isMissing()) {
+                refreshTokenRegistry.revokeFamily(decodedJWT.getClaim(JWTService.FAMILY_CLAIM).asString());
+            }
+        }
+
+        Cookie refreshTokenCookie = new Cookie("refreshToken", "");
+        refreshTokenCookie.setHttpOnly(true);
+        refreshTokenCookie.setMaxAge(0);
+        refreshTokenCookie.setPath("/");
+        if (profile.equals("prod")) {
+            refreshTokenCookie.setSecure(true);
+        }
+        response.addCookie(refreshTokenCookie);
+    }
+
+    /**
+     * Hashes a password on the bounded password hashing pool.
+     *
+     * @param rawPassword The password to hash.
+     * @return The hash.
+     * @throws ServiceOverloadedException if the hashing pool is saturated.
+     */
+    private String encodePassword(String rawPassword) throws ServiceOverloadedException {
+        try {
+            return passwordEncoder.encode(rawPassword);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceOverloadedException();
+        }
+    }
+
     private void verifyConflict(String email) throws UserAlreadyExistsException {
         if (this.userRepository.existsByEmail(email) == Boolean.TRUE) {
             throw new UserAlreadyExistsException("User already exists");
         }
     }
 
-    private String getRole(Authentication auth) {
-        return auth.getAuthorities()
-                .stream()
-                .findFirst()
-                .get()
-                .getAuthority()
-                .replace("ROLE_", "");
-    }
-
-    private Cookie createRefreshTokenCookie(User user) throws CustomException {
-        String refreshToken = jwtService.generateRefreshToken(user);
+    private Cookie createRefreshTokenCookie(User user, String familyId) throws CustomException {
+        String refreshToken = jwtService.generateRefreshToken(user, familyId);
 
         Cookie refreshTokenCookie = new Cookie("refreshToken", refreshToken);
         refreshTokenCookie.setHttpOnly(true);
-        refreshTokenCookie.setMaxAge(30 * 24 * 60 * 60);
+        refreshTokenCookie.setMaxAge(JWTService.REFRESH_TOKEN_TTL_SECONDS);
         refreshTokenCookie.setPath("/");
         if (profile.equals("prod")) {
             refreshTokenCookie.setSecure(true);
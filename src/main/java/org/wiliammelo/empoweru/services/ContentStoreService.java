@@ -0,0 +1,166 @@
+package org.wiliammelo.empoweru.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.wiliammelo.empoweru.clients.FileUploader;
+import org.wiliammelo.empoweru.repositories.StoredBlobRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Service class storing video files by content.
+ * <p>
+ * Every stored file is recorded as a {@link org.wiliammelo.empoweru.models.StoredBlob} keyed by its SHA-256 digest,
+ * with the number of videos referencing it. Storing content that is already there adds a reference instead of a new
+ * blob, and a blob is deleted once its last reference is released. Blob names are random, so two files with the same
+ * original name no longer overwrite each other.</p>
+ * <p>
+ * A local file is hashed before anything is sent, so known content is never transferred again. A stream can only be
+ * hashed while it is uploaded; when it turns out to be known, the blob just uploaded is deleted again.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentStoreService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileUploader fileUploader;
+    private final StoredBlobRepository storedBlobRepository;
+
+    /**
+     * Stores a local file, uploading it only if no stored blob has the same content.
+     *
+     * @param contentType The content type of the file.
+     * @param file        The file to store.
+     * @return The stored content, with one more reference.
+     * @throws IOException If the file cannot be read or uploaded.
+     */
+    public StoredContent store(String contentType, Path file) throws IOException {
+        MessageDigest sha256 = sha256();
+        try (InputStream content = new DigestInputStream(Files.newInputStream(file), sha256)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (content.read(buffer) != -1) {
+                // Only hashing
+            }
+        }
+        String digest = HexFormat.of().formatHex(sha256.digest());
+
+        if (storedBlobRepository.addReference(digest) > 0) {
+            return new StoredContent(digest, storedBlobRepository.findUrlByDigest(digest).orElseThrow());
+        }
+
+        String name = newName(contentType);
+        String url;
+        try (InputStream content = Files.newInputStream(file)) {
+            url = fileUploader.upload(name, contentType, content);
+        }
+        return reference(digest, name, url);
+    }
+
+    /**
+     * Stores the content of a stream, hashing it while it is uploaded. The stream is read to its end but not closed.
+     *
+     * @param contentType The content type of the content.
+     * @param content     The content to store.
+     * @return The stored content, with one more reference.
+     * @throws IOException If the content cannot be read or uploaded.
+     */
+    public StoredContent store(String contentType, InputStream content) throws IOException {
+        MessageDigest sha256 = sha256();
+        String name = newName(contentType);
+        String url = fileUploader.upload(name, contentType, new DigestInputStream(content, sha256));
+        return reference(HexFormat.of().formatHex(sha256.digest()), name, url);
+    }
+
+    /**
+     * Releases a reference to stored content. The blob is deleted once the current transaction, if any, commits and
+     * nothing references it anymore.
+     *
+     * @param digest The digest of the content, or null for files stored before content addressing, which are left alone.
+     */
+    public void release(String digest) {
+        if (digest == null) {
+            return;
+        }
+        storedBlobRepository.removeReference(digest);
+        String name = storedBlobRepository.findNameByDigest(digest).orElse(null);
+        if (name != null && storedBlobRepository.deleteUnreferenced(digest) > 0) {
+            afterCommit(() -> delete(name));
+        }
+    }
+
+    /**
+     * Records an uploaded blob under its digest. If the content was stored meanwhile, by this upload's own content or
+     * by a concurrent one, the existing blob gets the reference and the one just uploaded is deleted.
+     */
+    private StoredContent reference(String digest, String name, String url) {
+        storedBlobRepository.insertOrAddReference(digest, name, url);
+        String storedName = storedBlobRepository.findNameByDigest(digest).orElseThrow();
+        if (!storedName.equals(name)) {
+            delete(name);
+            return new StoredContent(digest, storedBlobRepository.findUrlByDigest(digest).orElseThrow());
+        }
+        return new StoredContent(digest, url);
+    }
+
+    private void delete(String name) {
+        try {
+            fileUploader.delete(name);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not delete blob {}", name, e);
+        }
+    }
+
+    private static String newName(String contentType) {
+        String extension = "video/mkv".equals(contentType) ? ".mkv" : "video/mp4".equals(contentType) ? ".mp4" : "";
+        return UUID.randomUUID() + extension;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Content in storage: its digest, to be kept by whoever references it, and its URL.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class StoredContent {
+
+        private final String digest;
+        private final String url;
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.wiliammelo.empoweru.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.models.User;
+import org.wiliammelo.empoweru.models.UserRole;
+import org.wiliammelo.empoweru.repositories.CourseRepository;
+import org.wiliammelo.empoweru.repositories.UserRepository;
+
+import java.util.UUID;
+
+/**
+ * Service class answering the authorization checks of course, section, video and evaluation activity writes.
+ * <p>
+ * Course owners are kept in a bounded course to owner map. A course never changes owner, so entries only need to be
+ * added when a course is created and dropped when it is deleted; an ownership check then costs no query. The admin
+ * role is read from the authenticated principal, falling back to the database only when the requester is not the
+ * current principal.</p>
+ */
+@Service
+public class CourseAuthorizationService {
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final Cache<UUID, UUID> owners;
+
+    public CourseAuthorizationService(CourseRepository courseRepository,
+                                      UserRepository userRepository,
+                                      @Value("${security.course-owner-cache.maximum-size}") long maximumSize) {
+        this.courseRepository = courseRepository;
+        this.userRepository = userRepository;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Checks if a user is the owner of a course.
+     *
+     * @param courseId    The UUID of the course.
+     * @param requesterId The UUID of the user.
+     * @return true if the user is the professor owning the course, false otherwise.
+     */
+    public boolean isOwner(UUID courseId, UUID requesterId) {
+        UUID ownerId = owners.get(courseId, id -> courseRepository.findOwnerId(id).orElse(null));
+        return ownerId != null && ownerId.equals(requesterId);
+    }
+
+    /**
+     * Determines if a user has administrative privileges.
+     *
+     * @param requesterId The UUID of the user.
+     * @return true if the user is an admin, false otherwise.
+     */
+    public boolean isAdmin(UUID requesterId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user && requesterId.equals(user.getId())) {
+            return user.getRole() == UserRole.ADMIN;
+        }
+        return userRepository.isAdmin(requesterId);
+    }
+
+    /**
+     * Checks if a user may manage a course, either as its owner or as an admin.
+     *
+     * @param courseId    The UUID of the course.
+     * @param requesterId The UUID of the user.
+     * @return true if the user owns the course or is an admin, false otherwise.
+     */
+    public boolean canManage(UUID courseId, UUID requesterId) {
+        return isOwner(courseId, requesterId) || isAdmin(requesterId);
+    }
+
+    /**
+     * Records the owner of a new course.
+     *
+     * @param courseId The UUID of the course.
+     * @param ownerId  The UUID of the professor owning the course.
+     */
+    public void courseCreated(UUID courseId, UUID ownerId) {
+        owners.put(courseId, ownerId);
+    }
+
+    /**
+     * Forgets the owner of a deleted course.
+     *
+     * @param courseId The UUID of the course.
+     */
+    public void courseRemoved(UUID courseId) {
+        owners.invalidate(courseId);
+    }
+
+}
@@ -0,0 +1,176 @@
+package org.wiliammelo.empoweru.services;
+
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.models.CourseProgress;
+import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.models.VideoWatched;
+import org.wiliammelo.empoweru.repositories.CourseProgressRepository;
+import org.wiliammelo.empoweru.repositories.CourseRepository;
+import org.wiliammelo.empoweru.repositories.VideoRepository;
+import org.wiliammelo.empoweru.repositories.VideoWatchedRepository;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service class that maintains the per-student {@link CourseProgress} bitsets.
+ * <p>
+ * Every video gets a stable progress index within its course when it is created. Watching a video sets the matching
+ * bit in the student's progress row for that course, under a row lock, so concurrent marks never lose each other.</p>
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CourseProgressService {
+
+    private final CourseProgressRepository courseProgressRepository;
+    private final CourseRepository courseRepository;
+    private final VideoRepository videoRepository;
+    private final VideoWatchedRepository videoWatchedRepository;
+
+    /**
+     * Returns the videos a student watched in a course.
+     *
+     * @param studentId The UUID of the student.
+     * @param courseId  The UUID of the course.
+     * @return A bitset indexed by video progress index; empty if the student has not watched anything yet.
+     */
+    public BitSet findWatchedVideos(UUID studentId, UUID courseId) {
+        return courseProgressRepository.findByStudentIdAndCourseId(studentId, courseId)
+                .map(CourseProgress::getWatchedBits)
+                .orElseGet(() -> watchedVideosFromHistory(studentId, courseId));
+    }
+
+    /**
+     * Marks a video as watched by a student.
+     *
+     * @param studentId The UUID of the student.
+     * @param courseId  The UUID of the course the video belongs to.
+     * @param video     The watched video.
+     * @return true if the video was not marked as watched before.
+     */
+    @Transactional
+    public boolean markWatched(UUID studentId, UUID courseId, Video video) {
+        if (video.getProgressIndex() == null) {
+            return true;
+        }
+        boolean created = courseProgressRepository.insertIfAbsent(UUID.randomUUID(), studentId, courseId) > 0;
+        CourseProgress progress = courseProgressRepository.findForUpdate(studentId, courseId)
+                .orElseThrow(IllegalStateException::new);
+        if (created) {
+            progress.setWatchedVideos(watchedVideosFromHistory(studentId, courseId).toByteArray());
+        }
+        if (!progress.markWatched(video.getProgressIndex())) {
+            return false;
+        }
+        courseProgressRepository.save(progress);
+        return true;
+    }
+
+    /**
+     * Rebuilds the watched videos of a student in a course from their {@link VideoWatched} records, for students who
+     * watched videos before progress rows existed.
+     *
+     * @param studentId The UUID of the student.
+     * @param courseId  The UUID of the course.
+     * @return A bitset indexed by video progress index.
+     */
+    private BitSet watchedVideosFromHistory(UUID studentId, UUID courseId) {
+        BitSet bits = new BitSet();
+        List<UUID> videoIds = videoWatchedRepository.findAllByStudentIdAndCourseId(studentId, courseId).stream()
+                .map(VideoWatched::getVideoId)
+                .toList();
+        if (videoIds.isEmpty()) {
+            return bits;
+        }
+        for (Video video : videoRepository.findAllById(videoIds)) {
+            if (video.getProgressIndex() != null) {
+                bits.set(video.getProgressIndex());
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Hands out the next progress index of a course.
+     *
+     * @param courseId The UUID of the course.
+     * @return The progress index for a new video of the course.
+     */
+    @Transactional
+    public int nextProgressIndex(UUID courseId) {
+        courseRepository.advanceVideoSequence(courseId, 1);
+        return courseRepository.findVideoSequence(courseId) - 1;
+    }
+
+    /**
+     * Moves the watched mark of a video moved to another course, for the students who watched it. Students without
+     * progress in the new course yet get the video from their history once their progress is created.
+     *
+     * @param videoId     The UUID of the moved video.
+     * @param oldCourseId The UUID of the course the video left.
+     * @param oldIndex    The progress index the video had there, or null if it had none.
+     * @param newCourseId The UUID of the course the video joined.
+     * @param newIndex    The progress index of the video in the new course.
+     */
+    @Transactional
+    public void videoMoved(UUID videoId, UUID oldCourseId, Integer oldIndex, UUID newCourseId, int newIndex) {
+        if (oldIndex != null) {
+            List<CourseProgress> left = courseProgressRepository.findAllWatchedForUpdate(oldCourseId, videoId).stream()
+                    .filter(progress -> progress.unmarkWatched(oldIndex))
+                    .toList();
+            courseProgressRepository.saveAll(left);
+        }
+        List<CourseProgress> joined = courseProgressRepository.findAllWatchedForUpdate(newCourseId, videoId).stream()
+                .filter(progress -> progress.markWatched(newIndex))
+                .toList();
+        courseProgressRepository.saveAll(joined);
+    }
+
+    /**
+     * Removes the progress of every student in a deleted course.
+     *
+     * @param courseId The UUID of the deleted course.
+     */
+    public void courseRemoved(UUID courseId) {
+        courseProgressRepository.deleteAllByCourseId(courseId);
+    }
+
+    /**
+     * Assigns progress indexes to videos created before they existed, in display order within each course.
+     * Runs after {@link VideoOrderService#backfillSortKeys()}, as the display order comes from the sort keys.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    @Transactional
+    public void backfillProgressIndexes() {
+        List<Video> videos = videoRepository.findAllWithoutProgressIndex();
+        if (videos.isEmpty()) {
+            return;
+        }
+        log.info("Assigning progress indexes to {} videos", videos.size());
+
+        Map<UUID, List<Video>> videosByCourse = videos.stream()
+                .collect(Collectors.groupingBy(video -> video.getSection().getCourse().getId(), LinkedHashMap::new, Collectors.toList()));
+        videosByCourse.forEach((courseId, courseVideos) -> {
+            courseRepository.advanceVideoSequence(courseId, courseVideos.size());
+            int index = courseRepository.findVideoSequence(courseId) - courseVideos.size();
+            for (Video video : courseVideos) {
+                video.setProgressIndex(index++);
+            }
+            videoRepository.saveAll(courseVideos);
+        });
+    }
+
+}
@@ -1,29 +1,48 @@
 package org.wiliammelo.empoweru.services;
 
-import jakarta.transaction.Transactional;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.wiliammelo.empoweru.configuration.cache.CacheKeys;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
 import org.wiliammelo.empoweru.dtos.course.*;
+import org.wiliammelo.empoweru.dtos.section.AuthenticatedSectionDetailedDTO;
 import org.wiliammelo.empoweru.dtos.video.VideoWithStatusDTO;
+import org.wiliammelo.empoweru.events.CourseChangedEvent;
 import org.wiliammelo.empoweru.exceptions.*;
 import org.wiliammelo.empoweru.mappers.CourseMapper;
+import org.wiliammelo.empoweru.mappers.CourseSummaryMapper;
 import org.wiliammelo.empoweru.models.Course;
+import org.wiliammelo.empoweru.models.CourseSummary;
 import org.wiliammelo.empoweru.models.Professor;
 import org.wiliammelo.empoweru.models.Student;
-import org.wiliammelo.empoweru.models.VideoWatched;
 import org.wiliammelo.empoweru.repositories.*;
-
+import org.wiliammelo.empoweru.services.search.CourseSearchBackend;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing courses.
  * <p>
  * This class provides services for creating, retrieving, updating, and deleting courses. It interacts with the {@link CourseRepository},
- * {@link ProfessorRepository}, and {@link VideoRepository} to perform operations on {@link Course} entities.</p>
+ * {@link ProfessorRepository}, and {@link VideoRepository} to perform operations on {@link Course} entities.
+ * Catalog reads are served from the {@link CourseSummary} read model maintained by {@link CourseSummaryService}.</p>
  */
 @Service
 @AllArgsConstructor
@@ -32,10 +51,23 @@ public class CourseService {
     private final CourseRepository courseRepository;
     private final ProfessorRepository professorRepository;
     private final VideoRepository videoRepository;
-    private final UserRepository userRepository;
+    private final ContentStoreService contentStoreService;
+    private final CourseAuthorizationService courseAuthorizationService;
     private final StudentRepository studentRepository;
     private final VideoWatchedRepository videoWatchedRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final CourseSummaryService courseSummaryService;
+    private final CourseProgressService courseProgressService;
+    private final ObjectMapper objectMapper;
+    private final CourseSearchBackend courseSearchBackend;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TwoLevelCacheManager cacheManager;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final char CURSOR_SEPARATOR = '\n';
+    private static final String FIRST_PAGE_TITLE = "";
+    private static final UUID FIRST_PAGE_ID = new UUID(0L, 0L);
 
     /**
      * Creates a new course based on the provided {@link CreateCourseDTO} object.
@@ -45,7 +77,6 @@ public class CourseService {
      * @return The created course as a {@link CourseDTO}.
      * @throws UserNotFoundException if the professor with the specified ID does not exist.
      */
-    @CacheEvict(value = "course", allEntries = true)
     @Transactional
     public CourseDTO create(CreateCourseDTO createCourseDTO, UUID studentId) throws UserNotFoundException {
         Professor professor = this.professorRepository.findById(studentId)
@@ -53,28 +84,90 @@ public class CourseService {
 
         Course course = CourseMapper.INSTANCE.toCourse(createCourseDTO);
         course.setProfessor(professor);
-        return CourseMapper.INSTANCE.toCourseDto(this.courseRepository.save(course));
+        Course savedCourse = this.courseRepository.save(course);
+        this.courseSummaryService.refreshCourse(savedCourse);
+        this.courseAuthorizationService.courseCreated(savedCourse.getId(), professor.getId());
+        this.eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId()));
+        this.cacheManager.evictTags(CacheKeys.CATALOG_TAG);
+        return CourseMapper.INSTANCE.toCourseDto(savedCourse);
     }
 
     /**
-     * Retrieves all courses from the repository.
+     * Retrieves all courses from the course summary read model.
      *
-     * @return A list of {@link CourseDTO} representing all courses in the repository.
+     * @return A list of {@link CourseDTO} representing all courses, ordered by title.
      */
-    @Cacheable(value = "course", key = "#root.method.name")
+    @Cacheable(value = "course", key = "@cacheKeys.catalog(#root.method.name)", sync = true)
     public List<CourseDTO> findAll() {
-        List<Course> courseList = (List<Course>) this.courseRepository.findAll();
-
-        return courseList.stream()
-                .map(course -> {
-                    CourseDTO dto = CourseMapper.INSTANCE.toCourseDto(course);
-                    dto.setVideosCount(course.getSections().stream().mapToInt(s -> s.getVideos().size()).sum());
-                    dto.setDurationInSeconds(this.getTotalDurationInSeconds(course));
-                    return dto;
-                })
+        return this.courseSummaryService.findAll().stream()
+                .map(CourseSummaryMapper.INSTANCE::toCourseDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves one page of the catalog using keyset pagination.
+     * <p>
+     * Pages are ordered by title and continue from an opaque cursor returned with the previous page, so every page
+     * costs the same regardless of its depth. Title and tags filters behave like {@link #findByTitle(String)},
+     * {@link #findByTags(List)} and {@link #findByTitleAndTags(String, List)}.</p>
+     *
+     * @param title  The title to search for in course titles, or null.
+     * @param tags   The list of tags to search for in course tags, or null.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param limit  The maximum number of courses in the page; out of range values are clamped.
+     * @return A {@link CoursePageDTO} with the courses of the page and the cursor of the next one, if any.
+     * @throws InvalidCursorException if the cursor cannot be decoded.
+     */
+    public CoursePageDTO findPage(String title, List<String> tags, String cursor, Integer limit) throws InvalidCursorException {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String afterTitle = FIRST_PAGE_TITLE;
+        UUID afterId = FIRST_PAGE_ID;
+        if (cursor != null && !cursor.isEmpty()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            afterTitle = decoded.substring(0, separator);
+            afterId = parseCursorId(decoded.substring(separator + 1));
+        }
+
+        List<CourseSummary> summaries = this.courseSummaryService.findPage(title, tags, afterTitle, afterId, pageSize + 1);
+
+        boolean hasNext = summaries.size() > pageSize;
+        List<CourseSummary> page = hasNext ? summaries.subList(0, pageSize) : summaries;
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        return new CoursePageDTO(page.stream().map(CourseSummaryMapper.INSTANCE::toCourseDto).collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Writes the whole catalog as a JSON array of {@link CourseDTO} to the given stream.
+     * Courses are read from the database in batches and written one by one, so memory usage stays flat no matter
+     * how large the catalog is.
+     *
+     * @param outputStream The stream to write the catalog to.
+     * @throws IOException if writing to the stream fails.
+     */
+    public void streamCatalog(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream);
+        generator.writeStartArray();
+        try {
+            this.courseSummaryService.forEachSummary(summary -> {
+                try {
+                    generator.writeObject(CourseSummaryMapper.INSTANCE.toCourseDto(summary));
+                } catch (IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+            });
+        } catch (UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
     /**
      * Finds a course by its ID.
      *
@@ -82,19 +175,19 @@ public class CourseService {
      * @return The found course as a {@link CourseDTO}.
      * @throws CourseNotFoundException if the course with the specified ID does not exist.
      */
-    @Cacheable(value = "course", key = "#id.toString()+#includeDetails")
+    @Cacheable(value = "course", key = "@cacheKeys.course(#id, #includeDetails)", sync = true)
+    @Transactional(readOnly = true)
     public Object findByIdPublic(UUID id, boolean includeDetails) throws CourseNotFoundException {
+        if (!includeDetails) {
+            return this.courseSummaryService.findById(id)
+                    .map(CourseSummaryMapper.INSTANCE::toCourseDto)
+                    .orElseThrow(CourseNotFoundException::new);
+        }
+
         Course course = this.courseRepository.findById(id)
                 .orElseThrow(CourseNotFoundException::new);
 
-        if (includeDetails) {
-            PublicCourseDetailedDTO dto = CourseMapper.INSTANCE.toPublicCourseDetailedDto(course);
-            dto.setVideosCount(this.getTotalVideosCount(course));
-            dto.setDurationInSeconds(this.getTotalDurationInSeconds(course));
-            return dto;
-        }
-
-        CourseDTO dto = CourseMapper.INSTANCE.toCourseDto(course);
+        PublicCourseDetailedDTO dto = CourseMapper.INSTANCE.toPublicCourseDetailedDto(course);
         dto.setVideosCount(this.getTotalVideosCount(course));
         dto.setDurationInSeconds(this.getTotalDurationInSeconds(course));
         return dto;
@@ -109,7 +202,8 @@ public class CourseService {
      * @throws CourseNotFoundException if the course with the specified ID does not exist.
      * @throws UserNotFoundException   if the student with the specified ID does not exist.
      */
-    @Cacheable(value = "course", key = "#id.toString()+#studentId.toString()")
+    @Cacheable(value = "course", key = "@cacheKeys.courseForStudent(#id, #studentId)", sync = true)
+    @Transactional(readOnly = true)
     public Object findByIdAuthenticated(UUID id, UUID studentId) throws CourseNotFoundException, UserNotFoundException {
         Student student = this.studentRepository.findById(studentId)
                 .orElseThrow(StudentNotFoundException::new);
@@ -117,54 +211,98 @@ public class CourseService {
         Course course = this.courseRepository.findById(id)
                 .orElseThrow(CourseNotFoundException::new);
 
-        List<VideoWatched> videoWatchedList = videoWatchedRepository.findAllByStudentId(student.getId());
+        BitSet watchedVideos = courseProgressService.findWatchedVideos(student.getId(), course.getId());
 
         AuthenticatedCourseDetailedDTO dto = CourseMapper.INSTANCE.toAuthenticatedCourseDetailedDTO(course);
         dto.setVideosCount(this.getTotalVideosCount(course));
         dto.setDurationInSeconds(this.getTotalDurationInSeconds(course));
-        dto.getSections().forEach(section -> section.getVideos().forEach(video -> markVideoWatchedStatus(video, videoWatchedList)));
+
+        int totalVideos = 0;
+        int watchedCount = 0;
+        for (AuthenticatedSectionDetailedDTO section : dto.getSections()) {
+            for (VideoWithStatusDTO video : section.getVideos()) {
+                totalVideos++;
+                if (markVideoWatchedStatus(video, watchedVideos)) {
+                    watchedCount++;
+                }
+            }
+        }
+        dto.setCompletionPercentage(totalVideos == 0 ? 0 : watchedCount * 100.0 / totalVideos);
         dto.setEnrolled(enrollmentRepository.isStudentEnrolled(id, student.getId()));
 
         return dto;
     }
 
     /**
-     * Finds courses by title.
+     * Computes the progress of a student in a course with a single aggregate query, without loading the course.
+     *
+     * @param id        The UUID of the course.
+     * @param studentId The UUID of the authenticated student.
+     * @return A {@link CourseProgressDTO} with the watched and total counts of the ready videos.
+     * @throws CourseNotFoundException if the course with the specified ID does not exist.
+     */
+    @Cacheable(value = "course", key = "@cacheKeys.courseProgress(#id, #studentId)", sync = true)
+    public CourseProgressDTO findProgress(UUID id, UUID studentId) throws CourseNotFoundException {
+        if (!this.courseRepository.existsById(id)) {
+            throw new CourseNotFoundException();
+        }
+        return this.videoWatchedRepository.findProgress(studentId, id);
+    }
+
+    /**
+     * Finds courses by title, using the configured {@link CourseSearchBackend}.
      *
      * @param title The title to search for in course titles.
      * @return A list of {@link CourseDTO} objects that match the title criteria.
      */
-    @Cacheable(value = "course", key = "#title")
+    @Cacheable(value = "course", key = "@cacheKeys.catalog('title', #title)", sync = true)
     public List<CourseDTO> findByTitle(String title) {
-        List<Course> courseList = this.courseRepository.findByTitleContainingIgnoreCase(title);
-        return courseList.stream().map(CourseMapper.INSTANCE::toCourseDto).collect(Collectors.toList());
+        return toCourseDtos(this.courseSearchBackend.search(title, null, 0, Integer.MAX_VALUE));
     }
 
     /**
-     * Finds courses by tags.
+     * Finds courses by tags, using the configured {@link CourseSearchBackend}.
      *
      * @param tags The list of tags to search for in course tags.
      * @return A list of {@link CourseDTO} objects that match the tags criteria.
      */
-    @Cacheable(value = "course", key = "#tags")
+    @Cacheable(value = "course", key = "@cacheKeys.catalog('tags', #tags)", sync = true)
     public List<CourseDTO> findByTags(List<String> tags) {
-        List<String> tagsInLowerCase = tags.stream().map(String::toLowerCase).toList();
-        List<Course> courseList = this.courseRepository.findByTagsContainingIgnoreCase(tagsInLowerCase);
-        return courseList.stream().map(CourseMapper.INSTANCE::toCourseDto).collect(Collectors.toList());
+        return toCourseDtos(this.courseSearchBackend.search(null, tags, 0, Integer.MAX_VALUE));
     }
 
     /**
-     * Finds courses by title and tags.
+     * Finds courses by title and tags, using the configured {@link CourseSearchBackend}.
      *
      * @param title The title to search for in course titles.
      * @param tags  The list of tags to search for in course tags.
      * @return A list of {@link CourseDTO} objects that match the title and tags criteria.
      */
-    @Cacheable(value = "course", key = "#title + '|' + T(java.util.Objects).hash(#tags.stream().sorted().join(','))")
+    @Cacheable(value = "course", key = "@cacheKeys.catalog('titleAndTags', #title, #tags)", sync = true)
     public List<CourseDTO> findByTitleAndTags(String title, List<String> tags) {
-        List<String> tagsInLowerCase = tags.stream().map(String::toLowerCase).toList();
-        List<Course> courseList = this.courseRepository.findByTitleContainingIgnoreCaseAndTagsContainingIgnoreCase(title, tagsInLowerCase);
-        return courseList.stream().map(CourseMapper.INSTANCE::toCourseDto).collect(Collectors.toList());
+        return toCourseDtos(this.courseSearchBackend.search(title, tags, 0, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Searches courses by title and/or tags, one page at a time, ordered by relevance as defined by the configured
+     * {@link CourseSearchBackend}.
+     *
+     * @param title The text to search for, or null to search by tags only.
+     * @param tags  The tags to search for, or null to search by title only.
+     * @param page  The zero-based page number; defaults to the first page.
+     * @param size  The page size; defaults to {@value #DEFAULT_PAGE_SIZE} and is capped at {@value #MAX_PAGE_SIZE}.
+     * @return The {@link CourseDTO} objects of the requested page, most relevant first.
+     */
+    public List<CourseDTO> search(String title, List<String> tags, Integer page, Integer size) {
+        boolean hasTitle = title != null && !title.isBlank();
+        boolean hasTags = tags != null && !tags.isEmpty();
+        if (!hasTitle && !hasTags) {
+            return List.of();
+        }
+
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        int offset = page == null || page < 0 ? 0 : page * pageSize;
+        return toCourseDtos(this.courseSearchBackend.search(title, tags, offset, pageSize));
     }
 
     /**
@@ -176,18 +314,12 @@ public class CourseService {
      * @return The updated course details as a {@link CourseDTO}.
      * @throws CourseNotFoundException if the course with the specified ID does not exist.
      */
-    @CacheEvict(value = "course", allEntries = true)
+    @Transactional
     public CourseDTO update(UUID courseId, UpdateCourseDTO updateCourseDTO, UUID requesterId) throws CourseNotFoundException, UnauthorizedException, ProfessorNotFoundException {
         Course course = this.courseRepository.findById(courseId)
                 .orElseThrow(CourseNotFoundException::new);
-        Professor professor = professorRepository.findById(requesterId)
-                .orElseThrow(ProfessorNotFoundException::new);
 
-        if (professor != null && isTheOwner(courseId, professor.getId())) {
-            return updateProcess(course, updateCourseDTO);
-        }
-
-        if (isAdmin(requesterId)) {
+        if (this.courseAuthorizationService.canManage(courseId, requesterId)) {
             return updateProcess(course, updateCourseDTO);
         }
 
@@ -206,7 +338,11 @@ public class CourseService {
         course.setTitle(updateCourseDTO.getTitle());
         course.setTags(updateCourseDTO.getTags());
 
-        return CourseMapper.INSTANCE.toCourseDto(this.courseRepository.save(course));
+        Course savedCourse = this.courseRepository.save(course);
+        this.courseSummaryService.refreshCourse(savedCourse);
+        this.eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId()));
+        this.cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(savedCourse.getId()));
+        return CourseMapper.INSTANCE.toCourseDto(savedCourse);
     }
 
     /**
@@ -218,19 +354,12 @@ public class CourseService {
      * @throws CourseNotFoundException if the course with the specified ID does not exist.
      * @throws UnauthorizedException   if the requester is not authorized to delete the course.
      */
-    @CacheEvict(value = "course", allEntries = true)
     @Transactional
     public String delete(UUID courseId, UUID requesterId) throws CourseNotFoundException, UnauthorizedException, ProfessorNotFoundException {
         Course course = this.courseRepository.findById(courseId)
                 .orElseThrow(CourseNotFoundException::new);
-        Professor professor = professorRepository.findById(requesterId)
-                .orElseThrow(ProfessorNotFoundException::new);
-
-        if (professor != null && isTheOwner(courseId, professor.getId())) {
-            return deleteProcess(course);
-        }
 
-        if (isAdmin(requesterId)) {
+        if (this.courseAuthorizationService.canManage(courseId, requesterId)) {
             return deleteProcess(course);
         }
 
@@ -238,14 +367,20 @@ public class CourseService {
     }
 
     /**
-     * Deletes the specified course and associated videos from the database.
+     * Deletes the specified course and associated videos from the database, releasing their stored files.
      *
      * @param course The course entity to delete.
      * @return A confirmation message indicating the course has been successfully deleted.
      */
     private String deleteProcess(Course course) {
+        this.videoRepository.findContentDigestsByCourse(course).forEach(this.contentStoreService::release);
         this.videoRepository.deleteAllByCourse(course);
+        this.courseSummaryService.courseRemoved(course.getId());
+        this.courseProgressService.courseRemoved(course.getId());
         this.courseRepository.delete(course);
+        this.courseAuthorizationService.courseRemoved(course.getId());
+        this.eventPublisher.publishEvent(new CourseChangedEvent(course.getId()));
+        this.cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(course.getId()));
         return "Course with id: " + course.getId() + " deleted successfully.";
     }
 
@@ -258,7 +393,7 @@ public class CourseService {
      * @throws CourseNotFoundException if the course with the specified ID does not exist.
      * @throws UserNotFoundException   if the student with the specified ID does not exist.
      */
-    @CacheEvict(value = "course", key = "#courseId.toString()+#studentId.toString()")
+    @CacheEvict(value = "course", key = "@cacheKeys.courseForStudent(#courseId, #studentId)")
     public String enroll(UUID courseId, UUID studentId) throws CourseNotFoundException, UserNotFoundException, UserAlreadyEnrolledException {
         Course course = this.courseRepository.findById(courseId)
                 .orElseThrow(CourseNotFoundException::new);
@@ -286,7 +421,7 @@ public class CourseService {
      * @throws UserNotFoundException    if the student with the specified ID does not exist.
      * @throws UserNotEnrolledException if the student is not enrolled in the course.
      */
-    @CacheEvict(value = "course", key = "#courseId.toString()+#studentId.toString()")
+    @CacheEvict(value = "course", key = "@cacheKeys.courseForStudent(#courseId, #studentId)")
     public String disenroll(UUID courseId, UUID studentId) throws CourseNotFoundException, UserNotFoundException, UserNotEnrolledException {
         Course course = this.courseRepository.findById(courseId)
                 .orElseThrow(CourseNotFoundException::new);
@@ -305,62 +440,104 @@ public class CourseService {
     }
 
     /**
-     * Checks if the specified user is the owner of the course.
+     * Returns the total number of videos in a course, read from its summary when available.
      *
-     * @param courseId    The UUID of the course to check ownership for.
-     * @param requesterId The UUID of the user to verify as the owner.
-     * @return true if the requesterId matches the owner of the course, false otherwise.
+     * @param course The course to count videos from.
+     * @return The total number of videos in the course.
      */
-    private boolean isTheOwner(UUID courseId, UUID requesterId) {
-        return this.courseRepository.isTheOwner(courseId, requesterId);
+    private int getTotalVideosCount(Course course) {
+        return this.courseSummaryService.findById(course.getId())
+                .map(CourseSummary::getVideosCount)
+                .orElseGet(() -> course.getSections().stream()
+                        .mapToInt(section -> section.getVideos().size())
+                        .sum());
     }
 
     /**
-     * Determines if the specified user has administrative privileges.
+     * Returns the total duration of all videos in the course in seconds, read from its summary when available.
      *
-     * @param userId The UUID of the user to check for administrative privileges.
-     * @return true if the user has administrative privileges, false otherwise.
+     * @param course The course to calculate duration from.
+     * @return The total duration in seconds.
      */
-    private boolean isAdmin(UUID userId) {
-        return this.userRepository.isAdmin(userId);
+    private long getTotalDurationInSeconds(Course course) {
+        return this.courseSummaryService.findById(course.getId())
+                .map(CourseSummary::getDurationInSeconds)
+                .orElseGet(() -> course.getSections().stream()
+                        .mapToLong(section -> section.getVideos().stream()
+                                .mapToLong(video -> (long) video.getDurationInSeconds())
+                                .sum())
+                        .sum());
     }
 
     /**
-     * Returns the total number of videos in a course.
+     * Loads the summaries of the given courses and converts them to {@link CourseDTO} objects, keeping the order
+     * of the given UUIDs.
      *
-     * @param course The course to count videos from.
-     * @return The total number of videos in the course.
+     * @param courseIds The UUIDs of the courses.
+     * @return The courses as {@link CourseDTO} objects.
      */
-    private int getTotalVideosCount(Course course) {
-        return course.getSections().stream()
-                .mapToInt(section -> section.getVideos().size())
-                .sum();
+    private List<CourseDTO> toCourseDtos(List<UUID> courseIds) {
+        Map<UUID, CourseSummary> summaries = this.courseSummaryService.findAllById(courseIds).stream()
+                .collect(Collectors.toMap(CourseSummary::getCourseId, Function.identity()));
+        return courseIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .map(CourseSummaryMapper.INSTANCE::toCourseDto)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Returns the total duration of all videos in the course in seconds.
+     * Encodes the keyset position of a summary as an opaque cursor.
      *
-     * @param course The course to calculate duration from.
-     * @return The total duration in seconds.
+     * @param summary The last summary of a page.
+     * @return The URL-safe cursor pointing right after the summary.
      */
-    private long getTotalDurationInSeconds(Course course) {
-        return course.getSections().stream()
-                .mapToLong(section -> section.getVideos().stream()
-                        .mapToLong(video -> (long) video.getDurationInSeconds())
-                        .sum())
-                .sum();
+    private String encodeCursor(CourseSummary summary) {
+        String position = summary.getTitle() + CURSOR_SEPARATOR + summary.getCourseId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor into its keyset position.
+     *
+     * @param cursor The cursor to decode.
+     * @return The decoded keyset position.
+     * @throws InvalidCursorException if the cursor is not valid Base64.
+     */
+    private String decodeCursor(String cursor) throws InvalidCursorException {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Parses the course id part of a decoded cursor.
+     *
+     * @param id The course id part of the cursor.
+     * @return The parsed UUID.
+     * @throws InvalidCursorException if the id is not a valid UUID.
+     */
+    private UUID parseCursorId(String id) throws InvalidCursorException {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new InvalidCursorException();
+        }
     }
 
     /**
-     * Marks a video watched status based on the provided list of watched videos.
+     * Marks a video watched status based on the student's progress bitset for the course.
      *
      * @param video         The video to mark.
-     * @param videosWatched The list of watched videos.
+     * @param watchedVideos The watched videos, indexed by progress index.
+     * @return true if the video was watched.
      */
-    private void markVideoWatchedStatus(VideoWithStatusDTO video, List<VideoWatched> videosWatched) {
-        boolean isWatched = videosWatched.stream()
-                .anyMatch(vw -> vw.getVideoId().equals(video.getId()));
+    private boolean markVideoWatchedStatus(VideoWithStatusDTO video, BitSet watchedVideos) {
+        boolean isWatched = video.getProgressIndex() != null && watchedVideos.get(video.getProgressIndex());
         video.setWatched(isWatched);
+        return isWatched;
     }
 
 }
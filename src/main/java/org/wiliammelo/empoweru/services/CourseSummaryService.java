@@ -0,0 +1,274 @@
+package org.wiliammelo.empoweru.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.models.*;
+import org.wiliammelo.empoweru.repositories.CourseRepository;
+import org.wiliammelo.empoweru.repositories.CourseSummaryRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service class that maintains the {@link CourseSummary} read model.
+ * <p>
+ * Summaries are updated incrementally whenever a course, section or video changes, so catalog reads never need to
+ * walk the course entity graph. Missing summaries (e.g. for courses created before the read model existed) are
+ * rebuilt once at startup.</p>
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CourseSummaryService {
+
+    private final CourseSummaryRepository courseSummaryRepository;
+    private final CourseRepository courseRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Finds the summary of a course.
+     *
+     * @param courseId The UUID of the course.
+     * @return The summary, or an empty optional if the course has none.
+     */
+    public Optional<CourseSummary> findById(UUID courseId) {
+        return courseSummaryRepository.findById(courseId);
+    }
+
+    /**
+     * Finds the summaries of the given courses.
+     *
+     * @param courseIds The UUIDs of the courses.
+     * @return The summaries found, ordered by title.
+     */
+    public List<CourseSummary> findAllById(Collection<UUID> courseIds) {
+        if (courseIds.isEmpty()) {
+            return List.of();
+        }
+        return courseSummaryRepository.findAllByCourseIdInOrderByTitleAscCourseIdAsc(courseIds);
+    }
+
+    /**
+     * Retrieves all summaries ordered by title.
+     *
+     * @return A list with the summary of every course.
+     */
+    public List<CourseSummary> findAll() {
+        return courseSummaryRepository.findAllByOrderByTitleAscCourseIdAsc();
+    }
+
+    /**
+     * Retrieves one page of summaries ordered by title, starting strictly after the given keyset position.
+     * Title and tags filters are optional and combined when both are present.
+     *
+     * @param title      The text to search for in course titles, or null to skip title filtering.
+     * @param tags       The tags to search for, or null to skip tag filtering.
+     * @param afterTitle The title of the last summary of the previous page.
+     * @param afterId    The course id of the last summary of the previous page.
+     * @param limit      The maximum number of summaries to return.
+     * @return The summaries of the requested page.
+     */
+    public List<CourseSummary> findPage(String title, List<String> tags, String afterTitle, UUID afterId, int limit) {
+        boolean hasTitle = title != null && !title.isEmpty();
+        boolean hasTags = tags != null && !tags.isEmpty();
+
+        if (hasTitle && hasTags) {
+            return courseSummaryRepository.findPageByTitleAndTags(title, toLowerCase(tags), afterTitle, afterId, limit);
+        }
+        if (hasTitle) {
+            return courseSummaryRepository.findPageByTitle(title, afterTitle, afterId, limit);
+        }
+        if (hasTags) {
+            return courseSummaryRepository.findPageByTags(toLowerCase(tags), afterTitle, afterId, limit);
+        }
+        return courseSummaryRepository.findPage(afterTitle, afterId, limit);
+    }
+
+    /**
+     * Iterates over every summary ordered by title, fetching rows from the database in batches.
+     * Each summary is detached once consumed, so memory usage does not grow with the catalog size.
+     *
+     * @param consumer The consumer receiving each summary.
+     */
+    @Transactional
+    public void forEachSummary(Consumer<CourseSummary> consumer) {
+        try (Stream<CourseSummary> summaries = courseSummaryRepository.streamAll()) {
+            summaries.forEach(summary -> {
+                consumer.accept(summary);
+                entityManager.detach(summary);
+            });
+        }
+    }
+
+    /**
+     * Creates or refreshes the descriptive part of a course summary (title, description, tags and professor card).
+     * Counters are preserved for existing summaries and computed from the course for new ones.
+     *
+     * @param course The course whose summary should be refreshed.
+     */
+    @Transactional
+    public void refreshCourse(Course course) {
+        CourseSummary summary = courseSummaryRepository.findById(course.getId())
+                .orElseGet(() -> newSummary(course));
+
+        summary.setTitle(course.getTitle());
+        summary.setDescription(course.getDescription());
+        summary.setTags(course.getTags() == null ? new ArrayList<>() : new ArrayList<>(course.getTags()));
+        applyProfessorCard(summary, course.getProfessor());
+
+        courseSummaryRepository.save(summary);
+    }
+
+    /**
+     * Removes the summary of a deleted course.
+     *
+     * @param courseId The UUID of the deleted course.
+     */
+    public void courseRemoved(UUID courseId) {
+        courseSummaryRepository.deleteById(courseId);
+    }
+
+    /**
+     * Accounts for a video added to a course.
+     *
+     * @param courseId          The UUID of the course the video belongs to.
+     * @param durationInSeconds The duration of the added video.
+     */
+    public void videoAdded(UUID courseId, double durationInSeconds) {
+        courseSummaryRepository.applyVideoDelta(courseId, 1, (long) durationInSeconds);
+    }
+
+    /**
+     * Accounts for a video removed from a course.
+     *
+     * @param courseId          The UUID of the course the video belonged to.
+     * @param durationInSeconds The duration of the removed video.
+     */
+    public void videoRemoved(UUID courseId, double durationInSeconds) {
+        courseSummaryRepository.applyVideoDelta(courseId, -1, -(long) durationInSeconds);
+    }
+
+    /**
+     * Accounts for a video that was updated, possibly moving to a section of another course.
+     *
+     * @param oldCourseId   The UUID of the course the video belonged to before the update.
+     * @param oldDuration   The duration of the video before the update.
+     * @param newCourseId   The UUID of the course the video belongs to after the update.
+     * @param newDuration   The duration of the video after the update.
+     */
+    public void videoUpdated(UUID oldCourseId, double oldDuration, UUID newCourseId, double newDuration) {
+        if (oldCourseId.equals(newCourseId)) {
+            long delta = (long) newDuration - (long) oldDuration;
+            if (delta != 0) {
+                courseSummaryRepository.applyVideoDelta(newCourseId, 0, delta);
+            }
+            return;
+        }
+        videoRemoved(oldCourseId, oldDuration);
+        videoAdded(newCourseId, newDuration);
+    }
+
+    /**
+     * Accounts for a section removed from a course, together with all of its videos.
+     *
+     * @param section The removed section.
+     */
+    public void sectionRemoved(Section section) {
+        List<Video> videos = section.getVideos();
+        if (videos == null || videos.isEmpty()) {
+            return;
+        }
+        long duration = videos.stream().mapToLong(video -> (long) video.getDurationInSeconds()).sum();
+        courseSummaryRepository.applyVideoDelta(section.getCourse().getId(), -videos.size(), -duration);
+    }
+
+    /**
+     * Propagates changes on a professor profile to the summaries of their courses.
+     *
+     * @param professor The updated professor.
+     */
+    public void professorUpdated(Professor professor) {
+        courseSummaryRepository.updateProfessorCard(professor.getId(), professor.getName(), professor.getEmail(),
+                professor.getGender(), professor.getBio(), professor.getImageUrl());
+    }
+
+    /**
+     * Builds the summary of every course that does not have one yet.
+     * This walks the course entity graph once per missing summary and is only needed after the read model is introduced.
+     * It runs before any other startup listener, so components built from summaries see every course.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void rebuildMissing() {
+        List<Course> courses = courseRepository.findAllWithoutSummary();
+        if (courses.isEmpty()) {
+            return;
+        }
+        log.info("Building course summaries for {} courses", courses.size());
+        courses.forEach(this::refreshCourse);
+    }
+
+    /**
+     * Creates a summary for a course, computing its counters from the course sections and videos.
+     *
+     * @param course The course to summarize.
+     * @return The new, unsaved summary.
+     */
+    private CourseSummary newSummary(Course course) {
+        CourseSummary summary = new CourseSummary();
+        summary.setCourseId(course.getId());
+
+        if (course.getSections() != null) {
+            course.getSections().stream()
+                    .filter(section -> section.getVideos() != null)
+                    .flatMap(section -> section.getVideos().stream())
+                    .forEach(video -> {
+                        summary.setVideosCount(summary.getVideosCount() + 1);
+                        summary.setDurationInSeconds(summary.getDurationInSeconds() + (long) video.getDurationInSeconds());
+                    });
+        }
+        return summary;
+    }
+
+    /**
+     * Converts a list of tags to lower case.
+     *
+     * @param tags The tags to convert.
+     * @return The tags in lower case.
+     */
+    private List<String> toLowerCase(List<String> tags) {
+        return tags.stream().map(String::toLowerCase).toList();
+    }
+
+    /**
+     * Copies the professor card fields into a summary.
+     *
+     * @param summary   The summary to fill.
+     * @param professor The professor teaching the course.
+     */
+    private void applyProfessorCard(CourseSummary summary, Professor professor) {
+        if (professor == null) {
+            return;
+        }
+        summary.setProfessorId(professor.getId());
+        summary.setProfessorName(professor.getName());
+        summary.setProfessorEmail(professor.getEmail());
+        summary.setProfessorGender(professor.getGender());
+        summary.setProfessorBio(professor.getBio());
+        summary.setProfessorImageUrl(professor.getImageUrl());
+    }
+
+}
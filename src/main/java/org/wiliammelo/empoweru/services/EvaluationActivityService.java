@@ -10,7 +10,6 @@ import org.wiliammelo.empoweru.exceptions.SectionNotFoundException;
 import org.wiliammelo.empoweru.exceptions.UnauthorizedException;
 import org.wiliammelo.empoweru.mappers.EvaluationActivityMapper;
 import org.wiliammelo.empoweru.models.EvaluationActivity;
-import org.wiliammelo.empoweru.models.Professor;
 import org.wiliammelo.empoweru.models.Section;
 import org.wiliammelo.empoweru.repositories.*;
 
@@ -23,9 +22,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class EvaluationActivityService {
 
-    private final ProfessorRepository professorRepository;
+    private final CourseAuthorizationService courseAuthorizationService;
     private final EvaluationActivityRepository evaluationActivityRepository;
-    private final CourseRepository courseRepository;
     private final SectionRepository sectionRepository;
     private QuestionRepository questionRepository;
     private QuestionOptionRepository questionOptionRepository;
@@ -46,7 +44,7 @@ public class EvaluationActivityService {
         Section section = sectionRepository.findById(UUID.fromString(createEvaluationActivityDTO.getSectionId()))
                 .orElseThrow(SectionNotFoundException::new);
 
-        if (!isTheOwner(requesterId, section.getCourse().getId())) {
+        if (!courseAuthorizationService.isOwner(section.getCourse().getId(), requesterId)) {
             throw new UnauthorizedException("You are not the owner of the course");
         }
 
@@ -61,17 +59,4 @@ public class EvaluationActivityService {
         return evaluationActivityRepository.save(evaluationActivity);
     }
 
-    /**
-     * Checks if the specified requester is the owner of the course.
-     *
-     * @param requesterId The UUID of the requester.
-     * @param courseId    The UUID of the course to check ownership for.
-     * @return true if the requester is the owner of the course, false otherwise.
-     */
-    private boolean isTheOwner(UUID requesterId, UUID courseId) throws ProfessorNotFoundException {
-        Professor professor = professorRepository.findById(requesterId)
-                .orElseThrow(ProfessorNotFoundException::new);
-        return courseRepository.isTheOwner(courseId, professor.getId());
-    }
-
 }
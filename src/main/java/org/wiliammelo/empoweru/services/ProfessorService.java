@@ -4,13 +4,18 @@ import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.configuration.cache.CacheKeys;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
+import org.wiliammelo.empoweru.configuration.security.PrincipalCache;
 import org.wiliammelo.empoweru.dtos.professor.ProfessorDTO;
 import org.wiliammelo.empoweru.dtos.professor.UpdateProfessorDTO;
 import org.wiliammelo.empoweru.exceptions.ProfessorNotFoundException;
 import org.wiliammelo.empoweru.exceptions.UserNotFoundException;
 import org.wiliammelo.empoweru.mappers.ProfessorMapper;
 import org.wiliammelo.empoweru.models.Professor;
+import org.wiliammelo.empoweru.repositories.CourseRepository;
 import org.wiliammelo.empoweru.repositories.ProfessorRepository;
 
 import java.util.List;
@@ -28,6 +33,10 @@ import java.util.stream.Collectors;
 public class ProfessorService {
 
     private final ProfessorRepository professorRepository;
+    private final CourseRepository courseRepository;
+    private final CourseSummaryService courseSummaryService;
+    private final TwoLevelCacheManager cacheManager;
+    private final PrincipalCache principalCache;
 
     /**
      * Finds a professor by their ID.
@@ -36,7 +45,7 @@ public class ProfessorService {
      * @return The found professor as a {@link ProfessorDTO}.
      * @throws ProfessorNotFoundException if the professor with the specified ID does not exist.
      */
-    @Cacheable(value = "professor", key = "#id")
+    @Cacheable(value = "professor", key = "#id", sync = true)
     public ProfessorDTO findById(UUID id) throws ProfessorNotFoundException {
         Professor professor = this.professorRepository.findById(id)
                 .orElseThrow(ProfessorNotFoundException::new);
@@ -48,7 +57,7 @@ public class ProfessorService {
      *
      * @return A list of {@link ProfessorDTO} representing all professors in the repository.
      */
-    @Cacheable(value = "professor", key = "#root.method.name")
+    @Cacheable(value = "professor", key = "#root.method.name", sync = true)
     public List<ProfessorDTO> findAll() {
         List<Professor> professors = (List<Professor>) professorRepository.findAll();
         return professors.stream().map(ProfessorMapper.INSTANCE::toProfessorDTO).collect(Collectors.toList());
@@ -61,13 +70,17 @@ public class ProfessorService {
      * @return A success message indicating the deletion.
      * @throws UserNotFoundException if the user with the specified ID does not exist.
      */
-    @CacheEvict(value = "professor", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "professor", key = "#professorId"),
+            @CacheEvict(value = "professor", key = "'findAll'")
+    })
     @Transactional
     public String deleteById(UUID professorId) throws UserNotFoundException {
         Professor professor = this.professorRepository.findById(professorId)
                 .orElseThrow(ProfessorNotFoundException::new);
 
         this.professorRepository.delete(professor);
+        principalCache.revoke(professor.getId(), professor.getEmail(), Integer.MAX_VALUE);
         return "Professor with ID: " + professor.getId() + " deleted successfully.";
     }
 
@@ -79,19 +92,40 @@ public class ProfessorService {
      * @return The updated professor as a {@link ProfessorDTO}.
      * @throws ProfessorNotFoundException if the professor with the specified ID does not exist.
      */
-    @CacheEvict(value = "professor", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "professor", key = "#professorId"),
+            @CacheEvict(value = "professor", key = "'findAll'")
+    })
     @Transactional
     public ProfessorDTO update(UUID professorId, UpdateProfessorDTO professorDTO) throws ProfessorNotFoundException {
         Professor professor = this.professorRepository.findById(professorId)
                 .orElseThrow(ProfessorNotFoundException::new);
 
+        String previousEmail = professor.getEmail();
+        if (!previousEmail.equals(professorDTO.getEmail())) {
+            // Tokens are bound to the email as their subject, so an email change invalidates them.
+            professor.setTokenVersion(professor.getTokenVersion() + 1);
+            principalCache.revoke(professor.getId(), previousEmail, professor.getTokenVersion());
+        } else {
+            principalCache.evict(previousEmail);
+        }
+
         professor.setName(professorDTO.getName());
         professor.setEmail(professorDTO.getEmail());
         professor.setGender(professorDTO.getGender());
         professor.setBio(professorDTO.getBio());
         professor.setImageUrl(professorDTO.getImageUrl());
 
-        return ProfessorMapper.INSTANCE.toProfessorDTO(professorRepository.save(professor));
+        Professor savedProfessor = professorRepository.save(professor);
+        courseSummaryService.professorUpdated(savedProfessor);
+        // Every view of the professor's courses embeds their card
+        List<String> tags = courseRepository.findIdsByProfessor(professorId).stream()
+                .map(CacheKeys::courseTag)
+                .collect(Collectors.toList());
+        tags.add(CacheKeys.CATALOG_TAG);
+        cacheManager.evictTags(tags.toArray(String[]::new));
+
+        return ProfessorMapper.INSTANCE.toProfessorDTO(savedProfessor);
     }
 
 }
@@ -1,24 +1,33 @@
 package org.wiliammelo.empoweru.services;
 
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.configuration.cache.CacheKeys;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
 import org.wiliammelo.empoweru.dtos.section.CreateSectionDTO;
+import org.wiliammelo.empoweru.dtos.section.ReorderVideosDTO;
 import org.wiliammelo.empoweru.dtos.section.SectionDTO;
 import org.wiliammelo.empoweru.dtos.section.UpdateSectionDTO;
 import org.wiliammelo.empoweru.exceptions.CourseNotFoundException;
+import org.wiliammelo.empoweru.exceptions.InvalidVideoOrderException;
 import org.wiliammelo.empoweru.exceptions.ProfessorNotFoundException;
 import org.wiliammelo.empoweru.exceptions.SectionNotFoundException;
 import org.wiliammelo.empoweru.exceptions.UnauthorizedException;
 import org.wiliammelo.empoweru.mappers.SectionMapper;
 import org.wiliammelo.empoweru.models.Course;
-import org.wiliammelo.empoweru.models.Professor;
 import org.wiliammelo.empoweru.models.Section;
+import org.wiliammelo.empoweru.models.VideoStatus;
 import org.wiliammelo.empoweru.repositories.CourseRepository;
-import org.wiliammelo.empoweru.repositories.ProfessorRepository;
 import org.wiliammelo.empoweru.repositories.SectionRepository;
-import org.wiliammelo.empoweru.repositories.UserRepository;
+import org.wiliammelo.empoweru.repositories.VideoOrderRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,8 +41,10 @@ public class SectionService {
 
     private final SectionRepository sectionRepository;
     private final CourseRepository courseRepository;
-    private final UserRepository userRepository;
-    private final ProfessorRepository professorRepository;
+    private final CourseAuthorizationService courseAuthorizationService;
+    private final CourseSummaryService courseSummaryService;
+    private final VideoOrderRepository videoOrderRepository;
+    private final TwoLevelCacheManager cacheManager;
 
     /**
      * Creates a new section based on the provided DTO and associates it with a course.
@@ -48,13 +59,15 @@ public class SectionService {
         Course course = courseRepository.findById(UUID.fromString(createSectionDTO.getCourseId()))
                 .orElseThrow(CourseNotFoundException::new);
 
-        if (!isTheOwner(requesterId, UUID.fromString(createSectionDTO.getCourseId()))) {
+        if (!courseAuthorizationService.isOwner(course.getId(), requesterId)) {
             throw new UnauthorizedException("You are not the owner of this course.");
         }
 
         Section section = SectionMapper.INSTANCE.toSection(createSectionDTO);
         section.setCourse(course);
-        return SectionMapper.INSTANCE.toSectionDTO(sectionRepository.save(section));
+        Section savedSection = sectionRepository.save(section);
+        cacheManager.evictTags(CacheKeys.courseTag(course.getId()));
+        return SectionMapper.INSTANCE.toSectionDTO(savedSection);
     }
 
     /**
@@ -95,10 +108,7 @@ public class SectionService {
     public String delete(UUID id, UUID requesterId) throws SectionNotFoundException, UnauthorizedException, ProfessorNotFoundException {
         Section section = findById(id);
 
-        if (isTheOwner(requesterId, section.getCourse().getId())) {
-            return deleteProcess(section, id);
-        }
-        if (userRepository.isAdmin(requesterId)) {
+        if (courseAuthorizationService.canManage(section.getCourse().getId(), requesterId)) {
             return deleteProcess(section, id);
         }
 
@@ -116,6 +126,8 @@ public class SectionService {
      */
     private String deleteProcess(Section section, UUID id) {
         sectionRepository.delete(section);
+        courseSummaryService.sectionRemoved(section);
+        cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(section.getCourse().getId()));
 
         return "Section with id " + id + " deleted successfully!";
     }
@@ -133,27 +145,79 @@ public class SectionService {
     public SectionDTO update(UUID id, UpdateSectionDTO updateSectionDTO, UUID requesterId) throws SectionNotFoundException, UnauthorizedException, ProfessorNotFoundException {
         Section section = findById(id);
 
-        if (!isTheOwner(requesterId, section.getCourse().getId())) {
+        if (!courseAuthorizationService.isOwner(section.getCourse().getId(), requesterId)) {
             throw new UnauthorizedException("You are not the owner of this course.");
         }
 
         section.setTitle(updateSectionDTO.getTitle());
         section.setDescription(updateSectionDTO.getDescription());
 
-        return SectionMapper.INSTANCE.toSectionDTO(sectionRepository.save(section));
+        Section savedSection = sectionRepository.save(section);
+        cacheManager.evictTags(CacheKeys.courseTag(section.getCourse().getId()));
+        return SectionMapper.INSTANCE.toSectionDTO(savedSection);
     }
 
     /**
-     * Checks if the specified requester is the owner of the course.
+     * Puts the ready videos of a section in a new order and renumbers the keys of the whole section in a single
+     * statement.
+     * <p>
+     * The videos of the section are locked first, so the order is checked and rewritten against the same videos.
+     * Videos still being ingested, or that failed, keep following the ready video they followed before, so a pending
+     * video shows up where it was placed once it is ready.</p>
      *
-     * @param requesterId The UUID of the requester.
-     * @param courseId    The UUID of the course to check ownership for.
-     * @return true if the requester is the owner of the course, false otherwise.
+     * @param id               The UUID of the section.
+     * @param reorderVideosDTO The DTO listing the UUIDs of every ready video of the section, in their new order.
+     * @param requesterId      The UUID of the user requesting the change.
+     * @return The videos of the section in their new order.
+     * @throws SectionNotFoundException   If the section with the specified ID does not exist.
+     * @throws UnauthorizedException      If the requester is not the owner of the course to which the section belongs.
+     * @throws InvalidVideoOrderException If the UUIDs are not exactly those of the ready videos of the section.
+     */
+    @Transactional
+    public List<UUID> reorderVideos(UUID id, ReorderVideosDTO reorderVideosDTO, UUID requesterId) throws SectionNotFoundException, UnauthorizedException, InvalidVideoOrderException {
+        Section section = findById(id);
+
+        if (!courseAuthorizationService.isOwner(section.getCourse().getId(), requesterId)) {
+            throw new UnauthorizedException("You are not the owner of this course.");
+        }
+
+        Map<UUID, VideoStatus> currentOrder = videoOrderRepository.lockOrder(id);
+        List<UUID> videoIds = reorderVideosDTO.getVideoIds();
+        Set<UUID> readyIds = currentOrder.entrySet().stream()
+                .filter(entry -> entry.getValue() == VideoStatus.READY)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        if (videoIds.size() != readyIds.size() || !readyIds.equals(new HashSet<>(videoIds))) {
+            throw new InvalidVideoOrderException();
+        }
+
+        videoOrderRepository.reorder(id, placeAroundReady(currentOrder, videoIds));
+        cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(section.getCourse().getId()));
+        return videoIds;
+    }
+
+    /**
+     * Builds the new order of every video of a section: the ready videos in the requested order, each followed by the
+     * other videos that followed it before. Videos placed before any ready video stay first.
      */
-    private boolean isTheOwner(UUID requesterId, UUID courseId) throws ProfessorNotFoundException {
-        Professor professor = professorRepository.findById(requesterId)
-                .orElseThrow(ProfessorNotFoundException::new);
-        return courseRepository.isTheOwner(courseId, professor.getId());
+    private static List<UUID> placeAroundReady(Map<UUID, VideoStatus> currentOrder, List<UUID> readyOrder) {
+        List<UUID> leading = new ArrayList<>();
+        Map<UUID, List<UUID>> followers = new HashMap<>();
+        List<UUID> current = leading;
+        for (Map.Entry<UUID, VideoStatus> video : currentOrder.entrySet()) {
+            if (video.getValue() == VideoStatus.READY) {
+                current = followers.computeIfAbsent(video.getKey(), key -> new ArrayList<>());
+            } else {
+                current.add(video.getKey());
+            }
+        }
+
+        List<UUID> order = new ArrayList<>(leading);
+        for (UUID readyId : readyOrder) {
+            order.add(readyId);
+            order.addAll(followers.getOrDefault(readyId, List.of()));
+        }
+        return order;
     }
 
 }
@@ -4,7 +4,9 @@ import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.configuration.security.PrincipalCache;
 import org.wiliammelo.empoweru.dtos.student.StudentDTO;
 import org.wiliammelo.empoweru.dtos.student.UpdateStudentDTO;
 import org.wiliammelo.empoweru.exceptions.StudentNotFoundException;
@@ -28,6 +30,7 @@ import java.util.stream.Collectors;
 public class StudentService {
 
     private final StudentRepository studentRepository;
+    private final PrincipalCache principalCache;
 
     /**
      * Finds a student by ID.
@@ -36,7 +39,7 @@ public class StudentService {
      * @return The found student as a {@link StudentDTO}.
      * @throws StudentNotFoundException if the student is not found.
      */
-    @Cacheable(value = "student", key = "#id")
+    @Cacheable(value = "student", key = "#id", sync = true)
     public StudentDTO findById(UUID id) throws StudentNotFoundException {
         Student student = this.studentRepository.findById(id)
                 .orElseThrow(StudentNotFoundException::new);
@@ -48,7 +51,7 @@ public class StudentService {
      *
      * @return A list of all students as {@link StudentDTO}s.
      */
-    @Cacheable(value = "student", key = "#root.method.name")
+    @Cacheable(value = "student", key = "#root.method.name", sync = true)
     public List<StudentDTO> findAll() {
         List<Student> students = (List<Student>) this.studentRepository.findAll();
         return students.stream().map(StudentMapper.INSTANCE::toStudentDTO).collect(Collectors.toList());
@@ -61,13 +64,17 @@ public class StudentService {
      * @return A confirmation message.
      * @throws UserNotFoundException if the user is not found.
      */
-    @CacheEvict(value = "student", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "student", key = "#id"),
+            @CacheEvict(value = "student", key = "'findAll'")
+    })
     @Transactional
     public String deleteById(UUID id) throws UserNotFoundException {
         Student student = this.studentRepository.findById(id)
                 .orElseThrow(StudentNotFoundException::new);
 
         this.studentRepository.delete(student);
+        principalCache.revoke(student.getId(), student.getEmail(), Integer.MAX_VALUE);
         return "Student with ID: " + id + " deleted successfully.";
     }
 
@@ -79,7 +86,10 @@ public class StudentService {
      * @return The updated student as a {@link StudentDTO}.
      * @throws StudentNotFoundException if the student is not found.
      */
-    @CacheEvict(value = "student", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "student", key = "#id"),
+            @CacheEvict(value = "student", key = "'findAll'")
+    })
     @Transactional
     public StudentDTO update(UUID id, UpdateStudentDTO updateStudentDTO) throws StudentNotFoundException {
         Student student = this.studentRepository.findById(id)
@@ -88,7 +98,10 @@ public class StudentService {
         student.setName(updateStudentDTO.getName());
         student.setGender(updateStudentDTO.getGender());
 
-        return StudentMapper.INSTANCE.toStudentDTO(studentRepository.save(student));
+        Student savedStudent = studentRepository.save(student);
+        principalCache.evict(savedStudent.getEmail());
+
+        return StudentMapper.INSTANCE.toStudentDTO(savedStudent);
     }
 
 
@@ -0,0 +1,263 @@
+package org.wiliammelo.empoweru.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.configuration.cache.CacheKeys;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
+import org.wiliammelo.empoweru.exceptions.ServiceOverloadedException;
+import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.models.VideoStatus;
+import org.wiliammelo.empoweru.repositories.VideoRepository;
+import org.wiliammelo.empoweru.services.ContentStoreService.StoredContent;
+import org.wiliammelo.empoweru.services.media.MediaInfo;
+import org.wiliammelo.empoweru.services.media.MediaProbe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class uploading new videos to storage in the background.
+ * <p>
+ * With {@code storage.ingestion.mode=async}, the content of a new video is written to a local staging file and the
+ * video is saved as {@link VideoStatus#PENDING}, so the request returns as soon as the bytes are on local disk. A
+ * bounded pool then reads its duration, resolution and bitrate from the container headers with the
+ * {@link MediaProbe}, which also checks that it is an MP4 or Matroska video, stores it through the
+ * {@link ContentStoreService}, which skips the upload when the same content is already stored, and marks the video
+ * {@link VideoStatus#READY}, or {@link VideoStatus#FAILED}. At most {@code pool-size + queue-capacity} videos are
+ * staged at a time; further uploads are refused before any of their content is read.</p>
+ * <p>
+ * Staging files are named after their video and only deleted once the outcome is saved, so videos still pending when
+ * the node stopped are ingested again at startup.</p>
+ */
+@Slf4j
+@Service
+public class VideoIngestionService {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final VideoRepository videoRepository;
+    private final ContentStoreService contentStoreService;
+    private final CourseSummaryService courseSummaryService;
+    private final TwoLevelCacheManager cacheManager;
+    private final Path directory;
+    private final Semaphore slots;
+    private final ThreadPoolExecutor executor;
+    private final Counter readyCounter;
+    private final Counter failedCounter;
+
+    public VideoIngestionService(VideoRepository videoRepository,
+                                 ContentStoreService contentStoreService,
+                                 CourseSummaryService courseSummaryService,
+                                 TwoLevelCacheManager cacheManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${storage.ingestion.directory}") String directory,
+                                 @Value("${storage.ingestion.pool-size}") int poolSize,
+                                 @Value("${storage.ingestion.queue-capacity}") int queueCapacity) throws IOException {
+        this.videoRepository = videoRepository;
+        this.contentStoreService = contentStoreService;
+        this.courseSummaryService = courseSummaryService;
+        this.cacheManager = cacheManager;
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.slots = new Semaphore(poolSize + queueCapacity);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Unbounded queue: admission is bounded by the slots, recovered videos are queued regardless
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "video-ingestion-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("video.ingestion.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        this.readyCounter = Counter.builder("video.ingestion").tag("result", "ready").register(meterRegistry);
+        this.failedCounter = Counter.builder("video.ingestion").tag("result", "failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Writes the content of a new video to a staging file, taking a place in the ingestion queue.
+     *
+     * @param content The video content.
+     * @return The staging file, to be passed to {@link #submit} once the video is saved, or to {@link #discard}.
+     * @throws ServiceOverloadedException If the ingestion queue is full.
+     * @throws IOException                If the content cannot be read or staged.
+     */
+    public Path stage(InputStream content) throws ServiceOverloadedException, IOException {
+        if (!slots.tryAcquire()) {
+            throw new ServiceOverloadedException();
+        }
+        Path staged = directory.resolve(UUID.randomUUID() + PARTIAL_SUFFIX);
+        try {
+            Files.copy(content, staged);
+        } catch (IOException | RuntimeException e) {
+            discard(staged);
+            throw e;
+        }
+        return staged;
+    }
+
+    /**
+     * Releases a staging file whose video was not saved.
+     *
+     * @param staged The staging file returned by {@link #stage}.
+     */
+    public void discard(Path staged) {
+        slots.release();
+        deleteQuietly(staged);
+    }
+
+    /**
+     * Queues the ingestion of a saved pending video.
+     *
+     * @param video  The pending video.
+     * @param staged The staging file returned by {@link #stage}.
+     * @throws IOException If the staging file cannot be claimed for the video; the video is marked as failed.
+     */
+    public void submit(Video video, Path staged) throws IOException {
+        Path file;
+        try {
+            file = Files.move(staged, stagingFile(video.getId()), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            discard(staged);
+            videoRepository.finishIngestion(video.getId(), VideoStatus.FAILED, null, null,
+                    video.getDurationInSeconds(), null, null, null);
+            throw e;
+        }
+        executor.execute(() -> {
+            try {
+                ingest(video.getId(), file);
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    /**
+     * Queues the videos left pending by a previous run, whose staging files are still there.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int recovered = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PARTIAL_SUFFIX)) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                UUID videoId;
+                try {
+                    videoId = UUID.fromString(name);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                executor.execute(() -> ingest(videoId, file));
+                recovered++;
+            }
+        } catch (IOException e) {
+            log.warn("Could not recover pending videos from {}", directory, e);
+        }
+        if (recovered > 0) {
+            log.info("Resuming the ingestion of {} pending videos", recovered);
+        }
+    }
+
+    /**
+     * Probes and uploads a staged video, then records the outcome. The staging file is kept if the outcome cannot be
+     * saved, so the video is retried at the next startup.
+     */
+    private void ingest(UUID videoId, Path file) {
+        Video video = videoRepository.findById(videoId).orElse(null);
+        if (video == null || video.getStatus() != VideoStatus.PENDING) {
+            deleteQuietly(file);
+            return;
+        }
+
+        MediaInfo mediaInfo = null;
+        StoredContent stored = null;
+        try {
+            mediaInfo = MediaProbe.probe(file);
+            if (mediaInfo == null) {
+                log.warn("Video {} is neither an MP4 nor a Matroska file", videoId);
+            } else {
+                stored = contentStoreService.store(mediaInfo.getContentType(), file);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not upload video {}", videoId, e);
+        }
+
+        try {
+            finish(video, stored, mediaInfo);
+            deleteQuietly(file);
+        } catch (RuntimeException e) {
+            log.error("Could not record the ingestion of video {}, it will be retried at startup", videoId, e);
+        }
+    }
+
+    private void finish(Video video, StoredContent stored, MediaInfo mediaInfo) {
+        VideoStatus status = stored != null ? VideoStatus.READY : VideoStatus.FAILED;
+        String url = stored != null ? stored.getUrl() : null;
+        String digest = stored != null ? stored.getDigest() : null;
+        if (stored != null) {
+            VideoService.applyMediaInfo(video, mediaInfo);
+        }
+        int updated;
+        try {
+            updated = videoRepository.finishIngestion(video.getId(), status, url, digest, video.getDurationInSeconds(),
+                    video.getWidth(), video.getHeight(), video.getBitrate());
+        } catch (RuntimeException e) {
+            // The retry at startup stores the content again, taking a new reference
+            contentStoreService.release(digest);
+            throw e;
+        }
+        if (updated == 0) {
+            // Deleted while it was being uploaded
+            contentStoreService.release(digest);
+            return;
+        }
+        UUID courseId = video.getSection().getCourse().getId();
+        if (status == VideoStatus.READY) {
+            courseSummaryService.videoAdded(courseId, video.getDurationInSeconds());
+            cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(courseId));
+            readyCounter.increment();
+        } else {
+            // Views and progress cached while the video was pending may still count it
+            cacheManager.evictTags(CacheKeys.courseTag(courseId));
+            failedCounter.increment();
+        }
+    }
+
+    private Path stagingFile(UUID videoId) {
+        return directory.resolve(videoId.toString());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete staging file {}", file, e);
+        }
+    }
+
+}
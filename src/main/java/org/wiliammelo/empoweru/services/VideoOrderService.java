@@ -0,0 +1,123 @@
+package org.wiliammelo.empoweru.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.repositories.VideoOrderRepository;
+
+import java.util.UUID;
+
+import static org.wiliammelo.empoweru.repositories.VideoOrderRepository.GAP;
+
+/**
+ * Service class placing videos within their section with gap-based sort keys.
+ * <p>
+ * A video is placed halfway between the keys of its neighbours, so adding or moving a video writes that video only.
+ * When two neighbours are adjacent the section is renumbered in one statement first. The display order exposed by the
+ * API is the 1-based position of a video among the ready videos of its section, derived from the keys.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VideoOrderService {
+
+    private static final String LEGACY_COLUMN_EXISTS =
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'video' AND column_name = 'display_order'";
+
+    private static final String BACKFILL_SORT_KEYS =
+            "UPDATE video v SET sort_key = r.position * ? FROM (" +
+                    "SELECT id, row_number() OVER (PARTITION BY section_id ORDER BY display_order, id) AS position " +
+                    "FROM video WHERE sort_key IS NULL) r WHERE v.id = r.id";
+
+    private static final String RELEASE_LEGACY_COLUMN = "ALTER TABLE video ALTER COLUMN display_order DROP NOT NULL";
+
+    private final VideoOrderRepository videoOrderRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Computes the sort key placing a video at a position among the ready videos of a section.
+     *
+     * @param sectionId The UUID of the section.
+     * @param position  The 1-based position, at most one past the last video.
+     * @return The sort key for the video.
+     */
+    public long sortKeyAt(UUID sectionId, int position) {
+        Long[] around = videoOrderRepository.findKeysAround(sectionId, position);
+        if (around[0] != null && around[1] != null && around[1] - around[0] < 2) {
+            videoOrderRepository.renumber(sectionId);
+            around = videoOrderRepository.findKeysAround(sectionId, position);
+        }
+
+        Long previous = around[0];
+        Long next = around[1];
+        if (previous == null && next == null) {
+            Long last = videoOrderRepository.findLastKey(sectionId);
+            return last == null ? GAP : last + GAP;
+        }
+        if (next == null) {
+            return previous + GAP;
+        }
+        if (previous == null) {
+            return next - GAP;
+        }
+        return previous + (next - previous) / 2;
+    }
+
+    /**
+     * Computes the sort key placing a video after every other video of a section.
+     *
+     * @param sectionId The UUID of the section.
+     * @return The sort key for the video.
+     */
+    public long sortKeyAfterLast(UUID sectionId) {
+        Long last = videoOrderRepository.findLastKey(sectionId);
+        return last == null ? GAP : last + GAP;
+    }
+
+    /**
+     * Counts the ready videos of a section, the positions a new video may take ranging from 1 to one past it.
+     *
+     * @param sectionId The UUID of the section.
+     * @return The number of ready videos.
+     */
+    public int countReady(UUID sectionId) {
+        return videoOrderRepository.countReady(sectionId);
+    }
+
+    /**
+     * Sets the display order of a video from its sort key.
+     *
+     * @param video The video, with its section and sort key.
+     * @return The same video.
+     */
+    public Video withDisplayOrder(Video video) {
+        video.setDisplayOrder(videoOrderRepository.countBefore(video.getSection().getId(), video.getSortKey()) + 1);
+        return video;
+    }
+
+    /**
+     * Gives sort keys to the videos created before they existed, following their former display order, and lets new
+     * rows leave the former {@code display_order} column empty. Runs right after the course summaries are built and
+     * before progress indexes are assigned, which follow the sort keys.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void backfillSortKeys() {
+        Integer legacyColumns = jdbcTemplate.queryForObject(LEGACY_COLUMN_EXISTS, Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+        jdbcTemplate.execute(RELEASE_LEGACY_COLUMN);
+        int updated = jdbcTemplate.update(BACKFILL_SORT_KEYS, GAP);
+        if (updated > 0) {
+            log.info("Assigned sort keys to {} videos", updated);
+        }
+    }
+
+}
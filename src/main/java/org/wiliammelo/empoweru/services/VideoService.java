@@ -1,11 +1,12 @@
 package org.wiliammelo.empoweru.services;
 
 import jakarta.transaction.Transactional;
-import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-import org.wiliammelo.empoweru.clients.FileUploader;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.wiliammelo.empoweru.configuration.cache.CacheKeys;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
 import org.wiliammelo.empoweru.dtos.video.CreateVideoDTO;
 import org.wiliammelo.empoweru.dtos.video.UpdateVideoDTO;
 import org.wiliammelo.empoweru.dtos.video.VideoDTO;
@@ -13,31 +14,46 @@ import org.wiliammelo.empoweru.exceptions.*;
 import org.wiliammelo.empoweru.mappers.VideoMapper;
 import org.wiliammelo.empoweru.models.*;
 import org.wiliammelo.empoweru.repositories.*;
+import org.wiliammelo.empoweru.services.ContentStoreService.StoredContent;
+import org.wiliammelo.empoweru.services.media.MediaInfo;
+import org.wiliammelo.empoweru.services.media.MediaProbe;
+import org.wiliammelo.empoweru.services.media.MediaProbe.ProbingInputStream;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Service class for managing video-related operations.
  * Provides functionality to create, find, delete, and update videos associated with courses.
  * Utilizes {@link VideoRepository} for persistence operations.
- * Utilizes {@link CourseRepository} for persistence operations.
- * Utilizes {@link FileUploader} for handling file uploads.
+ * Utilizes {@link ContentStoreService} for storing video files, shared between videos with the same content.
  */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class VideoService {
 
+    private static final String ASYNC_INGESTION = "async";
+
     private final VideoRepository videoRepository;
-    private final FileUploader fileUploader;
-    private final CourseRepository courseRepository;
-    private final UserRepository userRepository;
-    private final ProfessorRepository professorRepository;
+    private final ContentStoreService contentStoreService;
     private final SectionRepository sectionRepository;
     private final VideoWatchedRepository videoWatchedRepository;
     private final StudentRepository studentRepository;
+    private final CourseSummaryService courseSummaryService;
+    private final CourseProgressService courseProgressService;
+    private final TwoLevelCacheManager cacheManager;
+    private final CourseAuthorizationService courseAuthorizationService;
+    private final VideoIngestionService videoIngestionService;
+    private final VideoOrderService videoOrderService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${storage.ingestion.mode}")
+    private String ingestionMode;
 
     private static final List<String> ALLOWED_FILE_TYPES = Arrays.asList("video/mp4", "video/mkv");
     private static final String UNAUTHORIZED_MESSAGE = "You're not the owner of this course.";
@@ -45,71 +61,136 @@ public class VideoService {
 
     /**
      * Creates a new video based on {@link CreateVideoDTO} object and associates it with a course.
-     * The video's display order is adjusted if necessary to maintain sequence integrity.
+     * The video is placed at its display order by a sort key between its neighbours', so no other video is updated.
+     * <p>
+     * With {@code storage.ingestion.mode=async} the file is only staged locally and the video is saved as
+     * {@link VideoStatus#PENDING}; it is uploaded in the background by the {@link VideoIngestionService} and joins its
+     * section once ready. Otherwise the file is uploaded before the video is saved.</p>
+     * <p>
+     * Either way the duration, resolution and bitrate are read from the container headers while the file is stored,
+     * see {@link #applyMediaInfo}. The file is stored before any database write, which then all happen in one
+     * transaction, so a failed save neither holds a connection during the upload nor leaves the course counters
+     * advanced.</p>
      *
      * @param createVideoDTO DTO containing video creation details.
-     * @param file           The video file to be uploaded.
+     * @param fileName       The name of the video file.
+     * @param contentType    The content type of the video file.
+     * @param content        The video file content, streamed to storage as it is read.
      * @param requesterId    The UUID of the requester.
-     * @return The created VideoDTO.
-     * @throws IOException              If an error occurs during file upload.
-     * @throws CourseNotFoundException  If the associated course is not found.
-     * @throws InvalidFileTypeException If the uploaded file type is not allowed.
-     * @throws UnauthorizedException    If the requester is not authorized to perform the operation.
+     * @return The created VideoDTO, pending or ready.
+     * @throws IOException                If an error occurs during file upload.
+     * @throws CourseNotFoundException    If the associated course is not found.
+     * @throws InvalidFileTypeException   If the uploaded file type is not allowed.
+     * @throws UnauthorizedException      If the requester is not authorized to perform the operation.
+     * @throws ServiceOverloadedException If too many videos are waiting to be ingested.
      */
-    @CacheEvict(value = {"video", "course"}, allEntries = true)
-    public VideoDTO create(CreateVideoDTO createVideoDTO, MultipartFile file, UUID requesterId) throws IOException, CourseNotFoundException, InvalidFileTypeException, UnauthorizedException, SectionNotFoundException, ProfessorNotFoundException {
-        if (!ALLOWED_FILE_TYPES.contains(file.getContentType())) {
-            throw new InvalidFileTypeException(ALLOWED_FILE_TYPES);
-        }
-
-        Section section = sectionRepository.findById(UUID.fromString(createVideoDTO.getSectionId()))
-                .orElseThrow(SectionNotFoundException::new);
-
-        if (!isTheOwner(section.getCourse().getId(), requesterId)) {
-            throw new UnauthorizedException(UNAUTHORIZED_MESSAGE);
-        }
+    public VideoDTO create(CreateVideoDTO createVideoDTO, String fileName, String contentType, InputStream content, UUID requesterId) throws IOException, CourseNotFoundException, InvalidFileTypeException, UnauthorizedException, SectionNotFoundException, ProfessorNotFoundException, ServiceOverloadedException {
+        Section section = verifyUpload(createVideoDTO, contentType, requesterId);
 
         Video video = VideoMapper.INSTANCE.toVideo(createVideoDTO);
         video.setSection(section);
 
         // Ensure the new order is within valid range
-        int maxOrder = section.getVideos().size() + 1;
+        int maxOrder = videoOrderService.countReady(section.getId()) + 1;
         if (video.getDisplayOrder() <= 0 || video.getDisplayOrder() > maxOrder) {
             throw new IllegalArgumentException("Invalid display order");
         }
 
-        // Adjust the order of existing videos if necessary
-        if (video.getDisplayOrder() <= section.getVideos().size()) {
-            List<Video> videos = videoRepository.findAllByWithDisplayOrderBiggerThanOrEqual(video.getDisplayOrder());
-            incrementDisplayOrder(videos);
+        boolean async = ASYNC_INGESTION.equals(ingestionMode);
+        Path staged = null;
+        StoredContent stored = null;
+        if (async) {
+            staged = videoIngestionService.stage(content);
+            video.setStatus(VideoStatus.PENDING);
+        } else {
+            ProbingInputStream probing = MediaProbe.probing(content);
+            stored = contentStoreService.store(contentType, probing);
+            video.setUrl(stored.getUrl());
+            video.setContentDigest(stored.getDigest());
+            applyMediaInfo(video, probing.getMediaInfo());
+        }
+
+        Video savedVideo;
+        try {
+            savedVideo = transactionTemplate.execute(status -> saveNew(video));
+        } catch (RuntimeException e) {
+            if (staged != null) {
+                videoIngestionService.discard(staged);
+            }
+            if (stored != null) {
+                contentStoreService.release(stored.getDigest());
+            }
+            throw e;
+        }
+
+        if (async) {
+            // Submitted once committed, so the ingestion finds the video
+            videoIngestionService.submit(savedVideo, staged);
+        }
+
+        return VideoMapper.INSTANCE.toVideoDTO(savedVideo);
+    }
+
+    /**
+     * Gives a new video its progress index and sort key and saves it, adding it to its course if it is ready.
+     * Runs in the caller's transaction.
+     */
+    private Video saveNew(Video video) {
+        Section section = video.getSection();
+        UUID courseId = section.getCourse().getId();
+        video.setProgressIndex(courseProgressService.nextProgressIndex(courseId));
+        video.setSortKey(videoOrderService.sortKeyAt(section.getId(), video.getDisplayOrder()));
+        Video savedVideo = videoRepository.save(video);
+
+        // A pending video changes nothing visible: the other videos keep their keys and this one is hidden until ready
+        if (savedVideo.getStatus() == VideoStatus.READY) {
+            courseSummaryService.videoAdded(courseId, savedVideo.getDurationInSeconds());
+            cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(courseId));
+        }
+        return savedVideo;
+    }
+
+    /**
+     * Checks that the requester may upload a video of the given type to the section of {@link CreateVideoDTO},
+     * so an upload can be refused before any of its content is received.
+     *
+     * @param createVideoDTO DTO containing video creation details.
+     * @param contentType    The content type of the video file.
+     * @param requesterId    The UUID of the requester.
+     * @return The section the video will be added to.
+     * @throws InvalidFileTypeException If the file type is not allowed.
+     * @throws SectionNotFoundException If the section is not found.
+     * @throws UnauthorizedException    If the requester does not own the course of the section.
+     */
+    public Section verifyUpload(CreateVideoDTO createVideoDTO, String contentType, UUID requesterId) throws InvalidFileTypeException, SectionNotFoundException, UnauthorizedException {
+        if (!ALLOWED_FILE_TYPES.contains(contentType)) {
+            throw new InvalidFileTypeException(ALLOWED_FILE_TYPES);
         }
 
-        video.setUrl(fileUploader.upload(file));
+        Section section = sectionRepository.findById(UUID.fromString(createVideoDTO.getSectionId()))
+                .orElseThrow(SectionNotFoundException::new);
 
-        return VideoMapper.INSTANCE.toVideoDTO(videoRepository.save(video));
+        if (!courseAuthorizationService.isOwner(section.getCourse().getId(), requesterId)) {
+            throw new UnauthorizedException(UNAUTHORIZED_MESSAGE);
+        }
+        return section;
     }
 
     /**
-     * Deletes a video by its ID.
+     * Deletes a video by its ID. The requester must own the course the video belongs to, or be an admin.
      *
-     * @param courseId    The UUID of the video to delete.
+     * @param videoId     The UUID of the video to delete.
      * @param requesterId The UUID of the requester.
      * @return A success message.
      * @throws CourseNotFoundException If the video or course is not found.
      * @throws UnauthorizedException   If the requester is not authorized to perform the operation.
      */
-
-    @CacheEvict(value = {"video", "course"}, allEntries = true)
     @Transactional
-    public String delete(UUID courseId, UUID requesterId) throws CourseNotFoundException, UnauthorizedException, ProfessorNotFoundException {
-        Video video = this.videoRepository.findById(courseId).orElseThrow(CourseNotFoundException::new);
+    public String delete(UUID videoId, UUID requesterId) throws CourseNotFoundException, UnauthorizedException, ProfessorNotFoundException {
+        Video video = this.videoRepository.findById(videoId).orElseThrow(CourseNotFoundException::new);
 
-        if (isTheOwner(courseId, requesterId)) {
-            return deleteProcess(video, courseId);
-        }
-
-        if (isAdmin(requesterId)) {
-            return deleteProcess(video, courseId);
+        if (courseAuthorizationService.canManage(video.getSection().getCourse().getId(), requesterId)) {
+            return deleteProcess(video);
         }
 
         throw new UnauthorizedException(UNAUTHORIZED_MESSAGE);
@@ -118,95 +199,170 @@ public class VideoService {
     /**
      * Processes the deletion of a video from the repository.
      *
-     * @param video    The video entity to delete.
-     * @param courseId The UUID of the video to delete.
+     * @param video The video entity to delete.
      * @return A success message.
      */
-    private String deleteProcess(Video video, UUID courseId) {
+    private String deleteProcess(Video video) {
         this.videoRepository.delete(video);
-        return "Video with id " + courseId + " deleted successfully.";
+        this.contentStoreService.release(video.getContentDigest());
+        if (video.getStatus() == VideoStatus.READY) {
+            this.courseSummaryService.videoRemoved(video.getSection().getCourse().getId(), video.getDurationInSeconds());
+        }
+        this.cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(video.getSection().getCourse().getId()));
+        return "Video with id " + video.getId() + " deleted successfully.";
     }
 
 
     /**
      * Updates a video's details based on {@link UpdateVideoDTO} and re-uploads the video file.
+     * The requester must own both the course the video belongs to and the course of the target section.
+     * <p>
+     * The new file is stored first; the video and its course are then updated in one transaction. A video moved to
+     * another course gets a progress index there, and the students who watched it have their progress moved along.</p>
      *
-     * @param courseId       The UUID of the video to update.
+     * @param videoId        The UUID of the video to update.
      * @param updateVideoDTO DTO containing updated video details.
-     * @param file           The new video file to be uploaded.
+     * @param contentType    The content type of the new video file.
+     * @param content        The new video file content, streamed to storage as it is read.
      * @param requesterId    The UUID of the requester.
      * @return The updated VideoDTO.
      * @throws SectionNotFoundException If the associated section is not found.
      * @throws VideoNotFoundException   If the video to update is not found.
      * @throws IOException              If an error occurs during file upload.
      * @throws UnauthorizedException    If the requester is not authorized to perform the operation.
+     * @throws VideoNotReadyException   If the video is still being ingested or its ingestion failed.
      */
-    @CacheEvict(value = {"video", "course"}, allEntries = true)
-    public VideoDTO update(UUID courseId, UpdateVideoDTO updateVideoDTO, MultipartFile file, UUID requesterId) throws SectionNotFoundException, VideoNotFoundException, IOException, UnauthorizedException, ProfessorNotFoundException {
+    public VideoDTO update(UUID videoId, UpdateVideoDTO updateVideoDTO, String contentType, InputStream content, UUID requesterId) throws SectionNotFoundException, VideoNotFoundException, IOException, UnauthorizedException, ProfessorNotFoundException, VideoNotReadyException {
         Section section = this.sectionRepository.findById(UUID.fromString(updateVideoDTO.getSectionId()))
                 .orElseThrow(SectionNotFoundException::new);
-        Video video = this.videoRepository.findById(courseId)
+        Video video = this.videoRepository.findById(videoId)
                 .orElseThrow(VideoNotFoundException::new);
 
-        if (!isTheOwner(courseId, requesterId)) {
+        UUID oldCourseId = video.getSection().getCourse().getId();
+        if (!courseAuthorizationService.isOwner(oldCourseId, requesterId)
+                || !courseAuthorizationService.isOwner(section.getCourse().getId(), requesterId)) {
             throw new UnauthorizedException(UNAUTHORIZED_MESSAGE);
         }
+        if (video.getStatus() != VideoStatus.READY) {
+            throw new VideoNotReadyException();
+        }
 
-        video.setSection(section);
-        video.setTitle(updateVideoDTO.getTitle());
-        video.setDurationInSeconds(updateVideoDTO.getDurationInSeconds());
-        video.setUrl(fileUploader.upload(file));
+        ProbingInputStream probing = MediaProbe.probing(content);
+        StoredContent stored = contentStoreService.store(contentType, probing);
+
+        Video savedVideo;
+        try {
+            savedVideo = transactionTemplate.execute(status ->
+                    saveUpdate(video, section, updateVideoDTO, stored, probing.getMediaInfo()));
+        } catch (RuntimeException e) {
+            contentStoreService.release(stored.getDigest());
+            throw e;
+        }
 
-        return VideoMapper.INSTANCE.toVideoDTO(videoRepository.save(video));
+        return VideoMapper.INSTANCE.toVideoDTO(videoOrderService.withDisplayOrder(savedVideo));
     }
 
-    @CacheEvict(value = "course", allEntries = true)
-    public VideoWatched markAsWatched(UUID videoId, UUID studentId) throws VideoNotFoundException, UserNotFoundException {
-        Video video = videoRepository.findById(videoId)
-                .orElseThrow(VideoNotFoundException::new);
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(UserNotFoundException::new);
+    /**
+     * Moves a video to its new section if needed, applies its new details and file, saves it and updates its course
+     * or courses. Runs in the caller's transaction.
+     */
+    private Video saveUpdate(Video video, Section section, UpdateVideoDTO updateVideoDTO, StoredContent stored, MediaInfo mediaInfo) {
+        UUID oldCourseId = video.getSection().getCourse().getId();
+        UUID newCourseId = section.getCourse().getId();
+        double oldDuration = video.getDurationInSeconds();
+        String oldDigest = video.getContentDigest();
 
-        VideoWatched videoWatched = new VideoWatched();
-        videoWatched.setStudentId(student.getId());
-        videoWatched.setVideoId(video.getId());
-        return videoWatchedRepository.save(videoWatched);
+        if (!oldCourseId.equals(newCourseId)) {
+            Integer oldIndex = video.getProgressIndex();
+            video.setProgressIndex(courseProgressService.nextProgressIndex(newCourseId));
+            courseProgressService.videoMoved(video.getId(), oldCourseId, oldIndex, newCourseId, video.getProgressIndex());
+        }
+        if (!video.getSection().getId().equals(section.getId())) {
+            video.setSortKey(videoOrderService.sortKeyAfterLast(section.getId()));
+        }
+        video.setSection(section);
+        video.setTitle(updateVideoDTO.getTitle());
+        if (updateVideoDTO.getDurationInSeconds() != null) {
+            video.setDurationInSeconds(updateVideoDTO.getDurationInSeconds());
+        }
+        video.setUrl(stored.getUrl());
+        video.setContentDigest(stored.getDigest());
+        applyMediaInfo(video, mediaInfo);
+
+        Video savedVideo = videoRepository.save(video);
+        // Re-uploading the same content takes and releases a reference to the same blob
+        contentStoreService.release(oldDigest);
+        courseSummaryService.videoUpdated(oldCourseId, oldDuration, newCourseId, savedVideo.getDurationInSeconds());
+        cacheManager.evictTags(CacheKeys.CATALOG_TAG, CacheKeys.courseTag(oldCourseId), CacheKeys.courseTag(newCourseId));
+        return savedVideo;
     }
 
     /**
-     * Increments the display order of a list of videos.
-     * This is a private helper method used to maintain the correct order of videos within a course.
+     * Finds a video with its ingestion status, so its uploader can follow an asynchronous upload.
      *
-     * @param videos The list of videos whose display order needs to be incremented.
+     * @param videoId     The UUID of the video.
+     * @param requesterId The UUID of the requester.
+     * @return The video, whose URL is set once it is ready.
+     * @throws VideoNotFoundException If the video is not found.
+     * @throws UnauthorizedException  If the requester does not own the course of the video and is not an admin.
      */
-    private void incrementDisplayOrder(List<Video> videos) {
-        for (Video v : videos) {
-            v.setDisplayOrder(v.getDisplayOrder() + 1);
-            this.videoRepository.save(v);
+    public VideoDTO findStatus(UUID videoId, UUID requesterId) throws VideoNotFoundException, UnauthorizedException {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(VideoNotFoundException::new);
+
+        if (!courseAuthorizationService.canManage(video.getSection().getCourse().getId(), requesterId)) {
+            throw new UnauthorizedException(UNAUTHORIZED_MESSAGE);
         }
+        return VideoMapper.INSTANCE.toVideoDTO(videoOrderService.withDisplayOrder(video));
     }
 
     /**
-     * Determines if the specified user has administrative privileges.
+     * Marks a video as watched by a student. Only that student's cached view of the course is evicted.
+     * The student's progress bitset for the course is updated; watching a video again does not create another record.
      *
-     * @param requesterId The UUID of the user to check for administrative privileges.
-     * @return true if the user has administrative privileges, false otherwise.
+     * @param videoId   The UUID of the watched video.
+     * @param studentId The UUID of the student.
+     * @return The saved {@link VideoWatched} record.
+     * @throws VideoNotFoundException If the video is not found.
+     * @throws UserNotFoundException  If the student is not found.
      */
-    private boolean isAdmin(UUID requesterId) {
-        return userRepository.isAdmin(requesterId);
+    @Transactional
+    public VideoWatched markAsWatched(UUID videoId, UUID studentId) throws VideoNotFoundException, UserNotFoundException {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(VideoNotFoundException::new);
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(UserNotFoundException::new);
+
+        UUID courseId = video.getSection().getCourse().getId();
+        if (!courseProgressService.markWatched(student.getId(), courseId, video)) {
+            Optional<VideoWatched> existing = videoWatchedRepository.findFirstByStudentIdAndVideoId(student.getId(), video.getId());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+
+        VideoWatched videoWatched = new VideoWatched();
+        videoWatched.setStudentId(student.getId());
+        videoWatched.setVideoId(video.getId());
+        VideoWatched savedVideoWatched = videoWatchedRepository.save(videoWatched);
+        cacheManager.evictTags(CacheKeys.courseStudentTag(courseId, student.getId()));
+        return savedVideoWatched;
     }
 
     /**
-     * Checks if the specified user is the owner of the course.
+     * Sets the duration, resolution and bitrate read from a video file. The duration given by the uploader is only
+     * kept when the file headers do not provide one.
      *
-     * @param courseId    The UUID of the course to check ownership for.
-     * @param requesterId The UUID of the user to verify as the owner.
-     * @return true if the requesterId matches the owner of the course, false otherwise.
+     * @param video     The video to update.
+     * @param mediaInfo The metadata of its file, or null if the file could not be probed.
      */
-    private boolean isTheOwner(UUID courseId, UUID requesterId) throws ProfessorNotFoundException {
-        Professor professor = professorRepository.findById(requesterId)
-                .orElseThrow(ProfessorNotFoundException::new);
-        return courseRepository.isTheOwner(courseId, professor.getId());
+    static void applyMediaInfo(Video video, MediaInfo mediaInfo) {
+        if (mediaInfo != null && mediaInfo.getDurationInSeconds() != null) {
+            video.setDurationInSeconds(mediaInfo.getDurationInSeconds());
+        }
+        video.setWidth(mediaInfo != null ? mediaInfo.getWidth() : null);
+        video.setHeight(mediaInfo != null ? mediaInfo.getHeight() : null);
+        video.setBitrate(mediaInfo != null ? mediaInfo.getBitrate() : null);
     }
 
 }
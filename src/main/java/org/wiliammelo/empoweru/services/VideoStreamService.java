@@ -0,0 +1,210 @@
+package org.wiliammelo.empoweru.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.wiliammelo.empoweru.clients.FileUploader;
+import org.wiliammelo.empoweru.exceptions.UnauthorizedException;
+import org.wiliammelo.empoweru.exceptions.VideoNotFoundException;
+import org.wiliammelo.empoweru.exceptions.VideoNotReadyException;
+import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.models.VideoStatus;
+import org.wiliammelo.empoweru.repositories.EnrollmentRepository;
+import org.wiliammelo.empoweru.repositories.StoredBlobRepository;
+import org.wiliammelo.empoweru.repositories.VideoRepository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.UUID;
+
+/**
+ * Service class streaming video content from storage, by byte range.
+ * <p>
+ * Stored files are read in fixed-size segments through the {@link FileUploader}. The segments within the first
+ * {@code storage.stream.cached-prefix} bytes of a file, where students start and seek back to most, are kept in a
+ * bounded cache of direct buffers weighted by size, so the opening minutes of popular lectures are served from memory.
+ * Concurrent requests for a missing segment share a single read from storage. Stored files never change under a given
+ * name, so cached segments and sizes are never stale.</p>
+ */
+@Service
+public class VideoStreamService {
+
+    private static final String UNAUTHORIZED_MESSAGE = "You're not enrolled in this course.";
+
+    private final VideoRepository videoRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseAuthorizationService courseAuthorizationService;
+    private final FileUploader fileUploader;
+    private final int segmentSize;
+    private final long cachedPrefix;
+    private final Cache<String, ByteBuffer> segments;
+    private final Cache<String, Long> sizes;
+
+    public VideoStreamService(VideoRepository videoRepository,
+                              StoredBlobRepository storedBlobRepository,
+                              EnrollmentRepository enrollmentRepository,
+                              CourseAuthorizationService courseAuthorizationService,
+                              FileUploader fileUploader,
+                              MeterRegistry meterRegistry,
+                              @Value("${storage.stream.segment-size}") DataSize segmentSize,
+                              @Value("${storage.stream.cached-prefix}") DataSize cachedPrefix,
+                              @Value("${storage.stream.cache-size}") DataSize cacheSize) {
+        this.videoRepository = videoRepository;
+        this.storedBlobRepository = storedBlobRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseAuthorizationService = courseAuthorizationService;
+        this.fileUploader = fileUploader;
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.cachedPrefix = cachedPrefix.toBytes();
+        this.segments = Caffeine.newBuilder()
+                .maximumWeight(cacheSize.toBytes())
+                .<String, ByteBuffer>weigher((key, segment) -> segment.capacity())
+                .recordStats()
+                .build();
+        this.sizes = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.segments, "video.stream.segments");
+    }
+
+    /**
+     * Finds the stored file of a video the requester may watch: a student enrolled in its course, the professor owning
+     * it, or an admin.
+     *
+     * @param videoId     The UUID of the video.
+     * @param requesterId The UUID of the requester.
+     * @return The file to stream, or only the URL of the video if it was stored before content addressing.
+     * @throws VideoNotFoundException If the video is not found.
+     * @throws UnauthorizedException  If the requester may not watch the video.
+     * @throws VideoNotReadyException If the video is still being ingested or its ingestion failed.
+     * @throws IOException            If the size of the file cannot be read from storage.
+     */
+    public StreamedVideo open(UUID videoId, UUID requesterId) throws VideoNotFoundException, UnauthorizedException, VideoNotReadyException, IOException {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(VideoNotFoundException::new);
+
+        UUID courseId = video.getSection().getCourse().getId();
+        if (!courseAuthorizationService.canManage(courseId, requesterId)
+                && !enrollmentRepository.isStudentEnrolled(courseId, requesterId)) {
+            throw new UnauthorizedException(UNAUTHORIZED_MESSAGE);
+        }
+        if (video.getStatus() != VideoStatus.READY) {
+            throw new VideoNotReadyException();
+        }
+
+        String digest = video.getContentDigest();
+        String name = digest != null ? storedBlobRepository.findNameByDigest(digest).orElse(null) : null;
+        if (name == null) {
+            return new StreamedVideo(video.getUrl(), null, null, null, 0);
+        }
+        String contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        return new StreamedVideo(video.getUrl(), name, digest, contentType, size(name));
+    }
+
+    /**
+     * Writes a byte range of a video file.
+     *
+     * @param video  The file, as returned by {@link #open}.
+     * @param start  The position of the first byte to write.
+     * @param end    The position after the last byte to write.
+     * @param output The stream to write to, which is not closed.
+     * @throws IOException If the file cannot be read from storage or the output cannot be written.
+     */
+    public void write(StreamedVideo video, long start, long end, OutputStream output) throws IOException {
+        WritableByteChannel channel = Channels.newChannel(output);
+        ByteBuffer uncached = null;
+        long position = start;
+        while (position < end) {
+            long index = position / segmentSize;
+            long segmentStart = index * segmentSize;
+            ByteBuffer segment;
+            if (segmentStart < cachedPrefix) {
+                segment = cachedSegment(video, index);
+            } else {
+                if (uncached == null) {
+                    uncached = ByteBuffer.allocate(segmentSize);
+                }
+                segment = readSegment(video, index, uncached.clear());
+            }
+
+            int from = (int) (position - segmentStart);
+            if (from >= segment.limit()) {
+                throw new EOFException(video.getName() + " is shorter than " + video.getLength() + " bytes");
+            }
+            segment.limit((int) Math.min(segment.limit(), end - segmentStart)).position(from);
+            position += segment.remaining();
+            while (segment.hasRemaining()) {
+                channel.write(segment);
+            }
+        }
+    }
+
+    private ByteBuffer cachedSegment(StreamedVideo video, long index) throws IOException {
+        try {
+            // Each caller gets its own position and limit over the shared content
+            return segments.get(video.getName() + ":" + index, key -> {
+                try {
+                    return readSegment(video, index, ByteBuffer.allocateDirect(segmentLength(video, index))).asReadOnlyBuffer();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).duplicate();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ByteBuffer readSegment(StreamedVideo video, long index, ByteBuffer target) throws IOException {
+        target.limit(segmentLength(video, index));
+        fileUploader.read(video.getName(), index * segmentSize, target);
+        return target.flip();
+    }
+
+    private int segmentLength(StreamedVideo video, long index) {
+        return (int) Math.min(segmentSize, video.getLength() - index * segmentSize);
+    }
+
+    private long size(String name) throws IOException {
+        try {
+            return sizes.get(name, key -> {
+                try {
+                    return fileUploader.size(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A video file to stream. Files stored before content addressing have no name, they are only reachable by URL.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class StreamedVideo {
+
+        private final String url;
+        private final String name;
+        private final String digest;
+        private final String contentType;
+        private final long length;
+
+    }
+
+}
@@ -0,0 +1,318 @@
+package org.wiliammelo.empoweru.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.wiliammelo.empoweru.dtos.video.CreateUploadSessionDTO;
+import org.wiliammelo.empoweru.dtos.video.CreateVideoDTO;
+import org.wiliammelo.empoweru.dtos.video.UploadSessionDTO;
+import org.wiliammelo.empoweru.dtos.video.VideoDTO;
+import org.wiliammelo.empoweru.exceptions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for resumable video uploads.
+ * <p>
+ * A session is opened with the video details and the file length, and the file is then sent in fixed-size chunks,
+ * each at its own offset. Chunks may be sent in any order and in parallel; a chunk cut off by a dropped connection is
+ * simply sent again, so at most one chunk is retransmitted instead of the whole file. Once every chunk arrived, the
+ * session is completed into {@link VideoService#create}.</p>
+ * <p>
+ * Chunks are written in place into a staging file under {@code storage.resumable.directory}, which must be shared by
+ * every node (or requests of a session routed to the same node). The session state lives in Redis: its details in a
+ * hash and the received chunks in a bitmap, so the contiguous offset is a single {@code BITPOS}. Sessions expire after
+ * {@code storage.resumable.time-to-live} without activity, and orphaned staging files are swept periodically.</p>
+ */
+@Slf4j
+@Service
+public class VideoUploadSessionService {
+
+    private static final String PREFIX = "upload-session:";
+    private static final String CHUNKS_SUFFIX = ":chunks";
+    private static final String OWNER = "owner";
+    private static final String VIDEO = "video";
+    private static final String FILE_NAME = "fileName";
+    private static final String CONTENT_TYPE = "contentType";
+    private static final String LENGTH = "length";
+    private static final String COMPLETING = "completing";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final VideoService videoService;
+    private final Path directory;
+    private final long chunkSize;
+    private final long maxFileSize;
+    private final Duration timeToLive;
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "upload-session-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public VideoUploadSessionService(StringRedisTemplate stringRedisTemplate,
+                                     ObjectMapper objectMapper,
+                                     VideoService videoService,
+                                     @Value("${storage.resumable.directory}") String directory,
+                                     @Value("${storage.resumable.chunk-size}") DataSize chunkSize,
+                                     @Value("${storage.upload.max-file-size}") DataSize maxFileSize,
+                                     @Value("${storage.resumable.time-to-live}") Duration timeToLive) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.videoService = videoService;
+        this.directory = Path.of(directory);
+        this.chunkSize = chunkSize.toBytes();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.timeToLive = timeToLive;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        long interval = Math.min(timeToLive.toMillis(), Duration.ofHours(1).toMillis());
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdown();
+    }
+
+    /**
+     * Opens an upload session, after checking that the requester may add the video to its section.
+     *
+     * @param createUploadSessionDTO DTO containing the video details and the file length.
+     * @param requesterId            The UUID of the requester.
+     * @return The new session, with nothing received yet.
+     * @throws InvalidUploadException   If the file is larger than the maximum upload size.
+     * @throws InvalidFileTypeException If the file type is not allowed.
+     * @throws SectionNotFoundException If the section is not found.
+     * @throws UnauthorizedException    If the requester does not own the course of the section.
+     * @throws IOException              If the staging file cannot be created.
+     */
+    public UploadSessionDTO create(CreateUploadSessionDTO createUploadSessionDTO, UUID requesterId) throws CustomException, IOException {
+        if (createUploadSessionDTO.getLength() > maxFileSize) {
+            throw new InvalidUploadException("The file exceeds the maximum size of " + maxFileSize + " bytes.");
+        }
+        videoService.verifyUpload(createUploadSessionDTO.getVideo(), createUploadSessionDTO.getContentType(), requesterId);
+
+        UUID id = UUID.randomUUID();
+        // The session is stored before its staging file exists, so the sweeper never takes a new file for an orphan
+        stringRedisTemplate.opsForHash().putAll(sessionKey(id), Map.of(
+                OWNER, requesterId.toString(),
+                VIDEO, objectMapper.writeValueAsString(createUploadSessionDTO.getVideo()),
+                FILE_NAME, createUploadSessionDTO.getFileName(),
+                CONTENT_TYPE, createUploadSessionDTO.getContentType(),
+                LENGTH, String.valueOf(createUploadSessionDTO.getLength())));
+        stringRedisTemplate.expire(sessionKey(id), timeToLive);
+        Files.createFile(stagingFile(id));
+
+        return new UploadSessionDTO(id, 0, createUploadSessionDTO.getLength(), chunkSize);
+    }
+
+    /**
+     * Finds an upload session and how much of its file was received.
+     *
+     * @param id          The UUID of the session.
+     * @param requesterId The UUID of the requester.
+     * @return The session.
+     * @throws UploadSessionNotFoundException If the session does not exist or expired.
+     * @throws UnauthorizedException          If the requester did not open the session.
+     */
+    public UploadSessionDTO find(UUID id, UUID requesterId) throws UploadSessionNotFoundException, UnauthorizedException {
+        Map<String, String> session = load(id, requesterId);
+        long length = Long.parseLong(session.get(LENGTH));
+        return new UploadSessionDTO(id, offset(id, length), length, chunkSize);
+    }
+
+    /**
+     * Writes a chunk of the file. A chunk starts at a multiple of the chunk size and spans the chunk size, or the rest
+     * of the file for the last one. Sending a chunk again overwrites it.
+     *
+     * @param id            The UUID of the session.
+     * @param offset        The offset of the chunk in the file.
+     * @param contentLength The length of the request body.
+     * @param content       The chunk content.
+     * @param requesterId   The UUID of the requester.
+     * @return The session, with the offset received so far.
+     * @throws UploadSessionNotFoundException If the session does not exist or expired.
+     * @throws UnauthorizedException          If the requester did not open the session.
+     * @throws InvalidUploadException         If the chunk is misaligned, has the wrong length or was cut off.
+     * @throws IOException                    If the chunk cannot be read or staged.
+     */
+    public UploadSessionDTO writeChunk(UUID id, long offset, long contentLength, InputStream content, UUID requesterId) throws CustomException, IOException {
+        Map<String, String> session = load(id, requesterId);
+        long length = Long.parseLong(session.get(LENGTH));
+        if (offset < 0 || offset >= length || offset % chunkSize != 0) {
+            throw new InvalidUploadException("Chunks must start at a multiple of " + chunkSize + " bytes within the file.");
+        }
+        long expected = Math.min(chunkSize, length - offset);
+        if (contentLength != expected) {
+            throw new InvalidUploadException("The chunk at offset " + offset + " must be " + expected + " bytes long.");
+        }
+
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(stagingFile(id), StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(content)) {
+            while (written < expected) {
+                long transferred = channel.transferFrom(source, offset + written, expected - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+        }
+        if (written < expected) {
+            throw new InvalidUploadException("The chunk at offset " + offset + " was cut off, please send it again.");
+        }
+
+        String chunksKey = chunksKey(id);
+        stringRedisTemplate.opsForValue().setBit(chunksKey, offset / chunkSize, true);
+        stringRedisTemplate.expire(chunksKey, timeToLive);
+        stringRedisTemplate.expire(sessionKey(id), timeToLive);
+
+        return new UploadSessionDTO(id, offset(id, length), length, chunkSize);
+    }
+
+    /**
+     * Creates the video from a fully received file and closes the session.
+     *
+     * @param id          The UUID of the session.
+     * @param requesterId The UUID of the requester.
+     * @return The created VideoDTO.
+     * @throws UploadSessionNotFoundException If the session does not exist or expired.
+     * @throws UploadSessionConflictException If chunks are still missing or the session is already being completed.
+     * @throws CustomException                If the video cannot be created, see {@link VideoService#create}.
+     * @throws IOException                    If the file cannot be uploaded.
+     */
+    public VideoDTO complete(UUID id, UUID requesterId) throws CustomException, IOException {
+        Map<String, String> session = load(id, requesterId);
+        long length = Long.parseLong(session.get(LENGTH));
+        long offset = offset(id, length);
+        if (offset < length) {
+            throw new UploadSessionConflictException("The upload is incomplete, " + (length - offset) + " bytes are missing from offset " + offset + ".");
+        }
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForHash().putIfAbsent(sessionKey(id), COMPLETING, "1"))) {
+            throw new UploadSessionConflictException("The upload is already being completed.");
+        }
+
+        VideoDTO video;
+        try (InputStream content = Files.newInputStream(stagingFile(id))) {
+            video = videoService.create(readVideo(session), session.get(FILE_NAME), session.get(CONTENT_TYPE), content, requesterId);
+        } catch (CustomException | IOException | RuntimeException e) {
+            stringRedisTemplate.opsForHash().delete(sessionKey(id), COMPLETING);
+            throw e;
+        }
+        discard(id);
+        return video;
+    }
+
+    /**
+     * Cancels an upload session and deletes what was received.
+     *
+     * @param id          The UUID of the session.
+     * @param requesterId The UUID of the requester.
+     * @throws UploadSessionNotFoundException If the session does not exist or expired.
+     * @throws UnauthorizedException          If the requester did not open the session.
+     */
+    public void delete(UUID id, UUID requesterId) throws UploadSessionNotFoundException, UnauthorizedException {
+        load(id, requesterId);
+        discard(id);
+    }
+
+    private Map<String, String> load(UUID id, UUID requesterId) throws UploadSessionNotFoundException, UnauthorizedException {
+        Map<String, String> session = stringRedisTemplate.<String, String>opsForHash().entries(sessionKey(id));
+        if (session.isEmpty()) {
+            throw new UploadSessionNotFoundException();
+        }
+        if (!requesterId.toString().equals(session.get(OWNER))) {
+            throw new UnauthorizedException("You're not the owner of this upload.");
+        }
+        return session;
+    }
+
+    private CreateVideoDTO readVideo(Map<String, String> session) throws InvalidUploadException {
+        try {
+            return objectMapper.readValue(session.get(VIDEO), CreateVideoDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidUploadException("The video details of the upload are unreadable.");
+        }
+    }
+
+    /**
+     * Number of bytes received without gaps from the start of the file: up to the first chunk not received yet.
+     */
+    private long offset(UUID id, long length) {
+        byte[] key = chunksKey(id).getBytes(StandardCharsets.UTF_8);
+        Long firstMissing = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.stringCommands().bitPos(key, false));
+        return firstMissing == null || firstMissing < 0 ? length : Math.min(firstMissing * chunkSize, length);
+    }
+
+    private void discard(UUID id) {
+        stringRedisTemplate.delete(List.of(sessionKey(id), chunksKey(id)));
+        try {
+            Files.deleteIfExists(stagingFile(id));
+        } catch (IOException e) {
+            log.warn("Could not delete staging file of upload session {}", id, e);
+        }
+    }
+
+    /**
+     * Deletes the staging files of sessions that expired.
+     */
+    void sweep() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                UUID id;
+                try {
+                    id = UUID.fromString(file.getFileName().toString());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(sessionKey(id)))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not sweep expired upload sessions", e);
+        }
+    }
+
+    private Path stagingFile(UUID id) {
+        return directory.resolve(id.toString());
+    }
+
+    private static String sessionKey(UUID id) {
+        return PREFIX + id;
+    }
+
+    private static String chunksKey(UUID id) {
+        return PREFIX + id + CHUNKS_SUFFIX;
+    }
+
+}
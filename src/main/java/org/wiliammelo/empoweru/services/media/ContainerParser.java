@@ -0,0 +1,159 @@
+package org.wiliammelo.empoweru.services.media;
+
+/**
+ * Push parser walking the top-level elements of a container as its bytes go by.
+ * <p>
+ * Subclasses decode element headers and decide, per element, whether to descend into it, skip it, capture its content
+ * or stop. Only captured elements are held in memory, up to {@link #MAX_CAPTURE} bytes each, so memory stays bounded
+ * whatever the file size. A parser fed from a seekable source can skip elements without reading them, see
+ * {@link #pendingSkip()}.</p>
+ */
+abstract class ContainerParser {
+
+    static final int MAX_CAPTURE = 16 * 1024 * 1024;
+
+    private static final int MAX_HEADER = 16;
+
+    enum Action {
+        DESCEND, SKIP, CAPTURE, STOP
+    }
+
+    private final byte[] header = new byte[MAX_HEADER];
+    private int headerLength;
+    private long skip;
+    private long capturedId;
+    private byte[] captured;
+    private int capturedLength;
+    private boolean done;
+
+    /**
+     * Chooses the parser for a container from its first 8 bytes.
+     *
+     * @return The parser, or null if the container is neither MP4 nor Matroska.
+     */
+    static ContainerParser forHeader(byte[] head, int length) {
+        if (Mp4Parser.matches(head, length)) {
+            return new Mp4Parser();
+        }
+        if (MatroskaParser.matches(head, length)) {
+            return new MatroskaParser();
+        }
+        return null;
+    }
+
+    /**
+     * Feeds the next bytes of the file.
+     */
+    final void update(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        while (offset < end && !done) {
+            if (skip > 0) {
+                int skipped = (int) Math.min(skip, end - offset);
+                skip -= skipped;
+                offset += skipped;
+            } else if (captured != null) {
+                int copied = Math.min(captured.length - capturedLength, end - offset);
+                System.arraycopy(bytes, offset, captured, capturedLength, copied);
+                capturedLength += copied;
+                offset += copied;
+                if (capturedLength == captured.length) {
+                    byte[] content = captured;
+                    captured = null;
+                    done = onCaptured(capturedId, content);
+                }
+            } else {
+                header[headerLength++] = bytes[offset++];
+                int complete = headerLength(header, headerLength);
+                if (complete < 0 || complete > MAX_HEADER) {
+                    done = true;
+                } else if (complete == headerLength) {
+                    headerLength = 0;
+                    onHeader(elementId(header, complete), elementSize(header, complete));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of bytes the parser is about to ignore, which a seekable source may skip instead of feeding.
+     */
+    final long pendingSkip() {
+        return done ? 0 : skip;
+    }
+
+    /**
+     * Records that the source skipped bytes instead of feeding them.
+     */
+    final void skipped(long count) {
+        skip -= count;
+    }
+
+    /**
+     * @return true once the parser needs no more bytes.
+     */
+    final boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Builds the metadata collected so far.
+     *
+     * @param fileSize The size of the whole file.
+     */
+    abstract MediaInfo result(long fileSize);
+
+    /**
+     * @return The length of the element header starting at {@code header[0]}, 0 if more bytes are needed to tell, or
+     * a negative value if the bytes are not a valid header.
+     */
+    abstract int headerLength(byte[] header, int available);
+
+    abstract long elementId(byte[] header, int length);
+
+    /**
+     * @return The size of the element content after its header, or a negative value if it is unknown.
+     */
+    abstract long elementSize(byte[] header, int length);
+
+    abstract Action onElement(long id, long size);
+
+    /**
+     * Handles the content of a captured element.
+     *
+     * @return true if the parser is done.
+     */
+    abstract boolean onCaptured(long id, byte[] content);
+
+    private void onHeader(long id, long size) {
+        switch (onElement(id, size)) {
+            case DESCEND -> {
+            }
+            case SKIP -> {
+                if (size < 0) {
+                    done = true;
+                } else {
+                    skip = size;
+                }
+            }
+            case CAPTURE -> {
+                if (size < 0 || size > MAX_CAPTURE) {
+                    done = true;
+                } else {
+                    capturedId = id;
+                    captured = new byte[(int) size];
+                    capturedLength = 0;
+                    if (size == 0) {
+                        captured = null;
+                        done = onCaptured(id, new byte[0]);
+                    }
+                }
+            }
+            case STOP -> done = true;
+        }
+    }
+
+    static Long bitrate(Double durationInSeconds, long fileSize) {
+        return durationInSeconds != null && durationInSeconds > 0 ? Math.round(fileSize * 8 / durationInSeconds) : null;
+    }
+
+}
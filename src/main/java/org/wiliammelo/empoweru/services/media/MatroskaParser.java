@@ -0,0 +1,186 @@
+package org.wiliammelo.empoweru.services.media;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses the {@code Info} and {@code Tracks} elements of a Matroska (or WebM) file: the duration and timestamp scale,
+ * and the pixel size of the first video track. Parsing stops at the first {@code Cluster}, as both elements precede
+ * the media data in practice.
+ */
+class MatroskaParser extends ContainerParser {
+
+    private static final long EBML = 0x1A45DFA3L;
+    private static final long SEGMENT = 0x18538067L;
+    private static final long INFO = 0x1549A966L;
+    private static final long TRACKS = 0x1654AE6BL;
+    private static final long CLUSTER = 0x1F43B675L;
+    private static final long TIMESTAMP_SCALE = 0x2AD7B1L;
+    private static final long DURATION = 0x4489L;
+    private static final long TRACK_ENTRY = 0xAEL;
+    private static final long VIDEO = 0xE0L;
+    private static final long PIXEL_WIDTH = 0xB0L;
+    private static final long PIXEL_HEIGHT = 0xBAL;
+
+    private static final long DEFAULT_TIMESTAMP_SCALE = 1_000_000L;
+
+    private Double durationInSeconds;
+    private Integer width;
+    private Integer height;
+    private boolean infoRead;
+    private boolean tracksRead;
+
+    static boolean matches(byte[] head, int length) {
+        return length >= 4 && ByteBuffer.wrap(head, 0, 4).getInt() == (int) EBML;
+    }
+
+    @Override
+    MediaInfo result(long fileSize) {
+        return new MediaInfo("video/mkv", durationInSeconds, width, height, bitrate(durationInSeconds, fileSize));
+    }
+
+    @Override
+    int headerLength(byte[] header, int available) {
+        int idLength = vintLength(header[0]);
+        if (idLength > 4) {
+            return -1;
+        }
+        if (available <= idLength) {
+            return 0;
+        }
+        int sizeLength = vintLength(header[idLength]);
+        return sizeLength > 8 ? -1 : idLength + sizeLength;
+    }
+
+    @Override
+    long elementId(byte[] header, int length) {
+        return readUnsigned(header, 0, vintLength(header[0]));
+    }
+
+    @Override
+    long elementSize(byte[] header, int length) {
+        int idLength = vintLength(header[0]);
+        return readSize(header, idLength, length - idLength);
+    }
+
+    @Override
+    Action onElement(long id, long size) {
+        if (id == SEGMENT) {
+            return Action.DESCEND;
+        }
+        if (id == INFO || id == TRACKS) {
+            return Action.CAPTURE;
+        }
+        if (id == CLUSTER) {
+            return Action.STOP;
+        }
+        return Action.SKIP;
+    }
+
+    @Override
+    boolean onCaptured(long id, byte[] content) {
+        if (id == INFO) {
+            readInfo(content);
+            infoRead = true;
+        } else if (id == TRACKS) {
+            forEachElement(content, 0, content.length, (childId, from, to) -> {
+                if (childId == TRACK_ENTRY && width == null) {
+                    forEachElement(content, from, to, (entryId, entryFrom, entryTo) -> {
+                        if (entryId == VIDEO) {
+                            readVideo(content, entryFrom, entryTo);
+                        }
+                    });
+                }
+            });
+            tracksRead = true;
+        }
+        return infoRead && tracksRead;
+    }
+
+    private void readInfo(byte[] content) {
+        long[] scale = {DEFAULT_TIMESTAMP_SCALE};
+        double[] duration = {-1};
+        forEachElement(content, 0, content.length, (childId, from, to) -> {
+            if (childId == TIMESTAMP_SCALE) {
+                scale[0] = readUnsigned(content, from, to - from);
+            } else if (childId == DURATION && to - from == 4) {
+                duration[0] = ByteBuffer.wrap(content, from, 4).getFloat();
+            } else if (childId == DURATION && to - from == 8) {
+                duration[0] = ByteBuffer.wrap(content, from, 8).getDouble();
+            }
+        });
+        // The duration is counted in timestamp scale units, which are nanoseconds
+        if (duration[0] > 0 && scale[0] > 0) {
+            durationInSeconds = duration[0] * scale[0] / 1_000_000_000d;
+        }
+    }
+
+    private void readVideo(byte[] content, int from, int to) {
+        long[] size = new long[2];
+        forEachElement(content, from, to, (childId, childFrom, childTo) -> {
+            if (childId == PIXEL_WIDTH) {
+                size[0] = readUnsigned(content, childFrom, childTo - childFrom);
+            } else if (childId == PIXEL_HEIGHT) {
+                size[1] = readUnsigned(content, childFrom, childTo - childFrom);
+            }
+        });
+        if (size[0] > 0 && size[1] > 0) {
+            width = (int) size[0];
+            height = (int) size[1];
+        }
+    }
+
+    /**
+     * Calls the visitor with the ID and content bounds of each element between two positions.
+     */
+    private static void forEachElement(byte[] content, int from, int to, ElementVisitor visitor) {
+        int position = from;
+        while (position < to) {
+            int idLength = vintLength(content[position]);
+            if (idLength > 4 || position + idLength >= to) {
+                return;
+            }
+            int sizeLength = vintLength(content[position + idLength]);
+            if (sizeLength > 8 || position + idLength + sizeLength > to) {
+                return;
+            }
+            long id = readUnsigned(content, position, idLength);
+            long size = readSize(content, position + idLength, sizeLength);
+            int start = position + idLength + sizeLength;
+            if (size < 0 || size > to - start) {
+                return;
+            }
+            visitor.visit(id, start, start + (int) size);
+            position = start + (int) size;
+        }
+    }
+
+    /**
+     * @return The length of a variable-size integer from its first byte, 9 if the byte is zero.
+     */
+    private static int vintLength(byte first) {
+        return Integer.numberOfLeadingZeros(first & 0xFF) - 23;
+    }
+
+    /**
+     * Reads an element size, a variable-size integer without its length marker. All ones means unknown.
+     */
+    private static long readSize(byte[] bytes, int offset, int length) {
+        long value = readUnsigned(bytes, offset, length) & ~(1L << (7 * length));
+        return value == (1L << (7 * length)) - 1 ? -1 : value;
+    }
+
+    private static long readUnsigned(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private interface ElementVisitor {
+
+        void visit(long id, int from, int to);
+
+    }
+
+}
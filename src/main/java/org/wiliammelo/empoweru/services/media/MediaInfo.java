@@ -0,0 +1,29 @@
+package org.wiliammelo.empoweru.services.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Metadata of a video file read from its container headers. Values the headers do not provide are null.
+ */
+@Getter
+@AllArgsConstructor
+public class MediaInfo {
+
+    /**
+     * The content type matching the container, {@code video/mp4} or {@code video/mkv}.
+     */
+    private final String contentType;
+
+    private final Double durationInSeconds;
+
+    private final Integer width;
+
+    private final Integer height;
+
+    /**
+     * The average bitrate in bits per second, from the file size and duration.
+     */
+    private final Long bitrate;
+
+}
@@ -0,0 +1,149 @@
+package org.wiliammelo.empoweru.services.media;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the duration, resolution and bitrate of MP4 and Matroska videos from their container headers, without
+ * decoding any media data.
+ * <p>
+ * A local file is probed by seeking from one top-level element to the next, so only the headers and the metadata
+ * elements are read. Content that is being streamed elsewhere is probed in the same pass through a
+ * {@link ProbingInputStream}. Either way at most one metadata element is held in memory at a time.</p>
+ */
+public final class MediaProbe {
+
+    private static final int HEAD_LENGTH = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private MediaProbe() {
+    }
+
+    /**
+     * Probes a local file.
+     *
+     * @param file The video file.
+     * @return The metadata of the video, or null if it is neither an MP4 nor a Matroska file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static MediaInfo probe(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (buffer.position() < HEAD_LENGTH && channel.read(buffer) >= 0) {
+                // A read may return fewer bytes than the buffer holds
+            }
+            ContainerParser parser = ContainerParser.forHeader(buffer.array(), buffer.position());
+            if (parser == null) {
+                return null;
+            }
+
+            parser.update(buffer.array(), 0, buffer.position());
+            while (!parser.isDone()) {
+                long skip = parser.pendingSkip();
+                if (skip > 0) {
+                    channel.position(channel.position() + skip);
+                    parser.skipped(skip);
+                    continue;
+                }
+                buffer.clear();
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                parser.update(buffer.array(), 0, read);
+            }
+            return parser.result(channel.size());
+        }
+    }
+
+    /**
+     * Wraps a stream so it is probed as it is read.
+     *
+     * @param content The video content.
+     * @return The probing stream, to be read in place of the content.
+     */
+    public static ProbingInputStream probing(InputStream content) {
+        return new ProbingInputStream(content);
+    }
+
+    /**
+     * Stream probing the bytes read through it. The metadata is available once the stream has been read to its end.
+     */
+    public static class ProbingInputStream extends FilterInputStream {
+
+        private final byte[] head = new byte[HEAD_LENGTH];
+        private int headLength;
+        private ContainerParser parser;
+        private long count;
+
+        private ProbingInputStream(InputStream content) {
+            super(content);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                observe(new byte[]{(byte) value}, 0, 1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                observe(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            // Skipped bytes must go through the parser too
+            byte[] buffer = new byte[(int) Math.min(count, BUFFER_SIZE)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * @return The metadata of the video read so far, or null if it is neither an MP4 nor a Matroska file.
+         */
+        public MediaInfo getMediaInfo() {
+            return parser != null ? parser.result(count) : null;
+        }
+
+        private void observe(byte[] bytes, int offset, int length) {
+            count += length;
+            if (headLength < HEAD_LENGTH) {
+                int copied = Math.min(HEAD_LENGTH - headLength, length);
+                System.arraycopy(bytes, offset, head, headLength, copied);
+                headLength += copied;
+                offset += copied;
+                length -= copied;
+                if (headLength < HEAD_LENGTH) {
+                    return;
+                }
+                parser = ContainerParser.forHeader(head, headLength);
+                if (parser != null) {
+                    parser.update(head, 0, headLength);
+                }
+            }
+            if (parser != null && length > 0) {
+                parser.update(bytes, offset, length);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+package org.wiliammelo.empoweru.services.media;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses the {@code moov} box of an MP4 file: the duration from {@code mvhd} and the resolution from the {@code tkhd}
+ * of the first visual track. Every other top-level box, {@code mdat} included, is skipped.
+ */
+class Mp4Parser extends ContainerParser {
+
+    private static final int FTYP = type("ftyp");
+    private static final int MOOV = type("moov");
+    private static final int MVHD = type("mvhd");
+    private static final int TRAK = type("trak");
+    private static final int TKHD = type("tkhd");
+
+    private Double durationInSeconds;
+    private Integer width;
+    private Integer height;
+
+    static boolean matches(byte[] head, int length) {
+        return length >= 8 && ByteBuffer.wrap(head, 4, 4).getInt() == FTYP;
+    }
+
+    @Override
+    MediaInfo result(long fileSize) {
+        return new MediaInfo("video/mp4", durationInSeconds, width, height, bitrate(durationInSeconds, fileSize));
+    }
+
+    @Override
+    int headerLength(byte[] header, int available) {
+        if (available < 8) {
+            return 0;
+        }
+        // A size of 1 means a 64-bit size follows the type
+        return ByteBuffer.wrap(header).getInt() == 1 ? 16 : 8;
+    }
+
+    @Override
+    long elementId(byte[] header, int length) {
+        return ByteBuffer.wrap(header, 4, 4).getInt();
+    }
+
+    @Override
+    long elementSize(byte[] header, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        long size = Integer.toUnsignedLong(buffer.getInt(0));
+        if (size == 0) {
+            // Extends to the end of the file
+            return -1;
+        }
+        if (length == 16) {
+            size = buffer.getLong(8);
+        }
+        return size >= length ? size - length : -1;
+    }
+
+    @Override
+    Action onElement(long id, long size) {
+        return id == MOOV ? Action.CAPTURE : Action.SKIP;
+    }
+
+    @Override
+    boolean onCaptured(long id, byte[] content) {
+        ByteBuffer moov = ByteBuffer.wrap(content);
+        forEachBox(moov, (type, box) -> {
+            if (type == MVHD) {
+                readMovieHeader(box);
+            } else if (type == TRAK && width == null) {
+                forEachBox(box, (trackType, trackBox) -> {
+                    if (trackType == TKHD) {
+                        readTrackHeader(trackBox);
+                    }
+                });
+            }
+        });
+        return true;
+    }
+
+    private void readMovieHeader(ByteBuffer box) {
+        int version = box.get(0);
+        long timescale;
+        long duration;
+        if (version == 1 && box.limit() >= 32) {
+            timescale = Integer.toUnsignedLong(box.getInt(20));
+            duration = box.getLong(24);
+        } else if (version == 0 && box.limit() >= 20) {
+            timescale = Integer.toUnsignedLong(box.getInt(12));
+            duration = Integer.toUnsignedLong(box.getInt(16));
+        } else {
+            return;
+        }
+        if (timescale > 0 && duration > 0) {
+            durationInSeconds = (double) duration / timescale;
+        }
+    }
+
+    /**
+     * Reads the presentation size of a track, a 16.16 fixed point number that is zero for non-visual tracks.
+     */
+    private void readTrackHeader(ByteBuffer box) {
+        int offset = box.get(0) == 1 ? 88 : 76;
+        if (box.limit() < offset + 8) {
+            return;
+        }
+        int trackWidth = box.getInt(offset) >>> 16;
+        int trackHeight = box.getInt(offset + 4) >>> 16;
+        if (trackWidth > 0 && trackHeight > 0) {
+            width = trackWidth;
+            height = trackHeight;
+        }
+    }
+
+    /**
+     * Calls the visitor with the type and content of each box in a buffer.
+     */
+    private static void forEachBox(ByteBuffer parent, BoxVisitor visitor) {
+        int position = 0;
+        while (position + 8 <= parent.limit()) {
+            long size = Integer.toUnsignedLong(parent.getInt(position));
+            int type = parent.getInt(position + 4);
+            int headerLength = 8;
+            if (size == 1) {
+                if (position + 16 > parent.limit()) {
+                    return;
+                }
+                size = parent.getLong(position + 8);
+                headerLength = 16;
+            } else if (size == 0) {
+                size = parent.limit() - position;
+            }
+            if (size < headerLength || size > parent.limit() - position) {
+                return;
+            }
+            visitor.visit(type, parent.slice(position + headerLength, (int) size - headerLength));
+            position += (int) size;
+        }
+    }
+
+    private static int type(String name) {
+        return ByteBuffer.wrap(name.getBytes(StandardCharsets.US_ASCII)).getInt();
+    }
+
+    private interface BoxVisitor {
+
+        void visit(int type, ByteBuffer content);
+
+    }
+
+}
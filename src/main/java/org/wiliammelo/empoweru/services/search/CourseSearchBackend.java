@@ -0,0 +1,27 @@
+package org.wiliammelo.empoweru.services.search;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Strategy used by the course service to search the catalog by title and tags.
+ * <p>
+ * The active implementation is selected with the {@code course.search.mode} property:
+ * {@code index} (in-memory inverted index, the default), {@code like} (JPQL {@code LIKE} queries) or
+ * {@code fulltext} (PostgreSQL full-text search ranked with {@code ts_rank}).</p>
+ */
+public interface CourseSearchBackend {
+
+    /**
+     * Searches courses whose title matches the given text and that have at least one of the given tags.
+     * Either criterion may be omitted, but not both.
+     *
+     * @param title  The text to search for in course titles, or null to skip title matching.
+     * @param tags   The tags to search for, or null/empty to skip tag matching.
+     * @param offset The number of results to skip.
+     * @param limit  The maximum number of results to return.
+     * @return The UUIDs of the matching courses, most relevant first.
+     */
+    List<UUID> search(String title, List<String> tags, int offset, int limit);
+
+}
@@ -0,0 +1,301 @@
+package org.wiliammelo.empoweru.services.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.wiliammelo.empoweru.events.CourseChangedEvent;
+import org.wiliammelo.empoweru.models.CourseSummary;
+import org.wiliammelo.empoweru.services.CourseSummaryService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-process inverted index over course titles and tags.
+ * <p>
+ * Titles are indexed as trigram postings and tags as a tag to course bitmap, both over dense document numbers.
+ * A title search intersects the postings of the query trigrams and verifies the few remaining candidates, so it never
+ * scans the whole catalog. The index is built from the course summaries at startup and refreshed after every committed
+ * course change; changes made on other nodes are received through Redis pub/sub.</p>
+ * <p>
+ * This is the default {@link CourseSearchBackend} ({@code course.search.mode=index}).</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "course.search.mode", havingValue = "index", matchIfMissing = true)
+public class CourseSearchIndex implements CourseSearchBackend, MessageListener {
+
+    private static final String CHANNEL = "course-search-index";
+    private static final int GRAM_LENGTH = 3;
+
+    private final CourseSummaryService courseSummaryService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> documents = new HashMap<>();
+    private final List<UUID> courseIds = new ArrayList<>();
+    private final List<String> titles = new ArrayList<>();
+    private final List<Set<String>> tags = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> titlePostings = new HashMap<>();
+    private final Map<String, BitSet> tagPostings = new HashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Builds the index from every course summary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        courseSummaryService.forEachSummary(this::index);
+        log.info("Course search index built with {} courses", live.cardinality());
+    }
+
+    /**
+     * Refreshes the local index once a course change is committed and notifies the other nodes.
+     *
+     * @param event The course change event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        refresh(event.getCourseId());
+        stringRedisTemplate.convertAndSend(CHANNEL, nodeId + ":" + event.getCourseId());
+    }
+
+    /**
+     * Refreshes the index for a course changed on another node.
+     *
+     * @param message The pub/sub message, in the form {@code nodeId:courseId}.
+     * @param pattern The channel pattern, unused.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        refresh(UUID.fromString(body.substring(separator + 1)));
+    }
+
+    @Override
+    public List<UUID> search(String title, List<String> tags, int offset, int limit) {
+        boolean hasTitle = title != null && !title.isEmpty();
+        boolean hasTags = tags != null && !tags.isEmpty();
+        String query = normalize(title);
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = hasTitle ? titleCandidates(query) : (BitSet) live.clone();
+            if (hasTags) {
+                candidates.and(tagCandidates(tags));
+            }
+            return collect(candidates, document -> !hasTitle || titles.get(document).contains(query), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads a course from its summary, removing it from the index if it no longer exists.
+     *
+     * @param courseId The UUID of the course.
+     */
+    private void refresh(UUID courseId) {
+        Optional<CourseSummary> summary = courseSummaryService.findById(courseId);
+        if (summary.isPresent()) {
+            index(summary.get());
+        } else {
+            remove(courseId);
+        }
+    }
+
+    /**
+     * Adds or replaces a course in the index.
+     *
+     * @param summary The summary of the course.
+     */
+    private void index(CourseSummary summary) {
+        String title = normalize(summary.getTitle());
+        Set<String> courseTags = new HashSet<>();
+        if (summary.getTags() != null) {
+            summary.getTags().forEach(tag -> courseTags.add(normalize(tag)));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.get(summary.getCourseId());
+            if (document == null) {
+                document = courseIds.size();
+                documents.put(summary.getCourseId(), document);
+                courseIds.add(summary.getCourseId());
+                titles.add(null);
+                this.tags.add(null);
+            } else {
+                unlink(document);
+            }
+
+            titles.set(document, title);
+            this.tags.set(document, courseTags);
+            for (String gram : trigrams(title)) {
+                titlePostings.computeIfAbsent(gram, key -> new BitSet()).set(document);
+            }
+            for (String tag : courseTags) {
+                tagPostings.computeIfAbsent(tag, key -> new BitSet()).set(document);
+            }
+            live.set(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course from the index. Its document number is not reused.
+     *
+     * @param courseId The UUID of the course.
+     */
+    private void remove(UUID courseId) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.remove(courseId);
+            if (document != null) {
+                unlink(document);
+                titles.set(document, null);
+                tags.set(document, null);
+                live.clear(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Clears a document from every posting it appears in. Must be called while holding the write lock.
+     *
+     * @param document The document number.
+     */
+    private void unlink(int document) {
+        String title = titles.get(document);
+        if (title != null) {
+            for (String gram : trigrams(title)) {
+                clearPosting(titlePostings, gram, document);
+            }
+        }
+        Set<String> documentTags = tags.get(document);
+        if (documentTags != null) {
+            for (String tag : documentTags) {
+                clearPosting(tagPostings, tag, document);
+            }
+        }
+    }
+
+    private void clearPosting(Map<String, BitSet> postings, String key, int document) {
+        BitSet posting = postings.get(key);
+        if (posting != null) {
+            posting.clear(document);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the documents that may contain the query in their title, by intersecting the postings of its trigrams.
+     * Queries shorter than a trigram match every live document and rely on verification.
+     *
+     * @param query The normalized query.
+     * @return A new bitmap with the candidate documents.
+     */
+    private BitSet titleCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return (BitSet) live.clone();
+        }
+        BitSet candidates = null;
+        for (String gram : trigrams(query)) {
+            BitSet posting = titlePostings.get(gram);
+            if (posting == null) {
+                return new BitSet();
+            }
+            if (candidates == null) {
+                candidates = (BitSet) posting.clone();
+            } else {
+                candidates.and(posting);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the documents having at least one of the given tags.
+     *
+     * @param tags The tags to search for.
+     * @return A new bitmap with the matching documents.
+     */
+    private BitSet tagCandidates(List<String> tags) {
+        BitSet candidates = new BitSet();
+        for (String tag : tags) {
+            BitSet posting = tagPostings.get(normalize(tag));
+            if (posting != null) {
+                candidates.or(posting);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the matching documents ordered by title. Must be called while holding the read lock.
+     *
+     * @param candidates The candidate documents.
+     * @param filter     The verification applied to each candidate.
+     * @param offset     The number of matches to skip.
+     * @param limit      The maximum number of matches to return.
+     * @return The UUIDs of the matching courses.
+     */
+    private List<UUID> collect(BitSet candidates, IntPredicate filter, int offset, int limit) {
+        List<Integer> matches = new ArrayList<>();
+        for (int document = candidates.nextSetBit(0); document >= 0; document = candidates.nextSetBit(document + 1)) {
+            if (filter.test(document)) {
+                matches.add(document);
+            }
+        }
+        matches.sort(Comparator.comparing((Integer document) -> titles.get(document))
+                .thenComparing(document -> courseIds.get(document)));
+        return matches.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(courseIds::get)
+                .toList();
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+}
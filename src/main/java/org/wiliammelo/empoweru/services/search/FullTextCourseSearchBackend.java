@@ -0,0 +1,97 @@
+package org.wiliammelo.empoweru.services.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.wiliammelo.empoweru.repositories.CourseSummaryRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link CourseSearchBackend} backed by PostgreSQL full-text search.
+ * <p>
+ * The {@code course_summary} table gets a stored, generated {@code search_document} tsvector built from the title and
+ * tags (weight A) and the description (weight B), indexed with GIN. Text searches match the whole document with
+ * stemming and are ordered by {@code ts_rank}, so title hits come before description-only hits; tag filters are
+ * applied on the same row. The column, its function and its index are created at startup when missing, since the
+ * schema is otherwise managed by Hibernate.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "course.search.mode", havingValue = "fulltext")
+public class FullTextCourseSearchBackend implements CourseSearchBackend {
+
+    private static final String CREATE_DOCUMENT_FUNCTION =
+            "CREATE OR REPLACE FUNCTION course_search_document(text, text, text[]) RETURNS tsvector " +
+                    "LANGUAGE sql IMMUTABLE AS $$ " +
+                    "SELECT setweight(to_tsvector('english', coalesce($1, '')), 'A') " +
+                    "|| setweight(to_tsvector('english', coalesce(array_to_string($3, ' '), '')), 'A') " +
+                    "|| setweight(to_tsvector('english', coalesce($2, '')), 'B') $$";
+
+    private static final String CREATE_DOCUMENT_COLUMN =
+            "ALTER TABLE course_summary ADD COLUMN IF NOT EXISTS search_document tsvector " +
+                    "GENERATED ALWAYS AS (course_search_document(title, description, tags)) STORED";
+
+    private static final String CREATE_DOCUMENT_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_course_summary_search ON course_summary USING GIN (search_document)";
+
+    private static final String TAGS_CONDITION =
+            "EXISTS (SELECT 1 FROM unnest(s.tags) t WHERE LOWER(t) IN (:tags))";
+
+    private static final String TEXT_QUERY =
+            "SELECT s.course_id FROM course_summary s, plainto_tsquery('english', :title) q " +
+                    "WHERE s.search_document @@ q %s" +
+                    "ORDER BY ts_rank(s.search_document, q) DESC, s.title, s.course_id " +
+                    "OFFSET :offset LIMIT :limit";
+
+    private static final String TAGS_QUERY =
+            "SELECT s.course_id FROM course_summary s WHERE " + TAGS_CONDITION + " " +
+                    "ORDER BY s.title, s.course_id OFFSET :offset LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Declared so the JPA schema update, which creates the {@code course_summary} table, runs before the DDL below.
+     */
+    private final CourseSummaryRepository courseSummaryRepository;
+
+    /**
+     * Creates the generated search document column and its GIN index if they do not exist yet.
+     */
+    @PostConstruct
+    void createSearchDocument() {
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_DOCUMENT_FUNCTION);
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_DOCUMENT_COLUMN);
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_DOCUMENT_INDEX);
+        log.info("Course full-text search document ready");
+    }
+
+    @Override
+    public List<UUID> search(String title, List<String> tags, int offset, int limit) {
+        boolean hasTitle = title != null && !title.isBlank();
+        boolean hasTags = tags != null && !tags.isEmpty();
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        if (hasTags) {
+            parameters.addValue("tags", tags.stream().map(String::toLowerCase).toList());
+        }
+
+        String sql;
+        if (hasTitle) {
+            parameters.addValue("title", title);
+            sql = String.format(TEXT_QUERY, hasTags ? "AND " + TAGS_CONDITION + " " : "");
+        } else {
+            sql = TAGS_QUERY;
+        }
+        return jdbcTemplate.queryForList(sql, parameters, UUID.class);
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.wiliammelo.empoweru.services.search;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.wiliammelo.empoweru.models.Course;
+import org.wiliammelo.empoweru.repositories.CourseRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link CourseSearchBackend} running the {@code LIKE} queries of {@link CourseRepository}.
+ * Kept as a baseline; every search is a sequential scan of the course tables.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "course.search.mode", havingValue = "like")
+public class JpqlCourseSearchBackend implements CourseSearchBackend {
+
+    private final CourseRepository courseRepository;
+
+    @Override
+    public List<UUID> search(String title, List<String> tags, int offset, int limit) {
+        boolean hasTitle = title != null && !title.isEmpty();
+        boolean hasTags = tags != null && !tags.isEmpty();
+
+        List<Course> courses;
+        if (hasTitle && hasTags) {
+            courses = courseRepository.findByTitleContainingIgnoreCaseAndTagsContainingIgnoreCase(title, toLowerCase(tags));
+        } else if (hasTitle) {
+            courses = courseRepository.findByTitleContainingIgnoreCase(title);
+        } else {
+            courses = courseRepository.findByTagsContainingIgnoreCase(toLowerCase(tags));
+        }
+
+        return courses.stream()
+                .sorted(Comparator.comparing(Course::getTitle).thenComparing(Course::getId))
+                .skip(offset)
+                .limit(limit)
+                .map(Course::getId)
+                .toList();
+    }
+
+    private List<String> toLowerCase(List<String> tags) {
+        return tags.stream().map(String::toLowerCase).toList();
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.wiliammelo.empoweru;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Provides a throwaway PostgreSQL container as the datasource of the tests importing it, for the queries relying on
+ * PostgreSQL-only features (arrays, {@code ILIKE}, row comparisons, full-text search). Requires Docker.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestConfiguration {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>("postgres:16-alpine");
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KryoRedisSerializerTests {
+
+    private static final String VALUE = "A cached course description. ".repeat(100);
+
+    private final KryoRedisSerializer serializer = new KryoRedisSerializer(64);
+
+    @Test
+    void compressedValueRoundTrips() {
+        byte[] bytes = serializer.serialize(VALUE);
+
+        assertThat(bytes.length).isLessThan(VALUE.length());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(VALUE);
+    }
+
+    @Test
+    void truncatedCompressedValueFailsAsSerializationException() {
+        byte[] bytes = serializer.serialize(VALUE);
+
+        assertThatThrownBy(() -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 8)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void corruptedCompressedValueFailsAsSerializationException() {
+        byte[] bytes = serializer.serialize(VALUE);
+        // The first LZ4 token, right after the header and the length, claims more literals than there are bytes
+        bytes[5] = (byte) 0xFF;
+        Arrays.fill(bytes, 6, bytes.length, (byte) 0xFF);
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void corruptedLengthFailsWithoutAllocatingIt() {
+        byte[] bytes = serializer.serialize(VALUE);
+        bytes[1] = 0x7F;
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+                .isInstanceOf(SerializationException.class);
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.wiliammelo.empoweru.configuration.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TwoLevelCacheTests {
+
+    private static final String KEY = "course:1";
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private StringRedisTemplate stringRedisTemplate;
+    private HookedCache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(), stringRedisTemplate,
+                100, Duration.ofMinutes(5), Duration.ofHours(1), null, 1.0, refreshes::add,
+                new CacheTagRegistry(stringRedisTemplate, Duration.ofHours(1)), new SimpleMeterRegistry());
+        remote = new HookedCache();
+        cache = new TwoLevelCache("course", Caffeine.newBuilder().maximumSize(100).build(), remote, cacheManager);
+    }
+
+    @Test
+    void readFromRedisIsNotKeptWhenInvalidatedDuringTheRead() {
+        remote.put(KEY, CacheEnvelope.of("old"));
+        // Another node changes the entry right after this node read it from Redis
+        remote.afterGet = () -> {
+            remote.put(KEY, CacheEnvelope.of("new"));
+            cache.evictLocal(KEY);
+        };
+
+        assertThat(cache.get(KEY, String.class)).isEqualTo("old");
+        remote.afterGet = null;
+
+        assertThat(cache.get(KEY, String.class)).isEqualTo("new");
+    }
+
+    @Test
+    void readFromRedisIsKeptWithoutInvalidation() {
+        remote.put(KEY, CacheEnvelope.of("value"));
+        cache.get(KEY, String.class);
+        remote.evict(KEY);
+
+        assertThat(cache.get(KEY, String.class)).isEqualTo("value");
+    }
+
+    @Test
+    void loadedValueIsNotCachedWhenEvictedWhileLoading() {
+        String loaded = cache.get(KEY, () -> {
+            cache.evict(KEY);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(remote.get(KEY)).isNull();
+        assertThat(cache.get(KEY, () -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void loadedValueIsNotCachedWhenClearedWhileLoading() {
+        cache.get(KEY, () -> {
+            cache.clearLocal();
+            return "stale";
+        });
+
+        assertThat(cache.get(KEY, () -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void earlyRefreshRunsInTheBackgroundAndIsPublished() {
+        // Already past its expiry, so every read refreshes it early
+        remote.put(KEY, new CacheEnvelope("old", 1L, System.currentTimeMillis() - 1));
+        clearInvocations(stringRedisTemplate);
+
+        assertThat(cache.get(KEY, () -> "new")).isEqualTo("old");
+        assertThat(cache.get(KEY, () -> "new")).isEqualTo("old");
+        assertThat(refreshes).hasSize(1);
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        refreshes.remove(0).run();
+
+        assertThat(cache.get(KEY, String.class)).isEqualTo("new");
+        verify(stringRedisTemplate).convertAndSend(eq(TwoLevelCacheManager.CHANNEL), anyString());
+    }
+
+    /**
+     * In-memory stand-in for the Redis cache, running a hook after each read.
+     */
+    private static class HookedCache extends ConcurrentMapCache {
+
+        private Runnable afterGet;
+
+        HookedCache() {
+            super("course");
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper wrapper = super.get(key);
+            if (afterGet != null) {
+                afterGet.run();
+            }
+            return wrapper;
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.wiliammelo.empoweru.configuration.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTests {
+
+    private static final String LOGIN = "{\"email\":\"Ada@EmpowerU.test\",\"password\":\"secret\"}";
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern("/auth/public/login");
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRoutes().put("login", route);
+        rateLimiter = mock(RateLimiter.class);
+        filter = new RateLimitFilter(rateLimiter, properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void chunkedBodyIsLimitedPerEmail() throws Exception {
+        when(rateLimiter.tryAcquire(eq("login:email:ada@empoweru.test"), anyInt(), any(Duration.class))).thenReturn(1000L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(chunkedRequest(LOGIN.getBytes(StandardCharsets.UTF_8)), response, chain);
+
+        verify(rateLimiter).tryAcquire(eq("login:email:ada@empoweru.test"), anyInt(), any(Duration.class));
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void chunkedBodyIsStillReadableDownstream() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(chunkedRequest(LOGIN.getBytes(StandardCharsets.UTF_8)), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(chain.getRequest().getInputStream().readAllBytes()).asString(StandardCharsets.UTF_8).isEqualTo(LOGIN);
+    }
+
+    @Test
+    void chunkedBodyOverTheCapIsRejected() throws Exception {
+        byte[] body = ("{\"email\":\"ada@empoweru.test\",\"padding\":\"" + "x".repeat(16 * 1024) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(chunkedRequest(body), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    /**
+     * Request sent with {@code Transfer-Encoding: chunked}, which declares no content length.
+     */
+    private static MockHttpServletRequest chunkedRequest(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/public/login") {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setServletPath("/auth/public/login");
+        request.setContentType("application/json");
+        request.addHeader("Transfer-Encoding", "chunked");
+        request.setContent(body);
+        return request;
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.wiliammelo.empoweru.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.wiliammelo.empoweru.PostgresTestConfiguration;
+import org.wiliammelo.empoweru.clients.FileUploader;
+import org.wiliammelo.empoweru.clients.LocalFileUploader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the whole application with {@code storage.provider=local}, so it also checks that the local provider starts
+ * with the default properties. Requires Docker.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "EMPOWERU_ENVIRONMENT=test",
+        "storage.provider=local",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.servlet.multipart.enabled=false",
+        "storage.upload.max-file-size=8MB",
+        "storage.upload.max-request-size=9MB",
+        "spring.data.redis.password=",
+        "jwt.secret=jwt-test-secret",
+        "local.server.host=http://localhost",
+        "aws.accessKeyId=test",
+        "aws.secretKey=test",
+        "aws.region=us-east-1",
+        "aws.sqs.certificate-queue-name=test",
+        "aws.sqs.greetings-queue-name=test"
+})
+@Import(PostgresTestConfiguration.class)
+@Testcontainers
+class MediaControllerTests {
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+        registry.add("storage.local.directory", Files.createTempDirectory("empoweru-media")::toString);
+    }
+
+    @Autowired
+    private FileUploader fileUploader;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void uploadedFileIsServedUnderTheRelativeMediaUrl() throws IOException {
+        byte[] video = new byte[64 * 1024];
+        new Random(7).nextBytes(video);
+
+        String url = fileUploader.upload("lesson.mp4", "video/mp4", new ByteArrayInputStream(video));
+
+        assertThat(fileUploader).isInstanceOf(LocalFileUploader.class);
+        assertThat(url).isEqualTo("/media/lesson.mp4");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, "bytes=1000-1999");
+        ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 1000-1999/" + video.length);
+        assertThat(response.getHeaders().getContentType()).hasToString("video/mp4");
+        assertThat(response.getBody()).isEqualTo(Arrays.copyOfRange(video, 1000, 2000));
+    }
+
+}
@@ -0,0 +1,175 @@
+package org.wiliammelo.empoweru.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.wiliammelo.empoweru.clients.FileUploader;
+import org.wiliammelo.empoweru.controllers.MultipartUploadReader.MultipartUpload;
+import org.wiliammelo.empoweru.dtos.video.CreateVideoDTO;
+import org.wiliammelo.empoweru.exceptions.InvalidUploadException;
+import org.wiliammelo.empoweru.repositories.StoredBlobRepository;
+import org.wiliammelo.empoweru.services.ContentStoreService;
+import org.wiliammelo.empoweru.services.ContentStoreService.StoredContent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MultipartUploadReaderTests {
+
+    private static final String BOUNDARY = "----upload-boundary";
+    private static final String METADATA = """
+            {"title":"Introduction to the course","sectionId":"6f1c2a4e-8a51-4a0e-9a3b-2f1e0c5d7b11","displayOrder":1}""";
+
+    private MultipartUploadReader reader;
+    private StubFileUploader fileUploader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new MultipartUploadReader(new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(reader, "maxFileSize", DataSize.ofMegabytes(8));
+        ReflectionTestUtils.setField(reader, "maxRequestSize", DataSize.ofMegabytes(9));
+        fileUploader = new StubFileUploader();
+    }
+
+    @Test
+    void fileIsStreamedToTheUploaderAndHashedOnTheWay() throws Exception {
+        byte[] video = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(video);
+        StoredBlobRepository storedBlobRepository = mock(StoredBlobRepository.class);
+        when(storedBlobRepository.findNameByDigest(anyString())).thenAnswer(invocation -> Optional.of(fileUploader.name));
+        ContentStoreService contentStoreService = new ContentStoreService(fileUploader, storedBlobRepository);
+
+        MultipartUpload<CreateVideoDTO> upload = reader.read(request("POST", metadataPart(METADATA), filePart(video)),
+                "video", CreateVideoDTO.class, "file");
+        StoredContent stored = contentStoreService.store(upload.getContentType(), upload.getContent());
+
+        assertThat(upload.getMetadata().getTitle()).isEqualTo("Introduction to the course");
+        assertThat(upload.getFileName()).isEqualTo("lesson.mp4");
+        assertThat(fileUploader.contentType).isEqualTo("video/mp4");
+        assertThat(fileUploader.received.toByteArray()).isEqualTo(video);
+        assertThat(stored.getDigest()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(video)));
+    }
+
+    @Test
+    void putRequestsAreRead() throws Exception {
+        MultipartUpload<CreateVideoDTO> upload = reader.read(request("PUT", metadataPart(METADATA), filePart(new byte[]{1, 2, 3})),
+                "video", CreateVideoDTO.class, "file");
+
+        fileUploader.upload(upload.getFileName(), upload.getContentType(), upload.getContent());
+
+        assertThat(fileUploader.received.toByteArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void filePartBeforeMetadataIsRejected() {
+        MockHttpServletRequest request = request("POST", filePart(new byte[]{1}), metadataPart(METADATA));
+
+        assertThatThrownBy(() -> reader.read(request, "video", CreateVideoDTO.class, "file"))
+                .isInstanceOf(InvalidUploadException.class);
+    }
+
+    @Test
+    void invalidMetadataIsRejected() {
+        MockHttpServletRequest request = request("POST", metadataPart("{\"title\":\"short\"}"), filePart(new byte[]{1}));
+
+        assertThatThrownBy(() -> reader.read(request, "video", CreateVideoDTO.class, "file"))
+                .isInstanceOf(ConstraintViolationException.class);
+    }
+
+    @Test
+    void fileOverTheLimitFailsWhileStreaming() throws Exception {
+        ReflectionTestUtils.setField(reader, "maxFileSize", DataSize.ofKilobytes(64));
+        MultipartUpload<CreateVideoDTO> upload = reader.read(request("POST", metadataPart(METADATA), filePart(new byte[128 * 1024])),
+                "video", CreateVideoDTO.class, "file");
+
+        assertThatThrownBy(() -> fileUploader.upload(upload.getFileName(), upload.getContentType(), upload.getContent()))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static MockHttpServletRequest request(String method, byte[]... parts) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            body.writeBytes(part);
+        }
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/video/upload");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body.toByteArray());
+        return request;
+    }
+
+    private static byte[] metadataPart(String json) {
+        return part("Content-Disposition: form-data; name=\"video\"\r\nContent-Type: application/json\r\n",
+                json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] filePart(byte[] content) {
+        return part("Content-Disposition: form-data; name=\"file\"; filename=\"lesson.mp4\"\r\nContent-Type: video/mp4\r\n",
+                content);
+    }
+
+    private static byte[] part(String headers, byte[] content) {
+        ByteArrayOutputStream part = new ByteArrayOutputStream();
+        part.writeBytes(("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        part.writeBytes(content);
+        part.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return part.toByteArray();
+    }
+
+    /**
+     * Uploader keeping what it receives in memory, reading it in small chunks as a blob client would.
+     */
+    private static class StubFileUploader implements FileUploader {
+
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private String name;
+        private String contentType;
+
+        @Override
+        public String upload(String name, String contentType, InputStream content) throws IOException {
+            this.name = name;
+            this.contentType = contentType;
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                received.write(buffer, 0, read);
+            }
+            return "https://storage.test/" + name;
+        }
+
+        @Override
+        public void delete(String name) {
+        }
+
+        @Override
+        public long size(String name) {
+            return received.size();
+        }
+
+        @Override
+        public void read(String name, long offset, ByteBuffer target) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package org.wiliammelo.empoweru.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.wiliammelo.empoweru.PostgresTestConfiguration;
+import org.wiliammelo.empoweru.models.CourseSummary;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "EMPOWERU_ENVIRONMENT=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PostgresTestConfiguration.class)
+class CourseSummaryRepositoryTests {
+
+    private static final UUID FIRST_PAGE_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private CourseSummaryRepository courseSummaryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private CourseSummary algorithms;
+    private CourseSummary javaBasics;
+    private CourseSummary javaStreams;
+    private CourseSummary springBoot;
+
+    @BeforeEach
+    void setUp() {
+        algorithms = save("Algorithms in Practice", List.of("CS", "Algorithms"));
+        javaBasics = save("Java Basics", List.of("Java", "Beginner"));
+        javaStreams = save("Advanced JAVA Streams", List.of("java"));
+        springBoot = save("Spring Boot with Java", List.of("Spring", "Backend"));
+    }
+
+    @Test
+    void findPageWalksAllSummariesByTitleThenId() {
+        List<CourseSummary> first = courseSummaryRepository.findPage("", FIRST_PAGE_ID, 2);
+        CourseSummary last = first.get(first.size() - 1);
+        List<CourseSummary> second = courseSummaryRepository.findPage(last.getTitle(), last.getCourseId(), 2);
+        CourseSummary secondLast = second.get(second.size() - 1);
+        List<CourseSummary> third = courseSummaryRepository.findPage(secondLast.getTitle(), secondLast.getCourseId(), 2);
+
+        assertThat(ids(first)).containsExactly(javaStreams.getCourseId(), algorithms.getCourseId());
+        assertThat(ids(second)).containsExactly(javaBasics.getCourseId(), springBoot.getCourseId());
+        assertThat(third).isEmpty();
+    }
+
+    @Test
+    void findPageStartsAfterTheCursorWhenTitlesAreEqual() {
+        CourseSummary lower = save(UUID.fromString("00000000-0000-0000-0000-000000000001"), "Data Structures", List.of("CS"));
+        CourseSummary higher = save(UUID.fromString("00000000-0000-0000-0000-000000000002"), "Data Structures", List.of("CS"));
+
+        List<CourseSummary> page = courseSummaryRepository.findPage(lower.getTitle(), lower.getCourseId(), 2);
+
+        assertThat(ids(page)).containsExactly(higher.getCourseId(), javaBasics.getCourseId());
+    }
+
+    @Test
+    void findPageByTitleMatchesAnywhereIgnoringCase() {
+        List<CourseSummary> page = courseSummaryRepository.findPageByTitle("java", "", FIRST_PAGE_ID, 10);
+
+        assertThat(ids(page)).containsExactly(javaStreams.getCourseId(), javaBasics.getCourseId(), springBoot.getCourseId());
+    }
+
+    @Test
+    void findPageByTitleResumesAfterTheCursor() {
+        List<CourseSummary> page = courseSummaryRepository.findPageByTitle("java", javaStreams.getTitle(), javaStreams.getCourseId(), 1);
+
+        assertThat(ids(page)).containsExactly(javaBasics.getCourseId());
+    }
+
+    @Test
+    void findPageByTagsMatchesAnyTagIgnoringItsCase() {
+        List<CourseSummary> page = courseSummaryRepository.findPageByTags(List.of("java", "backend"), "", FIRST_PAGE_ID, 10);
+
+        assertThat(ids(page)).containsExactly(javaStreams.getCourseId(), javaBasics.getCourseId(), springBoot.getCourseId());
+    }
+
+    @Test
+    void findPageByTitleAndTagsRequiresBoth() {
+        List<CourseSummary> page = courseSummaryRepository.findPageByTitleAndTags("java", List.of("spring", "beginner"), "", FIRST_PAGE_ID, 10);
+
+        assertThat(ids(page)).containsExactly(javaBasics.getCourseId(), springBoot.getCourseId());
+    }
+
+    @Test
+    void findPageByTitleAndTagsResumesAfterTheCursor() {
+        List<CourseSummary> page = courseSummaryRepository.findPageByTitleAndTags("java", List.of("spring", "beginner"),
+                javaBasics.getTitle(), javaBasics.getCourseId(), 10);
+
+        assertThat(ids(page)).containsExactly(springBoot.getCourseId());
+    }
+
+    private CourseSummary save(String title, List<String> tags) {
+        return save(UUID.randomUUID(), title, tags);
+    }
+
+    private CourseSummary save(UUID courseId, String title, List<String> tags) {
+        CourseSummary summary = new CourseSummary();
+        summary.setCourseId(courseId);
+        summary.setTitle(title);
+        summary.setDescription("Description of " + title);
+        summary.setTags(tags);
+        return entityManager.persistAndFlush(summary);
+    }
+
+    private static List<UUID> ids(List<CourseSummary> summaries) {
+        return summaries.stream().map(CourseSummary::getCourseId).toList();
+    }
+
+}
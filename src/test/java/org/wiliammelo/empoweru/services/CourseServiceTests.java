@@ -0,0 +1,176 @@
+package org.wiliammelo.empoweru.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.wiliammelo.empoweru.PostgresTestConfiguration;
+import org.wiliammelo.empoweru.configuration.cache.CacheKeys;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
+import org.wiliammelo.empoweru.dtos.course.AuthenticatedCourseDetailedDTO;
+import org.wiliammelo.empoweru.dtos.course.PublicCourseDetailedDTO;
+import org.wiliammelo.empoweru.models.Course;
+import org.wiliammelo.empoweru.models.Section;
+import org.wiliammelo.empoweru.models.Student;
+import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.models.VideoStatus;
+import org.wiliammelo.empoweru.repositories.CourseRepository;
+import org.wiliammelo.empoweru.repositories.EnrollmentRepository;
+import org.wiliammelo.empoweru.repositories.SectionRepository;
+import org.wiliammelo.empoweru.repositories.StudentRepository;
+import org.wiliammelo.empoweru.repositories.VideoRepository;
+import org.wiliammelo.empoweru.services.search.CourseSearchBackend;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the cached course loaders the way the cache's early refresh does: on another thread, outside any transaction
+ * or open session, so the lazy sections and videos can only be loaded if the loaders open their own.
+ */
+@DataJpaTest(properties = "EMPOWERU_ENVIRONMENT=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, CourseService.class, CacheKeys.class, EnrollmentRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseServiceTests {
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @MockBean
+    private ContentStoreService contentStoreService;
+
+    @MockBean
+    private CourseAuthorizationService courseAuthorizationService;
+
+    @MockBean
+    private CourseSummaryService courseSummaryService;
+
+    @MockBean
+    private CourseProgressService courseProgressService;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CourseSearchBackend courseSearchBackend;
+
+    @MockBean
+    private TwoLevelCacheManager cacheManager;
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        course = new Course();
+        course.setTitle("Java Basics");
+        course.setDescription("Variables, types and control flow.");
+        course = courseRepository.save(course);
+
+        Section section = new Section();
+        section.setTitle("Getting started");
+        section.setDescription("Installing the JDK.");
+        section.setCourse(course);
+        section = sectionRepository.save(section);
+
+        videoRepository.save(video(section, "Installing the JDK", 120, 0));
+        videoRepository.save(video(section, "Hello world", 90, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+        videoRepository.deleteAll();
+        sectionRepository.deleteAll();
+        courseRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void publicCourseDetailsLoadOutsideAnySession() throws Exception {
+        PublicCourseDetailedDTO dto = (PublicCourseDetailedDTO) CompletableFuture
+                .supplyAsync(() -> load(() -> courseService.findByIdPublic(course.getId(), true)), refreshExecutor)
+                .get();
+
+        assertThat(dto.getSections()).hasSize(1);
+        assertThat(dto.getVideosCount()).isEqualTo(2);
+        assertThat(dto.getDurationInSeconds()).isEqualTo(210);
+    }
+
+    @Test
+    void authenticatedCourseDetailsLoadOutsideAnySession() throws Exception {
+        Student student = new Student();
+        student.setName("Ada");
+        student.setEmail("ada@empoweru.test");
+        student = studentRepository.save(student);
+        UUID studentId = student.getId();
+        BitSet watched = new BitSet();
+        watched.set(1);
+        when(courseProgressService.findWatchedVideos(any(), any())).thenReturn(watched);
+
+        AuthenticatedCourseDetailedDTO dto = (AuthenticatedCourseDetailedDTO) CompletableFuture
+                .supplyAsync(() -> load(() -> courseService.findByIdAuthenticated(course.getId(), studentId)), refreshExecutor)
+                .get();
+
+        assertThat(dto.getSections().get(0).getVideos()).hasSize(2);
+        assertThat(dto.getCompletionPercentage()).isEqualTo(50.0);
+        assertThat(dto.isEnrolled()).isFalse();
+    }
+
+    private static Video video(Section section, String title, double durationInSeconds, int progressIndex) {
+        Video video = new Video();
+        video.setTitle(title);
+        video.setUrl("https://storage.test/" + UUID.randomUUID());
+        video.setDurationInSeconds(durationInSeconds);
+        video.setSortKey((progressIndex + 1) * 1024L);
+        video.setProgressIndex(progressIndex);
+        video.setStatus(VideoStatus.READY);
+        video.setSection(section);
+        return video;
+    }
+
+    private static Object load(Loader loader) {
+        try {
+            return loader.load();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+
+        Object load() throws Exception;
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.wiliammelo.empoweru.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.wiliammelo.empoweru.PostgresTestConfiguration;
+import org.wiliammelo.empoweru.configuration.cache.TwoLevelCacheManager;
+import org.wiliammelo.empoweru.dtos.section.ReorderVideosDTO;
+import org.wiliammelo.empoweru.exceptions.InvalidVideoOrderException;
+import org.wiliammelo.empoweru.models.Course;
+import org.wiliammelo.empoweru.models.Section;
+import org.wiliammelo.empoweru.models.Video;
+import org.wiliammelo.empoweru.models.VideoStatus;
+import org.wiliammelo.empoweru.repositories.VideoOrderRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "EMPOWERU_ENVIRONMENT=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, SectionService.class, VideoOrderRepository.class})
+class SectionServiceTests {
+
+    private static final UUID PROFESSOR_ID = UUID.randomUUID();
+
+    @Autowired
+    private SectionService sectionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private CourseAuthorizationService courseAuthorizationService;
+
+    @MockBean
+    private CourseSummaryService courseSummaryService;
+
+    @MockBean
+    private TwoLevelCacheManager cacheManager;
+
+    private Section section;
+    private Video pendingFirst;
+    private Video introduction;
+    private Video pendingAfterIntroduction;
+    private Video setup;
+    private Video failedAfterSetup;
+
+    @BeforeEach
+    void setUp() {
+        when(courseAuthorizationService.isOwner(any(), any())).thenReturn(true);
+
+        Course course = new Course();
+        course.setTitle("Java Basics");
+        course.setDescription("Variables, types and control flow.");
+        entityManager.persist(course);
+
+        section = new Section();
+        section.setTitle("Getting started");
+        section.setDescription("Installing the JDK.");
+        section.setCourse(course);
+        entityManager.persist(section);
+
+        pendingFirst = save("Welcome", 1, VideoStatus.PENDING);
+        introduction = save("Introduction", 2, VideoStatus.READY);
+        pendingAfterIntroduction = save("Course outline", 3, VideoStatus.PENDING);
+        setup = save("Installing the JDK", 4, VideoStatus.READY);
+        failedAfterSetup = save("Installing an IDE", 5, VideoStatus.FAILED);
+        entityManager.flush();
+    }
+
+    @Test
+    void otherVideosKeepFollowingTheirFormerReadyNeighbour() throws Exception {
+        List<UUID> result = sectionService.reorderVideos(section.getId(), reorder(setup, introduction), PROFESSOR_ID);
+
+        assertThat(result).containsExactly(setup.getId(), introduction.getId());
+        assertThat(findOrder()).containsExactly(pendingFirst.getId(), setup.getId(), failedAfterSetup.getId(),
+                introduction.getId(), pendingAfterIntroduction.getId());
+    }
+
+    @Test
+    void keysAreSpacedAgainAfterAReorder() throws Exception {
+        sectionService.reorderVideos(section.getId(), reorder(setup, introduction), PROFESSOR_ID);
+
+        List<Long> keys = entityManager.getEntityManager()
+                .createQuery("SELECT v.sortKey FROM Video v WHERE v.section.id = :sectionId ORDER BY v.sortKey", Long.class)
+                .setParameter("sectionId", section.getId())
+                .getResultList();
+        assertThat(keys).containsExactly(VideoOrderRepository.GAP, 2 * VideoOrderRepository.GAP,
+                3 * VideoOrderRepository.GAP, 4 * VideoOrderRepository.GAP, 5 * VideoOrderRepository.GAP);
+    }
+
+    @Test
+    void pendingVideosCannotBeReordered() {
+        assertThatThrownBy(() -> sectionService.reorderVideos(section.getId(),
+                reorder(setup, pendingAfterIntroduction, introduction), PROFESSOR_ID))
+                .isInstanceOf(InvalidVideoOrderException.class);
+        assertThat(findOrder()).containsExactly(pendingFirst.getId(), introduction.getId(),
+                pendingAfterIntroduction.getId(), setup.getId(), failedAfterSetup.getId());
+    }
+
+    private Video save(String title, int position, VideoStatus status) {
+        Video video = new Video();
+        video.setTitle(title);
+        video.setUrl("https://storage.test/" + UUID.randomUUID());
+        video.setSortKey(position * 1000L);
+        video.setProgressIndex(position);
+        video.setStatus(status);
+        video.setSection(section);
+        return entityManager.persist(video);
+    }
+
+    private static ReorderVideosDTO reorder(Video... videos) {
+        ReorderVideosDTO dto = new ReorderVideosDTO();
+        dto.setVideoIds(Arrays.stream(videos).map(Video::getId).toList());
+        return dto;
+    }
+
+    private List<UUID> findOrder() {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT v.id FROM Video v WHERE v.section.id = :sectionId ORDER BY v.sortKey, v.id", UUID.class)
+                .setParameter("sectionId", section.getId())
+                .getResultList();
+    }
+
+}
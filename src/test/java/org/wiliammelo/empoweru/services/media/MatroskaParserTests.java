@@ -0,0 +1,175 @@
+package org.wiliammelo.empoweru.services.media;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MatroskaParserTests {
+
+    private static final long EBML = 0x1A45DFA3L;
+    private static final long DOC_TYPE = 0x4282L;
+    private static final long SEGMENT = 0x18538067L;
+    private static final long SEEK_HEAD = 0x114D9B74L;
+    private static final long INFO = 0x1549A966L;
+    private static final long TIMESTAMP_SCALE = 0x2AD7B1L;
+    private static final long DURATION = 0x4489L;
+    private static final long TRACKS = 0x1654AE6BL;
+    private static final long TRACK_ENTRY = 0xAEL;
+    private static final long TRACK_NUMBER = 0xD7L;
+    private static final long VIDEO = 0xE0L;
+    private static final long PIXEL_WIDTH = 0xB0L;
+    private static final long PIXEL_HEIGHT = 0xBAL;
+    private static final long CLUSTER = 0x1F43B675L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAnUnknownSizeSegmentUpToTheFirstCluster() throws IOException {
+        byte[] file = concat(
+                ebmlHeader(),
+                unknownSizeElement(SEGMENT,
+                        element(SEEK_HEAD, randomBytes(300)),
+                        element(INFO,
+                                element(TIMESTAMP_SCALE, unsigned(1_000_000, 3)),
+                                element(DURATION, ByteBuffer.allocate(8).putDouble(12_345.0).array())),
+                        element(TRACKS,
+                                element(TRACK_ENTRY,
+                                        element(TRACK_NUMBER, unsigned(1, 1)),
+                                        element(VIDEO,
+                                                element(PIXEL_WIDTH, unsigned(1280, 2)),
+                                                element(PIXEL_HEIGHT, unsigned(720, 2))))),
+                        unknownSizeElement(CLUSTER, randomBytes(8192))));
+
+        assertMedia(probeFile(file), 12.345, 1280, 720, file.length);
+        assertMedia(probeStream(file), 12.345, 1280, 720, file.length);
+    }
+
+    @Test
+    void readsLongSizeVintsAndTheDefaultTimestampScale() throws IOException {
+        byte[] file = concat(
+                ebmlHeader(),
+                // Sizes stored on more bytes than needed are valid vints
+                sizedElement(SEGMENT, 8,
+                        sizedElement(INFO, 4,
+                                element(DURATION, ByteBuffer.allocate(4).putFloat(60_000f).array())),
+                        sizedElement(TRACKS, 2,
+                                // An audio track comes first, it has no Video element
+                                element(TRACK_ENTRY, element(TRACK_NUMBER, unsigned(1, 1))),
+                                element(TRACK_ENTRY,
+                                        element(TRACK_NUMBER, unsigned(2, 1)),
+                                        element(VIDEO,
+                                                element(PIXEL_WIDTH, unsigned(3840, 2)),
+                                                element(PIXEL_HEIGHT, unsigned(2160, 2))))),
+                        sizedElement(CLUSTER, 8, randomBytes(100 * 1024))));
+
+        assertMedia(probeFile(file), 60.0, 3840, 2160, file.length);
+        assertMedia(probeStream(file), 60.0, 3840, 2160, file.length);
+    }
+
+    @Test
+    void unknownSizeElementThatIsNotDescendedStopsTheParser() throws IOException {
+        byte[] file = concat(
+                ebmlHeader(),
+                unknownSizeElement(SEGMENT,
+                        unknownSizeElement(SEEK_HEAD, randomBytes(64)),
+                        element(INFO, element(DURATION, ByteBuffer.allocate(8).putDouble(1_000.0).array()))));
+
+        MediaInfo info = probeFile(file);
+
+        assertThat(info.getContentType()).isEqualTo("video/mkv");
+        assertThat(info.getDurationInSeconds()).isNull();
+        assertThat(probeStream(file).getDurationInSeconds()).isNull();
+    }
+
+    private MediaInfo probeFile(byte[] file) throws IOException {
+        Path path = directory.resolve("video.mkv");
+        Files.write(path, file);
+        return MediaProbe.probe(path);
+    }
+
+    /**
+     * Probes the file through a {@link MediaProbe.ProbingInputStream} read one byte at a time, so every ID and size
+     * vint is split across reads.
+     */
+    private static MediaInfo probeStream(byte[] file) throws IOException {
+        MediaProbe.ProbingInputStream stream = MediaProbe.probing(new ByteArrayInputStream(file));
+        while (stream.read() >= 0) {
+            // Read to the end
+        }
+        return stream.getMediaInfo();
+    }
+
+    private static void assertMedia(MediaInfo info, double durationInSeconds, int width, int height, long fileSize) {
+        assertThat(info.getContentType()).isEqualTo("video/mkv");
+        assertThat(info.getDurationInSeconds()).isCloseTo(durationInSeconds, within(1e-9));
+        assertThat(info.getWidth()).isEqualTo(width);
+        assertThat(info.getHeight()).isEqualTo(height);
+        assertThat(info.getBitrate()).isEqualTo(Math.round(fileSize * 8 / info.getDurationInSeconds()));
+    }
+
+    private static byte[] ebmlHeader() {
+        return element(EBML, element(DOC_TYPE, "webm".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] element(long id, byte[]... children) {
+        byte[] content = concat(children);
+        int sizeLength = 1;
+        // The all-ones value of each length means an unknown size
+        while (content.length >= (1L << (7 * sizeLength)) - 1) {
+            sizeLength++;
+        }
+        return sizedElement(id, sizeLength, content);
+    }
+
+    private static byte[] sizedElement(long id, int sizeLength, byte[]... children) {
+        byte[] content = concat(children);
+        return concat(id(id), unsigned((1L << (7 * sizeLength)) | content.length, sizeLength), content);
+    }
+
+    private static byte[] unknownSizeElement(long id, byte[]... children) {
+        return concat(id(id), unsigned(0x01FFFFFFFFFFFFFFL, 8), concat(children));
+    }
+
+    /**
+     * Writes an element ID, whose length marker is part of its value.
+     */
+    private static byte[] id(long id) {
+        return unsigned(id, (64 - Long.numberOfLeadingZeros(id) + 7) / 8);
+    }
+
+    private static byte[] unsigned(long value, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = length - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            output.writeBytes(part);
+        }
+        return output.toByteArray();
+    }
+
+}
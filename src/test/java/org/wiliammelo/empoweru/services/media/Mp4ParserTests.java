@@ -0,0 +1,159 @@
+package org.wiliammelo.empoweru.services.media;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Mp4ParserTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsVersion0HeadersBeforeTheMediaData() throws IOException {
+        byte[] file = concat(
+                ftyp(),
+                box("moov", mvhd(0, 1000, 90_500), box("trak", tkhd(0, 1280, 720))),
+                box("mdat", randomBytes(4096)));
+
+        assertMedia(probeFile(file), 90.5, 1280, 720, file.length);
+        assertMedia(probeStream(file), 90.5, 1280, 720, file.length);
+    }
+
+    @Test
+    void readsVersion1HeadersAfterALargeSizeMediaData() throws IOException {
+        byte[] file = concat(
+                ftyp(),
+                largeBox("mdat", randomBytes(200 * 1024)),
+                box("moov",
+                        mvhd(1, 90_000, 90_000L * 125),
+                        // An audio track comes first, its presentation size is zero
+                        box("trak", tkhd(1, 0, 0)),
+                        box("trak", tkhd(1, 1920, 1080))));
+
+        assertMedia(probeFile(file), 125.0, 1920, 1080, file.length);
+        assertMedia(probeStream(file), 125.0, 1920, 1080, file.length);
+    }
+
+    @Test
+    void missingMoovLeavesTheMetadataEmpty() throws IOException {
+        byte[] file = concat(ftyp(), box("mdat", randomBytes(1024)));
+
+        MediaInfo info = probeFile(file);
+
+        assertThat(info.getContentType()).isEqualTo("video/mp4");
+        assertThat(info.getDurationInSeconds()).isNull();
+        assertThat(info.getWidth()).isNull();
+        assertThat(info.getBitrate()).isNull();
+    }
+
+    @Test
+    void otherContentIsNotProbed() throws IOException {
+        byte[] file = "plain text, not a video container".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(probeFile(file)).isNull();
+        assertThat(probeStream(file)).isNull();
+    }
+
+    private MediaInfo probeFile(byte[] file) throws IOException {
+        Path path = directory.resolve("video.mp4");
+        Files.write(path, file);
+        return MediaProbe.probe(path);
+    }
+
+    /**
+     * Probes the file through a {@link MediaProbe.ProbingInputStream} read one byte at a time, so every header and box
+     * is split across reads.
+     */
+    private static MediaInfo probeStream(byte[] file) throws IOException {
+        MediaProbe.ProbingInputStream stream = MediaProbe.probing(new ByteArrayInputStream(file));
+        while (stream.read() >= 0) {
+            // Read to the end
+        }
+        return stream.getMediaInfo();
+    }
+
+    private static void assertMedia(MediaInfo info, double durationInSeconds, int width, int height, long fileSize) {
+        assertThat(info.getContentType()).isEqualTo("video/mp4");
+        assertThat(info.getDurationInSeconds()).isEqualTo(durationInSeconds);
+        assertThat(info.getWidth()).isEqualTo(width);
+        assertThat(info.getHeight()).isEqualTo(height);
+        assertThat(info.getBitrate()).isEqualTo(Math.round(fileSize * 8 / durationInSeconds));
+    }
+
+    private static byte[] ftyp() {
+        return box("ftyp", ByteBuffer.allocate(16)
+                .put("isom".getBytes(StandardCharsets.US_ASCII))
+                .putInt(512)
+                .put("isommp41".getBytes(StandardCharsets.US_ASCII))
+                .array());
+    }
+
+    private static byte[] mvhd(int version, long timescale, long duration) {
+        ByteBuffer content = ByteBuffer.allocate(version == 1 ? 112 : 100);
+        content.put(0, (byte) version);
+        if (version == 1) {
+            content.putInt(20, (int) timescale).putLong(24, duration);
+        } else {
+            content.putInt(12, (int) timescale).putInt(16, (int) duration);
+        }
+        return box("mvhd", content.array());
+    }
+
+    /**
+     * Builds a track header with a presentation size in 16.16 fixed point.
+     */
+    private static byte[] tkhd(int version, int width, int height) {
+        int offset = version == 1 ? 88 : 76;
+        ByteBuffer content = ByteBuffer.allocate(offset + 8);
+        content.put(0, (byte) version);
+        content.putInt(offset, width << 16).putInt(offset + 4, height << 16);
+        return box("tkhd", content.array());
+    }
+
+    private static byte[] box(String type, byte[]... children) {
+        byte[] content = concat(children);
+        return ByteBuffer.allocate(8 + content.length)
+                .putInt(8 + content.length)
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .put(content)
+                .array();
+    }
+
+    /**
+     * Builds a box whose size is stored as a 64-bit value after its type, signalled by a 32-bit size of 1.
+     */
+    private static byte[] largeBox(String type, byte[] content) {
+        return ByteBuffer.allocate(16 + content.length)
+                .putInt(1)
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .putLong(16L + content.length)
+                .put(content)
+                .array();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            output.writeBytes(part);
+        }
+        return output.toByteArray();
+    }
+
+}
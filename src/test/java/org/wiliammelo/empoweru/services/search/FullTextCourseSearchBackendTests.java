@@ -0,0 +1,92 @@
+package org.wiliammelo.empoweru.services.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.wiliammelo.empoweru.PostgresTestConfiguration;
+import org.wiliammelo.empoweru.models.CourseSummary;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"EMPOWERU_ENVIRONMENT=test", "course.search.mode=fulltext"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestConfiguration.class, FullTextCourseSearchBackend.class})
+class FullTextCourseSearchBackendTests {
+
+    @Autowired
+    private FullTextCourseSearchBackend backend;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private CourseSummary kubernetes;
+    private CourseSummary cloud;
+    private CourseSummary containers;
+    private CourseSummary painting;
+
+    @BeforeEach
+    void setUp() {
+        kubernetes = save("Kubernetes for Developers", "Deploy and scale applications on a cluster.", List.of("DevOps", "Cloud"));
+        cloud = save("Cloud Basics", "A first look at virtual machines, storage and Kubernetes.", List.of("Cloud"));
+        containers = save("Container Orchestration", "Schedule containers across many hosts.", List.of("DevOps"));
+        painting = save("Watercolor Painting", "Brushes, paper and pigments for beginners.", List.of("Art"));
+    }
+
+    @Test
+    void ranksTitleMatchesBeforeDescriptionMatches() {
+        assertThat(backend.search("kubernetes", null, 0, 10))
+                .containsExactly(kubernetes.getCourseId(), cloud.getCourseId());
+    }
+
+    @Test
+    void matchesStemmedWords() {
+        assertThat(backend.search("containers", null, 0, 10))
+                .containsExactly(containers.getCourseId());
+    }
+
+    @Test
+    void matchesTagsAsPartOfTheDocument() {
+        assertThat(backend.search("devops", null, 0, 10))
+                .containsExactlyInAnyOrder(kubernetes.getCourseId(), containers.getCourseId());
+    }
+
+    @Test
+    void filtersTextMatchesByTagIgnoringCase() {
+        assertThat(backend.search("kubernetes", List.of("devops"), 0, 10))
+                .containsExactly(kubernetes.getCourseId());
+    }
+
+    @Test
+    void searchesByTagsAloneInTitleOrder() {
+        assertThat(backend.search(null, List.of("CLOUD", "art"), 0, 10))
+                .containsExactly(cloud.getCourseId(), kubernetes.getCourseId(), painting.getCourseId());
+    }
+
+    @Test
+    void pagesWithOffsetAndLimit() {
+        assertThat(backend.search(null, List.of("cloud", "devops", "art"), 1, 2))
+                .containsExactly(containers.getCourseId(), kubernetes.getCourseId());
+    }
+
+    @Test
+    void returnsNothingWhenNoDocumentMatches() {
+        assertThat(backend.search("quantum", null, 0, 10)).isEmpty();
+    }
+
+    private CourseSummary save(String title, String description, List<String> tags) {
+        CourseSummary summary = new CourseSummary();
+        summary.setCourseId(UUID.randomUUID());
+        summary.setTitle(title);
+        summary.setDescription(description);
+        summary.setTags(tags);
+        return entityManager.persistAndFlush(summary);
+    }
+
+}